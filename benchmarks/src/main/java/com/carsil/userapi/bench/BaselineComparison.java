@@ -0,0 +1,109 @@
+package com.carsil.userapi.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares two JMH JSON result files. A benchmark regresses when its throughput drops, or its
+ * allocation per operation grows, by more than the threshold. Benchmarks missing from either side
+ * are reported but never fail the comparison.
+ */
+public class BaselineComparison {
+
+    static final String ALLOC = "gc.alloc.rate.norm";
+
+    // allocation noise floor in bytes/op; below it a relative change means nothing
+    private static final double ALLOC_SLACK = 16;
+
+    public record Entry(String key, double baselineOps, double currentOps,
+                        double baselineAlloc, double currentAlloc, boolean regressed) {
+    }
+
+    private final double threshold;
+
+    public BaselineComparison(double thresholdPercent) {
+        if (thresholdPercent <= 0) throw new IllegalArgumentException("threshold must be positive");
+        this.threshold = thresholdPercent / 100.0;
+    }
+
+    public List<Entry> compare(JsonNode baseline, JsonNode current) {
+        Map<String, JsonNode> before = index(baseline);
+        List<Entry> entries = new ArrayList<>();
+        for (Map.Entry<String, JsonNode> e : index(current).entrySet()) {
+            JsonNode old = before.get(e.getKey());
+            if (old == null) continue;
+            double oldOps = score(old.path("primaryMetric"));
+            double newOps = score(e.getValue().path("primaryMetric"));
+            double oldAlloc = score(secondary(old, ALLOC));
+            double newAlloc = score(secondary(e.getValue(), ALLOC));
+            boolean slower = newOps < oldOps * (1 - threshold);
+            boolean heavier = !Double.isNaN(oldAlloc) && !Double.isNaN(newAlloc)
+                    && newAlloc > oldAlloc * (1 + threshold) + ALLOC_SLACK;
+            entries.add(new Entry(e.getKey(), oldOps, newOps, oldAlloc, newAlloc, slower || heavier));
+        }
+        return entries;
+    }
+
+    public static String format(List<Entry> entries) {
+        StringBuilder out = new StringBuilder(String.format("%-90s %14s %14s %8s %12s %12s%n",
+                "Benchmark", "base ops/s", "ops/s", "delta", "base B/op", "B/op"));
+        for (Entry e : entries) {
+            out.append(String.format("%-90s %14.1f %14.1f %7.1f%% %12.1f %12.1f%s%n",
+                    e.key(), e.baselineOps(), e.currentOps(),
+                    (e.currentOps() / e.baselineOps() - 1) * 100,
+                    e.baselineAlloc(), e.currentAlloc(),
+                    e.regressed() ? "  REGRESSION" : ""));
+        }
+        return out.toString();
+    }
+
+    private static Map<String, JsonNode> index(JsonNode results) {
+        Map<String, JsonNode> byKey = new LinkedHashMap<>();
+        for (JsonNode r : results) byKey.put(key(r), r);
+        return byKey;
+    }
+
+    private static String key(JsonNode result) {
+        Map<String, String> params = new TreeMap<>();
+        Iterator<Map.Entry<String, JsonNode>> it = result.path("params").fields();
+        while (it.hasNext()) {
+            Map.Entry<String, JsonNode> p = it.next();
+            params.put(p.getKey(), p.getValue().asText());
+        }
+        String name = result.path("benchmark").asText();
+        return params.isEmpty() ? name : name + params;
+    }
+
+    // JMH up to 1.35 prefixed profiler metrics with a middle dot
+    private static JsonNode secondary(JsonNode result, String metric) {
+        JsonNode metrics = result.path("secondaryMetrics");
+        JsonNode node = metrics.path(metric);
+        return node.isMissingNode() ? metrics.path("·" + metric) : node;
+    }
+
+    private static double score(JsonNode metric) {
+        return metric.has("score") ? metric.get("score").asDouble() : Double.NaN;
+    }
+
+    /** {@code BaselineComparison <baseline.json> <current.json> [threshold%]}; exits 1 on regression. */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: BaselineComparison <baseline.json> <current.json> [threshold%]");
+            System.exit(2);
+        }
+        ObjectMapper mapper = new ObjectMapper();
+        BaselineComparison comparison = new BaselineComparison(args.length > 2 ? Double.parseDouble(args[2]) : 10);
+        List<Entry> entries = comparison.compare(mapper.readTree(new File(args[0])), mapper.readTree(new File(args[1])));
+        System.out.print(format(entries));
+        System.exit(entries.stream().anyMatch(Entry::regressed) ? 1 : 0);
+    }
+}
@@ -0,0 +1,64 @@
+package com.carsil.userapi.bench;
+
+import com.carsil.userapi.bench.BaselineComparison.Entry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Runs the benchmarks with the GC profiler, so every result carries throughput and allocation per
+ * operation, and writes the JMH JSON to {@code bench.result}. Given {@code bench.baseline} (an
+ * earlier result file), it exits with status 1 when any benchmark regresses by more than
+ * {@code bench.threshold} percent.
+ *
+ * <pre>
+ * mvn -f benchmarks/pom.xml package
+ * java -jar benchmarks/target/benchmarks.jar                                  # record
+ * java -Dbench.baseline=baseline.json -jar benchmarks/target/benchmarks.jar   # compare
+ * </pre>
+ *
+ * Other properties: {@code bench.include} (regex, default all) and {@code bench.quick=true}
+ * (one short iteration, for checking the setup rather than measuring).
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        String include = System.getProperty("bench.include", "com\\.carsil\\.userapi\\..*");
+        String result = System.getProperty("bench.result", "jmh-result.json");
+        String baseline = System.getProperty("bench.baseline");
+        double threshold = Double.parseDouble(System.getProperty("bench.threshold", "10"));
+
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .include(include)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(result);
+        if (Boolean.getBoolean("bench.quick")) {
+            options.warmupIterations(1).warmupTime(TimeValue.milliseconds(200))
+                    .measurementIterations(1).measurementTime(TimeValue.milliseconds(200))
+                    .forks(1);
+        }
+        new Runner(options.build()).run();
+
+        if (baseline == null) return;
+        ObjectMapper mapper = new ObjectMapper();
+        List<Entry> entries = new BaselineComparison(threshold)
+                .compare(mapper.readTree(new File(baseline)), mapper.readTree(new File(result)));
+        System.out.println();
+        System.out.print(BaselineComparison.format(entries));
+        long regressions = entries.stream().filter(Entry::regressed).count();
+        if (regressions > 0) {
+            System.err.printf("%d benchmark(s) regressed by more than %.1f%% against %s%n", regressions, threshold, baseline);
+            System.exit(1);
+        }
+    }
+}
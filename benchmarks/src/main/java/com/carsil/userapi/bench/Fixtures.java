@@ -0,0 +1,70 @@
+package com.carsil.userapi.bench;
+
+import com.carsil.userapi.model.Module;
+import com.carsil.userapi.model.Product;
+import com.carsil.userapi.model.enums.ProductionStatus;
+import com.carsil.userapi.model.enums.StoppageReason;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/** Deterministic, realistic-looking data shared by the benchmarks. */
+final class Fixtures {
+
+    private static final String[] SIZES = {"XS", "S", "M", "L", "XL"};
+
+    private Fixtures() {
+    }
+
+    static Module module(long id, int people) {
+        Module m = new Module();
+        m.setId(id);
+        m.setName("Modulo " + id);
+        m.setNumPersons(people);
+        return m;
+    }
+
+    static List<Product> products(int count, Module module) {
+        SplittableRandom random = new SplittableRandom(42);
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Map<String, Integer> sizes = new HashMap<>();
+            int quantity = 0;
+            for (String size : SIZES) {
+                int units = random.nextInt(10, 200);
+                sizes.put(size, units);
+                quantity += units;
+            }
+            int made = random.nextInt(quantity + 1);
+            double sam = 5 + random.nextInt(400) / 10.0;
+
+            Product p = new Product();
+            p.setId((long) i + 1);
+            p.setOp(String.valueOf(100_000 + i));
+            p.setReference(String.valueOf(random.nextInt(1000, 9999)));
+            p.setBrand("Carsil");
+            p.setCampaign(String.valueOf(random.nextInt(1, 12)));
+            p.setType("A" + random.nextInt(1, 9));
+            p.setPrice(BigDecimal.valueOf(random.nextInt(5_000, 90_000), 2));
+            p.setSizeQuantities(sizes);
+            p.setQuantity(quantity);
+            p.setQuantityMade(made);
+            p.setSam(sam);
+            p.setMissing(quantity - made);
+            p.setSamTotal((int) Math.round(sam * (quantity - made)));
+            p.setAssignedDate(start.plusDays(random.nextInt(300)));
+            if (random.nextBoolean()) p.setPlantEntryDate(p.getAssignedDate().plusDays(random.nextInt(60)));
+            p.setStatus(ProductionStatus.values()[random.nextInt(ProductionStatus.values().length)]);
+            p.setStoppageReason(StoppageReason.values()[random.nextInt(StoppageReason.values().length)]);
+            p.setModule(module);
+            products.add(p);
+        }
+        return products;
+    }
+}
@@ -0,0 +1,52 @@
+package com.carsil.userapi.bench;
+
+import com.carsil.userapi.model.Product;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Product (de)serialization with a mapper configured like Spring Boot's default one. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JacksonBenchmarks {
+
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private Product product;
+    private byte[] json;
+
+    @Setup
+    public void setup() throws IOException {
+        ObjectMapper mapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        writer = mapper.writerFor(Product.class);
+        reader = mapper.readerFor(Product.class);
+        List<Product> products = Fixtures.products(1, Fixtures.module(1, 12));
+        product = products.get(0);
+        json = writer.writeValueAsBytes(product);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return writer.writeValueAsBytes(product);
+    }
+
+    @Benchmark
+    public Product deserialize() throws IOException {
+        return reader.readValue(json);
+    }
+}
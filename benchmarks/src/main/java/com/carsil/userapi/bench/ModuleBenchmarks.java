@@ -0,0 +1,51 @@
+package com.carsil.userapi.bench;
+
+import com.carsil.userapi.model.Module;
+import com.carsil.userapi.model.Product;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Module load: reading the stored aggregate against summing the module's products, which is what a
+ * full recompute costs for large modules.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModuleBenchmarks {
+
+    @Param({"1000", "100000"})
+    private int products;
+
+    private Module module;
+    private List<Product> list;
+
+    @Setup
+    public void setup() {
+        module = Fixtures.module(1, 12);
+        list = Fixtures.products(products, module);
+        module.setProducts(list);
+        module.setSamTotalSum(list.stream().mapToLong(Product::getSamTotal).sum());
+    }
+
+    @Benchmark
+    public BigDecimal totalLoadDaysFromAggregate() {
+        return module.getTotaLoadDays();
+    }
+
+    @Benchmark
+    public BigDecimal totalLoadDaysFromProducts() {
+        long sam = 0;
+        for (Product p : module.getProducts()) {
+            Integer samTotal = p.getSamTotal();
+            if (samTotal != null) sam += samTotal;
+        }
+        return Module.loadDaysFor(sam, module.getNumPersons());
+    }
+}
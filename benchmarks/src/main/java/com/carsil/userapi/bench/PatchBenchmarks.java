@@ -0,0 +1,48 @@
+package com.carsil.userapi.bench;
+
+import com.carsil.userapi.model.Product;
+import com.carsil.userapi.service.ProductPatchApplier;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/** A typical PATCH from the plant floor, applied by the precompiled applier and by Jackson. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PatchBenchmarks {
+
+    private final ProductPatchApplier applier = new ProductPatchApplier();
+    private final Map<String, Object> patch = Map.of(
+            "quantityMade", 40, "sam", 12.5, "plantEntryDate", "2024-06-01", "status", "CONFECCION");
+
+    private ObjectMapper mapper;
+    private Product product;
+
+    @Setup
+    public void setup() {
+        mapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        product = Fixtures.products(1, Fixtures.module(1, 12)).get(0);
+    }
+
+    @Benchmark
+    public Set<String> precompiledApplier() {
+        return applier.apply(product, patch, Set.of());
+    }
+
+    @Benchmark
+    public Product jacksonUpdateValue() throws JsonMappingException {
+        return mapper.updateValue(product, patch);
+    }
+}
@@ -0,0 +1,74 @@
+package com.carsil.userapi.bench;
+
+import com.carsil.userapi.model.Product;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Body of {@code GET /api/products} in each negotiated format, with and without gzip. Setup prints
+ * the payload size of every combination; the score is the CPU spent producing it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PayloadBenchmarks {
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    @Param({"json", "smile", "cbor"})
+    public String format;
+
+    @Param({"false", "true"})
+    public boolean gzip;
+
+    private ObjectWriter writer;
+    private List<Product> products;
+    private int expectedSize;
+
+    static ObjectMapper mapper(String format) {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        return switch (format) {
+            case "json" -> builder.build();
+            case "smile" -> builder.factory(new SmileFactory()).build();
+            case "cbor" -> builder.factory(new CBORFactory()).build();
+            default -> throw new IllegalArgumentException("Unknown format: " + format);
+        };
+    }
+
+    @Setup
+    public void setup() throws IOException {
+        ObjectMapper mapper = mapper(format);
+        writer = mapper.writerFor(mapper.getTypeFactory().constructCollectionType(List.class, Product.class));
+        products = Fixtures.products(rows, Fixtures.module(1, 12));
+        byte[] body = serialize();
+        expectedSize = body.length;
+        System.out.printf("%n%s%s, %d rows: %,d bytes (%.0f per row)%n",
+                format, gzip ? "+gzip" : "", rows, body.length, (double) body.length / rows);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(Math.max(expectedSize, 8192));
+        try (OutputStream out = gzip ? new GZIPOutputStream(bytes, 8192) : bytes) {
+            writer.writeValue(out, products);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,60 @@
+package com.carsil.userapi.bench;
+
+import com.carsil.userapi.model.Module;
+import com.carsil.userapi.model.Product;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Derived getters and progress updates as they are hit when serializing or editing a product list. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductBenchmarks {
+
+    @Param({"1000"})
+    private int products;
+
+    private List<Product> list;
+
+    @Setup
+    public void setup() {
+        Module module = Fixtures.module(1, 12);
+        list = Fixtures.products(products, module);
+    }
+
+    @Benchmark
+    public void loadDays(Blackhole bh) {
+        for (Product p : list) bh.consume(p.getLoadDays());
+    }
+
+    @Benchmark
+    public void totalPrice(Blackhole bh) {
+        for (Product p : list) bh.consume(p.getTotalPrice());
+    }
+
+    @Benchmark
+    public void cycleCalculated(Blackhole bh) {
+        for (Product p : list) bh.consume(p.getCycleCalculated());
+    }
+
+    // +1 then -1 keeps every product inside its valid range across invocations
+    @Benchmark
+    public void addMade(Blackhole bh) {
+        for (Product p : list) {
+            if (p.getQuantityMade() < p.getQuantity()) {
+                p.addMade(1);
+                p.addMade(-1);
+            } else {
+                p.addMade(-1);
+                p.addMade(1);
+            }
+            bh.consume(p.getSamTotal());
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.carsil.userapi.bench;
+
+import com.carsil.userapi.model.enums.StoppageReason;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StoppageReasonBenchmarks {
+
+    // first, last and a padded lower-case label, as they arrive from the UI
+    @Param({"MARQUILLA TALLA", "SESGO", "  falta todo "})
+    private String label;
+
+    @Benchmark
+    public StoppageReason fromJson() {
+        return StoppageReason.fromJson(label);
+    }
+}
@@ -0,0 +1,51 @@
+package com.carsil.userapi.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+// Lives in the service package because CapacityScheduler is package-private. Solves the same
+// 40-module, 5000-product plant as CapacitySchedulerTest from scratch, with no time budget in the way.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CapacitySchedulerBenchmarks {
+
+    @Param({"1000", "5000"})
+    private int products;
+
+    private final double[] capacity = new double[40];
+    private final double[] pinned = new double[40];
+    private int[] sam;
+    private double[] due;
+    private int[] unassigned;
+
+    @Setup
+    public void setup() {
+        SplittableRandom random = new SplittableRandom(7);
+        for (int k = 0; k < capacity.length; k++) {
+            capacity[k] = random.nextInt(8, 25) * ScheduleService.SAM_PER_PERSON_DAY;
+            pinned[k] = random.nextInt(0, 20_000);
+        }
+        sam = new int[products];
+        due = new double[products];
+        for (int i = 0; i < products; i++) {
+            sam[i] = random.nextInt(200, 6_000);
+            due[i] = random.nextInt(4) == 0 ? CapacityScheduler.NO_DUE : random.nextInt(5, 60);
+        }
+        unassigned = new int[products];
+        Arrays.fill(unassigned, -1);
+    }
+
+    @Benchmark
+    public CapacityScheduler.Result solve() {
+        return new CapacityScheduler(capacity, pinned, sam, due, unassigned, 10)
+                .solve(20_000, TimeUnit.MINUTES.toNanos(1), ForkJoinPool.commonPool());
+    }
+}
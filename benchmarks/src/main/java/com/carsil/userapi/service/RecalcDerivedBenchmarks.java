@@ -0,0 +1,48 @@
+package com.carsil.userapi.service;
+
+import com.carsil.userapi.model.Module;
+import com.carsil.userapi.model.Product;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Lives in the service package because ProductService.recalcDerived is package-private.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecalcDerivedBenchmarks {
+
+    private final List<Product> products = new ArrayList<>();
+
+    @Setup
+    public void setup() {
+        Module module = new Module();
+        module.setNumPersons(12);
+        for (int i = 0; i < 1000; i++) {
+            Product p = new Product();
+            p.setPrice(BigDecimal.TEN);
+            p.setQuantity(100 + i % 400);
+            p.setQuantityMade(i % 100);
+            p.setSam(5 + (i % 300) / 10.0);
+            p.setAssignedDate(LocalDate.of(2024, 1, 1).plusDays(i % 200));
+            p.setModule(module);
+            products.add(p);
+        }
+    }
+
+    @Benchmark
+    public void recalcDerived(Blackhole bh) {
+        for (Product p : products) {
+            ProductService.recalcDerived(p);
+            bh.consume(p.getSamTotal());
+        }
+    }
+}
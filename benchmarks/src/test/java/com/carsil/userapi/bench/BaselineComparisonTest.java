@@ -0,0 +1,49 @@
+package com.carsil.userapi.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BaselineComparisonTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private JsonNode result(String name, double ops, double alloc) throws Exception {
+        return mapper.readTree("""
+                [{"benchmark":"%s","params":{"products":"1000"},
+                  "primaryMetric":{"score":%s},
+                  "secondaryMetrics":{"gc.alloc.rate.norm":{"score":%s}}}]
+                """.formatted(name, ops, alloc));
+    }
+
+    @Test
+    void flagsThroughputDropBeyondThreshold() throws Exception {
+        List<BaselineComparison.Entry> entries = new BaselineComparison(10)
+                .compare(result("a.b", 1000, 64), result("a.b", 850, 64));
+
+        assertThat(entries).singleElement().satisfies(e -> {
+            assertThat(e.key()).isEqualTo("a.b{products=1000}");
+            assertThat(e.regressed()).isTrue();
+        });
+    }
+
+    @Test
+    void flagsAllocationGrowth_butIgnoresNoiseNearZero() throws Exception {
+        BaselineComparison comparison = new BaselineComparison(10);
+
+        assertThat(comparison.compare(result("a.b", 1000, 1000), result("a.b", 1000, 1200)))
+                .singleElement().extracting(BaselineComparison.Entry::regressed).isEqualTo(true);
+        assertThat(comparison.compare(result("a.b", 1000, 0.01), result("a.b", 1000, 2)))
+                .singleElement().extracting(BaselineComparison.Entry::regressed).isEqualTo(false);
+    }
+
+    @Test
+    void withinThreshold_isNotARegression() throws Exception {
+        assertThat(new BaselineComparison(10).compare(result("a.b", 1000, 64), result("a.b", 950, 66)))
+                .singleElement().extracting(BaselineComparison.Entry::regressed).isEqualTo(false);
+    }
+}
@@ -0,0 +1,127 @@
+package com.carsil.userapi.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Latency percentiles and throughput per endpoint of a load run, written as JSON together with the
+ * settings that produced them so two runs can be compared. Each result keeps its compressed
+ * histogram, so other percentiles can be read back later with {@code Histogram.decodeFromCompressedByteBuffer}.
+ */
+public class LoadReport {
+
+    // latency noise floor in ms; below it a relative change of p99 means nothing
+    private static final double LATENCY_SLACK_MS = 1.0;
+
+    /** The knobs of a run; results are only comparable between runs with the same settings. */
+    public record Settings(int modules, int products, long seed, double rate, String duration, String mix) {
+    }
+
+    public record Result(String operation, String endpoint, long requests, long errors, double throughput,
+                         double p50, double p90, double p99, double p999, double max, String histogram) {
+
+        static Result of(Operation op, OpenLoopDriver.EndpointStats stats, double seconds) {
+            Histogram h = stats.latency();
+            ByteBuffer buffer = ByteBuffer.allocate(h.getNeededByteBufferCapacity());
+            int length = h.encodeIntoCompressedByteBuffer(buffer);
+            return new Result(op.name().toLowerCase(Locale.ROOT), op.endpoint(),
+                    stats.ok() + stats.errors(), stats.errors(), stats.ok() / seconds,
+                    millis(h, 50), millis(h, 90), millis(h, 99), millis(h, 99.9), h.getMaxValue() / 1000.0,
+                    Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), length)));
+        }
+
+        private static double millis(Histogram h, double percentile) {
+            return h.getValueAtPercentile(percentile) / 1000.0;
+        }
+    }
+
+    public record Entry(String operation, Result baseline, Result current, boolean regressed) {
+    }
+
+    public record Report(Settings settings, double elapsedSeconds, long sent, List<Result> results) {
+    }
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private final double threshold;
+
+    public LoadReport(double thresholdPercent) {
+        if (thresholdPercent <= 0) throw new IllegalArgumentException("threshold must be positive");
+        this.threshold = thresholdPercent / 100.0;
+    }
+
+    public static Report of(Settings settings, OpenLoopDriver.Run run) {
+        double seconds = run.elapsed().toNanos() / 1e9;
+        List<Result> results = new ArrayList<>();
+        run.stats().forEach((op, stats) -> results.add(Result.of(op, stats, seconds)));
+        return new Report(settings, seconds, run.sent(), results);
+    }
+
+    /**
+     * An endpoint regresses when its p99 grows, or its throughput drops, by more than the threshold,
+     * or when it fails requests the baseline did not. Endpoints missing from either side are skipped.
+     */
+    public List<Entry> compare(Report baseline, Report current) {
+        Map<String, Result> before = new LinkedHashMap<>();
+        for (Result r : baseline.results()) before.put(r.operation(), r);
+        List<Entry> entries = new ArrayList<>();
+        for (Result now : current.results()) {
+            Result old = before.get(now.operation());
+            if (old == null) continue;
+            boolean slower = now.p99() > old.p99() * (1 + threshold) + LATENCY_SLACK_MS;
+            boolean fewer = now.throughput() < old.throughput() * (1 - threshold);
+            boolean failing = now.errors() > 0 && old.errors() == 0;
+            entries.add(new Entry(now.operation(), old, now, slower || fewer || failing));
+        }
+        return entries;
+    }
+
+    public static boolean sameSettings(Report a, Report b) {
+        return Objects.equals(a.settings(), b.settings());
+    }
+
+    public static String format(Report report) {
+        StringBuilder out = new StringBuilder(String.format("%-34s %9s %7s %9s %9s %9s %9s %9s %9s%n",
+                "Endpoint", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        for (Result r : report.results()) {
+            out.append(String.format("%-34s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    r.endpoint(), r.requests(), r.errors(), r.throughput(), r.p50(), r.p90(), r.p99(), r.p999(), r.max()));
+        }
+        return out.toString();
+    }
+
+    public static String format(List<Entry> entries) {
+        StringBuilder out = new StringBuilder(String.format("%-34s %10s %10s %8s %10s %10s %8s%n",
+                "Endpoint", "base p99", "p99", "delta", "base req/s", "req/s", "delta"));
+        for (Entry e : entries) {
+            out.append(String.format("%-34s %10.2f %10.2f %7.1f%% %10.1f %10.1f %7.1f%%%s%n",
+                    e.current().endpoint(), e.baseline().p99(), e.current().p99(),
+                    (e.current().p99() / e.baseline().p99() - 1) * 100,
+                    e.baseline().throughput(), e.current().throughput(),
+                    (e.current().throughput() / e.baseline().throughput() - 1) * 100,
+                    e.regressed() ? "  REGRESSION" : ""));
+        }
+        return out.toString();
+    }
+
+    public static void write(Report report, File file) throws IOException {
+        MAPPER.writeValue(file, report);
+    }
+
+    public static Report read(File file) throws IOException {
+        return MAPPER.readValue(file, Report.class);
+    }
+}
@@ -0,0 +1,177 @@
+package com.carsil.userapi.load;
+
+import com.carsil.userapi.UserApiApplication;
+import com.carsil.userapi.dto.ImportReport;
+import com.carsil.userapi.model.Module;
+import com.carsil.userapi.model.User;
+import com.carsil.userapi.service.ModuleLoadService;
+import com.carsil.userapi.service.ModuleService;
+import com.carsil.userapi.service.ProductImportService;
+import com.carsil.userapi.service.ProductSearchIndex;
+import com.carsil.userapi.service.TokenService;
+import com.carsil.userapi.service.UserService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Starts the application on a random port against its own in-memory H2, seeds a synthetic plant,
+ * drives an open-model workload over HTTP and prints latency percentiles and throughput per endpoint.
+ * Everything is set through system properties; the remaining arguments go to Spring, so
+ * {@code --spring.datasource.url=...} points the run at another database.
+ *
+ * <pre>
+ * java -Dload.rate=300 -Dload.duration=2m -Dload.baseline=base.json -jar loadtest/target/loadtest.jar
+ * </pre>
+ *
+ * Exits 1 when a baseline is given and an endpoint regressed against it.
+ */
+public class LoadTestRunner {
+
+    private static final String USER = "load";
+    private static final String PASSWORD = "load-test";
+
+    public static void main(String[] args) throws Exception {
+        int modules = Integer.getInteger("load.modules", 20);
+        int products = Integer.getInteger("load.products", 5000);
+        long seed = Long.getLong("load.seed", 42);
+        double rate = Double.parseDouble(System.getProperty("load.rate", "100"));
+        Duration duration = DurationStyle.detectAndParse(System.getProperty("load.duration", "60s"));
+        Duration warmup = DurationStyle.detectAndParse(System.getProperty("load.warmup", "15s"));
+        Duration timeout = DurationStyle.detectAndParse(System.getProperty("load.timeout", "10s"));
+        Workload workload = Workload.parse(System.getProperty("load.mix", Workload.DEFAULT_MIX));
+        File result = new File(System.getProperty("load.result", "load-result.json"));
+        String baseline = System.getProperty("load.baseline");
+        double threshold = Double.parseDouble(System.getProperty("load.threshold", "10"));
+        if (timeout.toNanos() / 1000 >= OpenLoopDriver.MAX_TRACKABLE_MICROS)
+            throw new IllegalArgumentException("load.timeout must be below 2 minutes");
+
+        SpringApplication application = new SpringApplication(UserApiApplication.class);
+        application.setDefaultProperties(Map.of(
+                "server.port", "0",
+                "spring.datasource.url", "jdbc:h2:mem:load;DB_CLOSE_DELAY=-1",
+                "spring.main.banner-mode", "off",
+                "spring.h2.console.enabled", "false",
+                "logging.level.root", "WARN",
+                // one token for the whole run
+                "carsil.security.token.access-ttl", "24h"));
+
+        SyntheticPlant plant = new SyntheticPlant(modules, products, seed);
+        int exit;
+        try (ConfigurableApplicationContext context = application.run(args)) {
+            String token = seed(context, plant);
+            long[] productIds = context.getBean(JdbcTemplate.class)
+                    .queryForList("SELECT id FROM carsil_product ORDER BY id", Long.class)
+                    .stream().mapToLong(Long::longValue).toArray();
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            Operation.Target target = new Operation.Target(URI.create("http://localhost:" + port), productIds,
+                    plant.searchTerms(), USER, PASSWORD, token, timeout);
+
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(timeout)
+                    .build();
+            OpenLoopDriver driver = new OpenLoopDriver(client, target, workload, rate);
+            System.out.printf("Plant: %d modules, %d products (seed %d); mix %s at %.0f req/s%n",
+                    modules, productIds.length, seed, workload, rate);
+            if (!warmup.isZero()) {
+                System.out.printf("Warming up for %s%n", warmup);
+                driver.run(warmup, seed + 1);
+            }
+            System.out.printf("Measuring for %s%n", duration);
+            Statistics statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+            Map<String, long[]> cacheBefore = cacheHits(statistics);
+            OpenLoopDriver.Run run = driver.run(duration, seed);
+            printCacheHits(cacheBefore, cacheHits(statistics));
+
+            LoadReport.Settings settings = new LoadReport.Settings(modules, products, seed, rate,
+                    duration.toString(), workload.toString());
+            LoadReport.Report report = LoadReport.of(settings, run);
+            System.out.print(LoadReport.format(report));
+            run.stats().forEach((op, s) -> {
+                if (s.firstError() != null) System.out.printf("%s: first error %s%n", op.endpoint(), s.firstError());
+            });
+            LoadReport.write(report, result);
+            System.out.printf("Wrote %s%n", result);
+
+            exit = 0;
+            if (baseline != null) {
+                LoadReport.Report before = LoadReport.read(new File(baseline));
+                if (!LoadReport.sameSettings(before, report))
+                    System.out.printf("Warning: the baseline ran with %s%n", before.settings());
+                List<LoadReport.Entry> entries = new LoadReport(threshold).compare(before, report);
+                System.out.print(LoadReport.format(entries));
+                if (entries.stream().anyMatch(LoadReport.Entry::regressed)) exit = 1;
+            }
+        }
+        System.exit(exit);
+    }
+
+    // {hits, misses} per second-level cache region, as Hibernate counts them: a JCache get that
+    // returns an entry Hibernate cannot use (a soft lock, a stale query result) is a miss here
+    private static Map<String, long[]> cacheHits(Statistics statistics) {
+        Map<String, long[]> hits = new TreeMap<>();
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics s = statistics.getCacheRegionStatistics(region);
+            if (s != null) hits.put(region, new long[]{s.getHitCount(), s.getMissCount()});
+        }
+        return hits;
+    }
+
+    // second-level cache hits per region over the measured run only
+    private static void printCacheHits(Map<String, long[]> before, Map<String, long[]> after) {
+        System.out.printf("%-40s %10s %10s %7s%n", "cache region", "hits", "misses", "hit %");
+        after.forEach((region, end) -> {
+            long[] start = before.getOrDefault(region, new long[2]);
+            long hits = end[0] - start[0];
+            long misses = end[1] - start[1];
+            if (hits + misses == 0) return;
+            System.out.printf("%-40s %10d %10d %6.1f%%%n", region, hits, misses, 100.0 * hits / (hits + misses));
+        });
+    }
+
+    // modules through the service, products through the CSV import, then the derived state the
+    // schedulers would otherwise catch up on during the measurement
+    private static String seed(ConfigurableApplicationContext context, SyntheticPlant plant) throws Exception {
+        ModuleService moduleService = context.getBean(ModuleService.class);
+        List<Long> moduleIds = new ArrayList<>(plant.modules());
+        for (int i = 0; i < plant.modules(); i++) {
+            Module m = new Module();
+            m.setName(plant.moduleName(i));
+            m.setNumPersons(plant.moduleHeadcount(i));
+            moduleIds.add(moduleService.create(m).getId());
+        }
+
+        byte[] csv = plant.csv(moduleIds).getBytes(StandardCharsets.UTF_8);
+        ImportReport imported = context.getBean(ProductImportService.class).importCsv(new ByteArrayInputStream(csv));
+        if (imported.getFailed() > 0)
+            throw new IllegalStateException("The synthetic plant did not import cleanly: " + imported.getErrors());
+
+        context.getBean(ModuleLoadService.class).flush();
+        context.getBean(ProductSearchIndex.class).rebuild();
+
+        User user = new User();
+        user.setName(USER);
+        user.setEmail(USER + "@carsil.test");
+        user.setPassword(PASSWORD);
+        context.getBean(UserService.class).create(user);
+        return context.getBean(TokenService.class).issue(USER).accessToken();
+    }
+}
@@ -0,0 +1,132 @@
+package com.carsil.userapi.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load: requests arrive as a Poisson process at the given rate whether or not earlier
+ * ones have finished, each on its own virtual thread. Latency is measured from the time a request
+ * was due, not the time it was sent, so a stalled server or driver shows up in the percentiles
+ * instead of silently lowering the offered load (coordinated omission).
+ */
+public final class OpenLoopDriver {
+
+    // latencies above this are recorded as this; the request timeout should stay below it
+    static final long MAX_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+    /** What one operation saw during a run. */
+    public static final class EndpointStats {
+
+        private final Histogram latency = new ConcurrentHistogram(MAX_TRACKABLE_MICROS, 3);
+        private final LongAdder ok = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final AtomicReference<String> firstError = new AtomicReference<>();
+
+        void completed(long micros, int status) {
+            if (status >= 200 && status < 400) {
+                latency.recordValue(Math.min(micros, MAX_TRACKABLE_MICROS));
+                ok.increment();
+            } else {
+                failed("HTTP " + status);
+            }
+        }
+
+        void failed(String error) {
+            errors.increment();
+            firstError.compareAndSet(null, error);
+        }
+
+        public Histogram latency() {
+            return latency;
+        }
+
+        public long ok() {
+            return ok.sum();
+        }
+
+        public long errors() {
+            return errors.sum();
+        }
+
+        public String firstError() {
+            return firstError.get();
+        }
+    }
+
+    /** Per-operation stats of a run, with its wall time from the first arrival to the last response. */
+    public record Run(Map<Operation, EndpointStats> stats, Duration elapsed, long sent) {
+    }
+
+    private final HttpClient client;
+    private final Operation.Target target;
+    private final Workload workload;
+    private final double ratePerSecond;
+
+    public OpenLoopDriver(HttpClient client, Operation.Target target, Workload workload, double ratePerSecond) {
+        if (ratePerSecond <= 0) throw new IllegalArgumentException("rate must be positive");
+        this.client = client;
+        this.target = target;
+        this.workload = workload;
+        this.ratePerSecond = ratePerSecond;
+    }
+
+    public Run run(Duration duration, long seed) {
+        Map<Operation, EndpointStats> stats = new EnumMap<>(Operation.class);
+        for (Operation op : workload.operations()) stats.put(op, new EndpointStats());
+
+        SplittableRandom random = new SplittableRandom(seed);
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        long due = start;
+        long sent = 0;
+        try (ExecutorService requests = Executors.newVirtualThreadPerTaskExecutor()) {
+            while (true) {
+                due += (long) (-Math.log(1 - random.nextDouble()) / ratePerSecond * 1e9);
+                if (due >= end) break;
+                Operation op = workload.pick(random);
+                HttpRequest request = op.request(target, random);
+                parkUntil(due);
+                long dueAt = due;
+                EndpointStats s = stats.get(op);
+                requests.execute(() -> send(request, dueAt, s));
+                sent++;
+            }
+        }
+        return new Run(stats, Duration.ofNanos(System.nanoTime() - start), sent);
+    }
+
+    // parkNanos may return early, spuriously or on an unpark, so park again until the due time passes
+    static void parkUntil(long due) {
+        for (long wait = due - System.nanoTime(); wait > 0; wait = due - System.nanoTime()) {
+            LockSupport.parkNanos(wait);
+            if (Thread.currentThread().isInterrupted()) return;
+        }
+    }
+
+    private void send(HttpRequest request, long due, EndpointStats stats) {
+        try {
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            stats.completed((System.nanoTime() - due) / 1000, response.statusCode());
+        } catch (IOException e) {
+            stats.failed(e.getClass().getSimpleName() + ": " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stats.failed("interrupted");
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.carsil.userapi.load;
+
+import com.carsil.userapi.model.enums.StoppageReason;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/** The requests of the workload mix. Each draws its parameters from the driver's random, so a seed replays the same requests. */
+public enum Operation {
+
+    PROGRESS("PATCH /api/products/{id}/progress") {
+        @Override
+        HttpRequest request(Target target, SplittableRandom random) {
+            return target.request("/api/products/" + target.product(random) + "/progress?delta=" + random.nextInt(1, 6))
+                    .method("PATCH", BodyPublishers.noBody())
+                    .build();
+        }
+    },
+    SEARCH("GET /api/products/search") {
+        @Override
+        HttpRequest request(Target target, SplittableRandom random) {
+            String q = target.searchTerms().get(random.nextInt(target.searchTerms().size()));
+            return target.request("/api/products/search?q=" + URLEncoder.encode(q, StandardCharsets.UTF_8)).GET().build();
+        }
+    },
+    MODULES("GET /api/modules") {
+        @Override
+        HttpRequest request(Target target, SplittableRandom random) {
+            return target.request("/api/modules").GET().build();
+        }
+    },
+    PAGE("GET /api/products/page") {
+        @Override
+        HttpRequest request(Target target, SplittableRandom random) {
+            return target.request("/api/products/page?sort=assignedDate&size=100").GET().build();
+        }
+    },
+    PATCH("PATCH /api/products/{id}") {
+        @Override
+        HttpRequest request(Target target, SplittableRandom random) {
+            StoppageReason[] reasons = StoppageReason.values();
+            String body = String.format(Locale.ROOT, "{\"sam\":%.1f,\"stoppageReason\":\"%s\"}",
+                    random.nextInt(30, 401) / 10.0, reasons[random.nextInt(reasons.length)].getLabel());
+            return target.request("/api/products/" + target.product(random))
+                    .header("Content-Type", "application/json")
+                    .method("PATCH", BodyPublishers.ofString(body))
+                    .build();
+        }
+    },
+    LOGIN("POST /api/auth/login") {
+        @Override
+        HttpRequest request(Target target, SplittableRandom random) {
+            String body = "{\"userName\":\"%s\",\"password\":\"%s\"}".formatted(target.user(), target.password());
+            return target.request("/api/auth/login")
+                    .header("Content-Type", "application/json")
+                    .POST(BodyPublishers.ofString(body))
+                    .build();
+        }
+    };
+
+    /** Where the requests go, the data they pick from and the credentials they carry. */
+    public record Target(URI base, long[] productIds, List<String> searchTerms, String user, String password,
+                         String accessToken, Duration timeout) {
+
+        long product(SplittableRandom random) {
+            return productIds[random.nextInt(productIds.length)];
+        }
+
+        HttpRequest.Builder request(String pathAndQuery) {
+            return HttpRequest.newBuilder(base.resolve(pathAndQuery))
+                    .timeout(timeout)
+                    .header("Accept", "application/json")
+                    .header("Authorization", "Bearer " + accessToken);
+        }
+    }
+
+    private final String endpoint;
+
+    Operation(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public String endpoint() {
+        return endpoint;
+    }
+
+    abstract HttpRequest request(Target target, SplittableRandom random);
+
+    public static Operation fromKey(String key) {
+        try {
+            return valueOf(key.strip().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown operation: " + key);
+        }
+    }
+}
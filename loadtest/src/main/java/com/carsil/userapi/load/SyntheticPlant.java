@@ -0,0 +1,134 @@
+package com.carsil.userapi.load;
+
+import com.carsil.userapi.model.enums.ProductionStatus;
+import com.carsil.userapi.model.enums.Size;
+import com.carsil.userapi.model.enums.StoppageReason;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * A plant of {@code modules} modules and {@code products} products, the same for the same seed,
+ * written as the CSV the product import reads. Products run either the kids' or the adult size
+ * range with a bell-shaped curve over three to six consecutive sizes, carry SAM between 3 and 40
+ * minutes, and are at most 60% made, so a run of progress increments rarely hits the quantity.
+ */
+public final class SyntheticPlant {
+
+    // ops are consecutive from here: product i is op FIRST_OP + i
+    static final int FIRST_OP = 100_000;
+
+    static final List<String> BRANDS = List.of("Carsil", "Nike", "Adidas", "Puma", "Gef", "Offcorss");
+
+    private static final List<Size> KIDS = List.of(Size.T2, Size.T4, Size.T6, Size.T8, Size.T10, Size.T12, Size.T14, Size.T16);
+    private static final List<Size> ADULTS = List.of(Size.XS, Size.S, Size.M, Size.L, Size.XL, Size.XXL);
+    private static final LocalDate START = LocalDate.of(2024, 1, 8);
+
+    private final int modules;
+    private final int products;
+    private final long seed;
+
+    public SyntheticPlant(int modules, int products, long seed) {
+        if (modules < 1 || products < 1) throw new IllegalArgumentException("modules and products must be positive");
+        this.modules = modules;
+        this.products = products;
+        this.seed = seed;
+    }
+
+    public int modules() {
+        return modules;
+    }
+
+    public int products() {
+        return products;
+    }
+
+    public String moduleName(int i) {
+        return "Modulo " + (i + 1);
+    }
+
+    /** Headcount of module {@code i}, between 6 and 24. */
+    public int moduleHeadcount(int i) {
+        return 6 + new SplittableRandom(seed + i).nextInt(19);
+    }
+
+    /** The import CSV; {@code moduleIds} are the ids the modules got, in {@link #moduleName} order. */
+    public String csv(List<Long> moduleIds) {
+        if (moduleIds.size() != modules) throw new IllegalArgumentException("expected " + modules + " module ids");
+        SplittableRandom random = new SplittableRandom(seed);
+        StringBuilder csv = new StringBuilder(products * 96);
+        csv.append("op,reference,brand,campaign,type,description,price,quantity,quantityMade,sam,status,")
+                .append("stoppageReason,assignedDate,plantEntryDate,moduleId");
+        for (Size s : Size.values()) csv.append(',').append(s.getLabel());
+        csv.append('\n');
+
+        for (int i = 0; i < products; i++) {
+            int[] units = sizeCurve(random);
+            int quantity = Arrays.stream(units).sum();
+            LocalDate assigned = START.plusDays(random.nextInt(300));
+            ProductionStatus status = status(random);
+
+            csv.append(FIRST_OP + i).append(',')
+                    .append(random.nextInt(1000, 9999)).append(',')
+                    .append(BRANDS.get(random.nextInt(BRANDS.size()))).append(',')
+                    .append(random.nextInt(1, 13)).append(',')
+                    .append('A').append(random.nextInt(1, 9)).append(',')
+                    .append("Prenda ").append(random.nextInt(1, 400)).append(',')
+                    .append(random.nextInt(8_000, 95_000) / 100.0).append(',')
+                    .append(quantity).append(',')
+                    .append(random.nextInt(quantity * 6 / 10 + 1)).append(',')
+                    .append(random.nextInt(30, 401) / 10.0).append(',')
+                    .append(status.name()).append(',')
+                    .append(stoppage(random, status)).append(',')
+                    .append(assigned).append(',')
+                    .append(random.nextInt(4) == 0 ? "" : assigned.plusDays(random.nextInt(5, 45)).toString()).append(',')
+                    // one product in ten waits unassigned
+                    .append(random.nextInt(10) == 0 ? "" : moduleIds.get(random.nextInt(modules)).toString());
+            for (int u : units) {
+                csv.append(',');
+                if (u > 0) csv.append(u);
+            }
+            csv.append('\n');
+        }
+        return csv.toString();
+    }
+
+    // units per Size, in Size order
+    private static int[] sizeCurve(SplittableRandom random) {
+        List<Size> range = random.nextInt(3) == 0 ? KIDS : ADULTS;
+        int width = random.nextInt(3, 7);
+        int first = random.nextInt(range.size() - width + 1);
+        int peak = random.nextInt(40, 400);
+        int[] units = new int[Size.values().length];
+        double centre = (width - 1) / 2.0;
+        for (int k = 0; k < width; k++) {
+            double d = (k - centre) / Math.max(1, centre);
+            units[range.get(first + k).ordinal()] = Math.max(1, (int) Math.round(peak * Math.exp(-d * d)));
+        }
+        return units;
+    }
+
+    private static ProductionStatus status(SplittableRandom random) {
+        int r = random.nextInt(10);
+        return r < 5 ? ProductionStatus.CONFECCION : r < 8 ? ProductionStatus.PROCESO : ProductionStatus.ASIGNADO;
+    }
+
+    // most products run clear; the rest are held up by one of the usual reasons
+    private static String stoppage(SplittableRandom random, ProductionStatus status) {
+        if (status == ProductionStatus.ASIGNADO || random.nextInt(4) != 0) return "";
+        StoppageReason[] reasons = StoppageReason.values();
+        return reasons[random.nextInt(reasons.length)].getLabel();
+    }
+
+    /** Search terms that hit the plant: brands, op prefixes and descriptions. */
+    public List<String> searchTerms() {
+        List<String> terms = new ArrayList<>(BRANDS);
+        for (int i = 0; i < 20; i++) terms.add(Integer.toString((FIRST_OP + i * Math.max(1, products / 20)) / 10));
+        terms.add("Prenda 1");
+        terms.add("Prenda 2");
+        return List.copyOf(terms);
+    }
+}
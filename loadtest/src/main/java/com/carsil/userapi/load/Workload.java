@@ -0,0 +1,73 @@
+package com.carsil.userapi.load;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/** Operations with their share of the arrivals, parsed from {@code progress=40,search=20,...}. */
+public final class Workload {
+
+    public static final String DEFAULT_MIX = "progress=35,search=20,modules=15,patch=15,page=10,login=5";
+
+    private final Map<Operation, Integer> weights;
+    private final Operation[] operations;
+    private final int[] cumulative;
+    private final int total;
+
+    private Workload(Map<Operation, Integer> weights) {
+        this.weights = Collections.unmodifiableMap(weights);
+        this.operations = weights.keySet().toArray(Operation[]::new);
+        this.cumulative = new int[operations.length];
+        int sum = 0;
+        for (int i = 0; i < operations.length; i++) {
+            sum += weights.get(operations[i]);
+            cumulative[i] = sum;
+        }
+        this.total = sum;
+    }
+
+    public static Workload parse(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String part : mix.split(",")) {
+            if (part.isBlank()) continue;
+            String[] kv = part.split("=", 2);
+            int weight;
+            try {
+                weight = kv.length == 2 ? Integer.parseInt(kv[1].strip()) : 1;
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid weight in mix: " + part);
+            }
+            if (weight < 0) throw new IllegalArgumentException("Invalid weight in mix: " + part);
+            if (weight > 0) weights.merge(Operation.fromKey(kv[0]), weight, Integer::sum);
+        }
+        if (weights.isEmpty()) throw new IllegalArgumentException("The mix has no operations: " + mix);
+        return new Workload(weights);
+    }
+
+    public Map<Operation, Integer> weights() {
+        return weights;
+    }
+
+    public List<Operation> operations() {
+        return new ArrayList<>(weights.keySet());
+    }
+
+    Operation pick(SplittableRandom random) {
+        int r = random.nextInt(total);
+        for (int i = 0; i < cumulative.length; i++) {
+            if (r < cumulative[i]) return operations[i];
+        }
+        throw new IllegalStateException();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        weights.forEach((op, w) -> out.append(out.isEmpty() ? "" : ",").append(op.name().toLowerCase(Locale.ROOT)).append('=').append(w));
+        return out.toString();
+    }
+}
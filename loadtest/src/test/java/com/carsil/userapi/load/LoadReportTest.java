@@ -0,0 +1,59 @@
+package com.carsil.userapi.load;
+
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoadReportTest {
+
+    private static LoadReport.Report report(double p99, double throughput, long errors) {
+        LoadReport.Settings settings = new LoadReport.Settings(20, 5000, 42, 100, "PT1M", Workload.DEFAULT_MIX);
+        LoadReport.Result result = new LoadReport.Result("search", "GET /api/products/search", 1000, errors,
+                throughput, p99 / 4, p99 / 2, p99, p99, p99, "");
+        return new LoadReport.Report(settings, 60, 1000, List.of(result));
+    }
+
+    @Test
+    void flagsP99GrowthAndThroughputDropBeyondThreshold() {
+        LoadReport comparison = new LoadReport(10);
+
+        assertThat(comparison.compare(report(40, 100, 0), report(48, 100, 0)))
+                .singleElement().extracting(LoadReport.Entry::regressed).isEqualTo(true);
+        assertThat(comparison.compare(report(40, 100, 0), report(40, 85, 0)))
+                .singleElement().extracting(LoadReport.Entry::regressed).isEqualTo(true);
+    }
+
+    @Test
+    void ignoresLatencyNoiseBelowAMillisecond() {
+        assertThat(new LoadReport(10).compare(report(2, 100, 0), report(2.8, 100, 0)))
+                .singleElement().extracting(LoadReport.Entry::regressed).isEqualTo(false);
+    }
+
+    @Test
+    void newErrors_areARegression() {
+        assertThat(new LoadReport(10).compare(report(40, 100, 0), report(40, 100, 3)))
+                .singleElement().extracting(LoadReport.Entry::regressed).isEqualTo(true);
+    }
+
+    @Test
+    void histogramRoundTripsThroughTheReport() throws Exception {
+        OpenLoopDriver.EndpointStats stats = new OpenLoopDriver.EndpointStats();
+        for (int i = 1; i <= 100; i++) stats.completed(i * 1000L, 200);
+        stats.completed(5000, 503);
+
+        LoadReport.Result r = LoadReport.Result.of(Operation.SEARCH, stats, 10);
+
+        assertThat(r.requests()).isEqualTo(101);
+        assertThat(r.errors()).isEqualTo(1);
+        assertThat(r.throughput()).isEqualTo(10.0);
+        assertThat(r.p50()).isBetween(49.9, 50.1);
+        assertThat(r.max()).isBetween(99.9, 100.1);
+        Histogram decoded = Histogram.decodeFromCompressedByteBuffer(ByteBuffer.wrap(Base64.getDecoder().decode(r.histogram())), 0);
+        assertThat(decoded.getTotalCount()).isEqualTo(100);
+    }
+}
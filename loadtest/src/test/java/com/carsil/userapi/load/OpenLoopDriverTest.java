@@ -0,0 +1,29 @@
+package com.carsil.userapi.load;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OpenLoopDriverTest {
+
+    @Test
+    void parkUntil_doesNotReturnBeforeTheDueTime_whenWokenEarly() throws Exception {
+        long due = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(200);
+        long[] returnedAt = new long[1];
+        Thread sender = Thread.ofPlatform().start(() -> {
+            OpenLoopDriver.parkUntil(due);
+            returnedAt[0] = System.nanoTime();
+        });
+
+        for (int i = 0; i < 5; i++) {
+            Thread.sleep(10);
+            LockSupport.unpark(sender);
+        }
+        sender.join();
+
+        assertThat(returnedAt[0]).isGreaterThanOrEqualTo(due);
+    }
+}
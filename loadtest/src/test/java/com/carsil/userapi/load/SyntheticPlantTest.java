@@ -0,0 +1,33 @@
+package com.carsil.userapi.load;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SyntheticPlantTest {
+
+    private static final List<Long> MODULE_IDS = LongStream.rangeClosed(1, 5).boxed().toList();
+
+    @Test
+    void sameSeed_sameCsv() {
+        assertThat(new SyntheticPlant(5, 200, 7).csv(MODULE_IDS))
+                .isEqualTo(new SyntheticPlant(5, 200, 7).csv(MODULE_IDS))
+                .isNotEqualTo(new SyntheticPlant(5, 200, 8).csv(MODULE_IDS));
+    }
+
+    @Test
+    void everyRowHasTheHeaderColumns_andUniqueOps() {
+        String[] lines = new SyntheticPlant(5, 200, 7).csv(MODULE_IDS).split("\n");
+        int columns = lines[0].split(",", -1).length;
+
+        assertThat(lines).hasSize(201);
+        for (int i = 1; i < lines.length; i++) {
+            String[] cells = lines[i].split(",", -1);
+            assertThat(cells).hasSize(columns);
+            assertThat(cells[0]).isEqualTo(Integer.toString(SyntheticPlant.FIRST_OP + i - 1));
+        }
+    }
+}
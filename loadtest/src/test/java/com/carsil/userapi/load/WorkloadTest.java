@@ -0,0 +1,28 @@
+package com.carsil.userapi.load;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WorkloadTest {
+
+    @Test
+    void picksFollowTheWeights() {
+        Workload workload = Workload.parse("progress=3,login=1");
+        SplittableRandom random = new SplittableRandom(1);
+        int progress = 0;
+        for (int i = 0; i < 10_000; i++) if (workload.pick(random) == Operation.PROGRESS) progress++;
+
+        assertThat(progress).isBetween(7_300, 7_700);
+    }
+
+    @Test
+    void unknownOperation_isRejected() {
+        assertThatThrownBy(() -> Workload.parse("progress=1,upload=2"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("upload");
+    }
+}
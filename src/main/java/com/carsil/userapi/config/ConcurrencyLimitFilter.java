@@ -0,0 +1,120 @@
+package com.carsil.userapi.config;
+
+import com.carsil.userapi.service.RequestStats;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.NonNull;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Caps the number of database-backed API requests executing at once, sized to the JDBC pool. With
+ * virtual threads Tomcat accepts every request, so without this thousands of them would queue inside
+ * the pool and time out there; here they wait in a fair queue and get a 503 if no permit frees up in
+ * time. A request that goes async (streams, exports) keeps its permit until the response completes,
+ * since it keeps its connection that long. Paths that never touch the database are not limited.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final Semaphore permits;
+    private final int size;
+    private final long timeoutNanos;
+    private final List<String> excludedPaths;
+    private final RequestStats stats;
+    private final AntPathMatcher matcher = new AntPathMatcher();
+
+    public ConcurrencyLimitFilter(int size, Duration timeout, List<String> excludedPaths, RequestStats stats) {
+        this.permits = new Semaphore(size, true);
+        this.size = size;
+        this.timeoutNanos = timeout.toNanos();
+        this.excludedPaths = List.copyOf(excludedPaths);
+        this.stats = stats;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int available() {
+        return permits.availablePermits();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return excludedPaths.stream().anyMatch(p -> matcher.match(p, path));
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain chain) throws ServletException, IOException {
+        stats.started();
+        Permit permit = null;
+        try {
+            if (!permits.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS)) {
+                stats.rejected();
+                response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+                response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Servidor ocupado, intente de nuevo");
+                return;
+            }
+            permit = new Permit();
+            chain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(permit);
+                permit = null;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value());
+        } finally {
+            if (permit != null) permit.release();
+            else if (!request.isAsyncStarted()) stats.finished();
+        }
+    }
+
+    // released exactly once: when the request returns, or when its async response ends however it ends
+    private final class Permit implements AsyncListener {
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+                stats.finished();
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.carsil.userapi.config;
+
+import com.carsil.userapi.service.RequestStats;
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+@Configuration
+public class ExecutionConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(ExecutionConfig.class);
+
+    // Hikari's own default, used when the pool is not Hikari
+    private static final int DEFAULT_POOL_SIZE = 10;
+
+    @Bean
+    public ConcurrencyLimitFilter concurrencyLimitFilter(DataSource dataSource,
+                                                         RequestStats stats,
+                                                         @Value("${carsil.concurrency.max-in-flight:0}") int maxInFlight,
+                                                         @Value("${carsil.concurrency.acquire-timeout:2s}") Duration timeout,
+                                                         @Value("${carsil.concurrency.excluded-paths:}") List<String> excludedPaths) {
+        int size = maxInFlight > 0 ? maxInFlight : poolSize(dataSource);
+        return new ConcurrencyLimitFilter(size, timeout, excludedPaths, stats);
+    }
+
+    // Hikari reports -1 until the pool has started when the size was left at its default;
+    // the pool may sit behind the slow-query proxy
+    private static int poolSize(DataSource dataSource) {
+        HikariDataSource hikari = DataSourceUnwrapper.unwrap(dataSource, HikariConfigMXBean.class, HikariDataSource.class);
+        if (hikari != null && hikari.getMaximumPoolSize() > 0) {
+            return hikari.getMaximumPoolSize();
+        }
+        return DEFAULT_POOL_SIZE;
+    }
+
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitRegistration(
+            ConcurrencyLimitFilter filter,
+            @Value("${carsil.concurrency.enabled:${spring.threads.virtual.enabled:false}}") boolean enabled,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtual) {
+        if (enabled) {
+            log.info("Serving requests on {} threads, at most {} database-backed requests concurrently",
+                    virtual ? "virtual" : "platform", filter.size());
+        } else {
+            log.info("Serving requests on {} threads, concurrency limit off", virtual ? "virtual" : "platform");
+        }
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/api/*");
+        registration.setEnabled(enabled);
+        return registration;
+    }
+}
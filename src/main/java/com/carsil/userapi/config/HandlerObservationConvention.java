@@ -0,0 +1,32 @@
+package com.carsil.userapi.config;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Tags {@code http.server.requests} with the controller method that served the request, e.g.
+ * {@code handler="ProductController.getPage"}, so latency can be read per method as well as per URI.
+ */
+public class HandlerObservationConvention extends DefaultServerRequestObservationConvention {
+
+    static final String HANDLER = "handler";
+
+    private static final KeyValue NONE = KeyValue.of(HANDLER, "none");
+
+    @Override
+    public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+        return super.getLowCardinalityKeyValues(context).and(handler(context.getCarrier()));
+    }
+
+    private static KeyValue handler(HttpServletRequest request) {
+        if (request != null && request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) instanceof HandlerMethod m) {
+            return KeyValue.of(HANDLER, m.getBeanType().getSimpleName() + "." + m.getMethod().getName());
+        }
+        return NONE;
+    }
+}
@@ -0,0 +1,81 @@
+package com.carsil.userapi.config;
+
+import com.carsil.userapi.service.PinningMonitor;
+import com.carsil.userapi.service.ProductBoardBroadcaster;
+import com.carsil.userapi.service.RequestStats;
+import com.carsil.userapi.service.ResourceVersions;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Metrics served at /actuator/prometheus. Request latency per controller method, repository
+ * invocation times, Hikari pool waits and Hibernate statistics come from the actuator
+ * instrumentation configured in application.properties; this adds the slow-query log and the
+ * in-house counters behind /api/runtime.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public SlowQueryLog slowQueryLog(@Value("${carsil.jdbc.slow-query-threshold:200ms}") Duration threshold) {
+        return new SlowQueryLog(threshold);
+    }
+
+    // static: post-processors are created before the rest of the configuration
+    @Bean
+    public static BeanPostProcessor slowQueryDataSourceProxy(ObjectProvider<SlowQueryLog> slowQueryLog) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource)) return bean;
+                SlowQueryLog log = slowQueryLog.getObject();
+                if (!log.isEnabled()) return bean;
+                return ProxyDataSourceBuilder.create(dataSource).name(beanName).listener(log).build();
+            }
+        };
+    }
+
+    @Bean
+    public HandlerObservationConvention handlerObservationConvention() {
+        return new HandlerObservationConvention();
+    }
+
+    @Bean
+    public MeterBinder carsilMeters(RequestStats requestStats,
+                                    ConcurrencyLimitFilter concurrencyLimitFilter,
+                                    ResourceVersions resourceVersions,
+                                    ProductBoardBroadcaster board,
+                                    PinningMonitor pinningMonitor,
+                                    SlowQueryLog slowQueryLog) {
+        return registry -> {
+            Gauge.builder("carsil.requests.in.flight", requestStats, RequestStats::inFlight)
+                    .description("/api requests being served").register(registry);
+            FunctionCounter.builder("carsil.requests.rejected", requestStats, RequestStats::rejectedCount)
+                    .description("/api requests turned away with 503 by the concurrency limit").register(registry);
+            Gauge.builder("carsil.concurrency.permits", concurrencyLimitFilter, ConcurrencyLimitFilter::size)
+                    .register(registry);
+            Gauge.builder("carsil.concurrency.permits.available", concurrencyLimitFilter, ConcurrencyLimitFilter::available)
+                    .register(registry);
+            FunctionCounter.builder("carsil.http.conditional", resourceVersions, v -> v.stats().conditionalRequests())
+                    .description("Requests carrying If-None-Match").register(registry);
+            FunctionCounter.builder("carsil.http.not.modified", resourceVersions, v -> v.stats().notModified())
+                    .description("Requests answered 304").register(registry);
+            Gauge.builder("carsil.board.clients", board, ProductBoardBroadcaster::clients)
+                    .description("Open product board streams").register(registry);
+            FunctionCounter.builder("carsil.threads.pinned", pinningMonitor, PinningMonitor::pinnedEvents)
+                    .description("Virtual threads pinned longer than carsil.pinning.threshold").register(registry);
+            FunctionCounter.builder("carsil.jdbc.slow.queries", slowQueryLog, SlowQueryLog::count)
+                    .description("Statements slower than carsil.jdbc.slow-query-threshold").register(registry);
+        };
+    }
+}
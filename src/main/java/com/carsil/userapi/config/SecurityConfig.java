@@ -1,10 +1,16 @@
 package com.carsil.userapi.config;
 
+import com.carsil.userapi.service.TokenService;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.cors.CorsConfiguration;
@@ -16,6 +22,9 @@ import java.util.List;
 @Configuration
 public class SecurityConfig {
 
+    @Autowired
+    private TokenService tokenService;
+
     @Bean
     public PasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder();
@@ -30,13 +39,19 @@ public class SecurityConfig {
                                 "/api/users",
                                 "/api/users/**",
                                 "/api/auth/login",
+                                "/api/auth/refresh",
                                 "/api/modules/**",
                                 "/h2-console/**",
-                                "/api/products/**").permitAll()
+                                "/api/products/**",
+                                "/actuator/health",
+                                "/actuator/prometheus").permitAll()
                         .anyRequest().authenticated()
                 )
                 .cors(Customizer.withDefaults())
-                .httpBasic(Customizer.withDefaults());
+                // BCrypt runs once at login; every later request is authenticated by the signed token
+                .sessionManagement(s -> s.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .exceptionHandling(e -> e.authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
+                .addFilterBefore(new TokenAuthenticationFilter(tokenService), UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
     }
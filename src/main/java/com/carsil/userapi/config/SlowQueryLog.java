@@ -0,0 +1,54 @@
+package com.carsil.userapi.config;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.listener.logging.DefaultQueryLogEntryCreator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Logs each JDBC statement that ran for at least the threshold, with its bound parameters, at WARN
+ * under {@value #LOGGER}. The time is the statement's execution only: rows read afterwards from a
+ * streaming cursor are not included.
+ */
+public class SlowQueryLog implements QueryExecutionListener {
+
+    static final String LOGGER = "carsil.slow-query";
+
+    private static final Logger log = LoggerFactory.getLogger(LOGGER);
+
+    private final long thresholdMillis;
+    private final DefaultQueryLogEntryCreator entries = new DefaultQueryLogEntryCreator();
+    private final LongAdder count = new LongAdder();
+
+    public SlowQueryLog(Duration threshold) {
+        this.thresholdMillis = threshold.toMillis();
+    }
+
+    /** A zero threshold turns the log off and leaves the DataSource unwrapped. */
+    public boolean isEnabled() {
+        return thresholdMillis > 0;
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (execInfo.getElapsedTime() < thresholdMillis) return;
+        count.increment();
+        if (log.isWarnEnabled()) {
+            log.warn("Slow query: {}", entries.getLogEntry(execInfo, queryInfoList, false, true, false));
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.carsil.userapi.config;
+
+import com.carsil.userapi.service.TokenService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.NonNull;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Authenticates requests carrying {@code Authorization: Bearer <access token>}. Verification is a
+ * local HMAC check; a missing or invalid token leaves the request anonymous.
+ */
+public class TokenAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER = "Bearer ";
+
+    private final TokenService tokenService;
+
+    public TokenAuthenticationFilter(TokenService tokenService) {
+        this.tokenService = tokenService;
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain chain) throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && header.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            tokenService.verify(header.substring(BEARER.length()).trim(), TokenService.ACCESS)
+                    .ifPresent(claims -> {
+                        var auth = new UsernamePasswordAuthenticationToken(
+                                claims.subject(), claims, AuthorityUtils.createAuthorityList("ROLE_USER"));
+                        SecurityContextHolder.getContext().setAuthentication(auth);
+                    });
+        }
+        chain.doFilter(request, response);
+    }
+}
@@ -1,12 +1,18 @@
 package com.carsil.userapi.controller;
 
 import com.carsil.userapi.dto.LoginRequest;
+import com.carsil.userapi.dto.RefreshRequest;
+import com.carsil.userapi.dto.TokenPair;
+import com.carsil.userapi.service.TokenService;
 import com.carsil.userapi.service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 @RestController
@@ -15,9 +21,37 @@ public class AuthController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private TokenService tokenService;
+
     @PostMapping("/login")
-    public ResponseEntity<Map<String, String>> login(@Valid @RequestBody LoginRequest req) {
-        userService.validateLogin(req.getUserName(), req.getPassword());
-        return ResponseEntity.ok(Map.of("message", "Login successful"));
+    public ResponseEntity<Map<String, Object>> login(@Valid @RequestBody LoginRequest req) {
+        if (!userService.validateLogin(req.getUserName(), req.getPassword())) {
+            throw new BadCredentialsException("Credenciales inválidas");
+        }
+        return ResponseEntity.ok(body("Login successful", tokenService.issue(req.getUserName())));
+    }
+
+    @PostMapping("/refresh")
+    public ResponseEntity<Map<String, Object>> refresh(@RequestBody RefreshRequest req) {
+        return ResponseEntity.ok(body("Token refreshed", tokenService.refresh(req.getRefreshToken())));
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestHeader(HttpHeaders.AUTHORIZATION) String authorization,
+                                       @RequestBody(required = false) RefreshRequest req) {
+        tokenService.revoke(authorization.substring(authorization.indexOf(' ') + 1).trim(), TokenService.ACCESS);
+        if (req != null) tokenService.revoke(req.getRefreshToken(), TokenService.REFRESH);
+        return ResponseEntity.noContent().build();
+    }
+
+    private Map<String, Object> body(String message, TokenPair tokens) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("message", message);
+        body.put("tokenType", "Bearer");
+        body.put("accessToken", tokens.accessToken());
+        body.put("refreshToken", tokens.refreshToken());
+        body.put("expiresIn", tokens.expiresIn());
+        return body;
     }
 }
@@ -0,0 +1,23 @@
+package com.carsil.userapi.controller;
+
+import com.carsil.userapi.dto.CacheRegionStats;
+import com.carsil.userapi.service.CacheService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/cache")
+public class CacheController {
+
+    @Autowired
+    private CacheService cacheService;
+
+    @GetMapping("/stats")
+    public List<CacheRegionStats> stats() {
+        return cacheService.stats();
+    }
+}
@@ -1,13 +1,21 @@
 package com.carsil.userapi.controller;
 
+import com.carsil.userapi.dto.LoadSimulation;
+import com.carsil.userapi.dto.LoadSimulationRequest;
+import com.carsil.userapi.dto.ModuleLoadDrift;
+import com.carsil.userapi.dto.ProductView;
 import com.carsil.userapi.model.Module;
-import com.carsil.userapi.model.Product;
+import com.carsil.userapi.service.LoadSimulator;
+import com.carsil.userapi.service.ModuleLoadService;
 import com.carsil.userapi.service.ModuleService;
+import com.carsil.userapi.service.ResourceVersions;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/modules")
@@ -16,20 +24,32 @@ public class ModuleController {
     @Autowired
     private ModuleService moduleService;
 
+    @Autowired
+    private ModuleLoadService moduleLoadService;
+
+    @Autowired
+    private ResourceVersions versions;
+
+    @Autowired
+    private LoadSimulator loadSimulator;
+
     @GetMapping
-    public List<Module> getAll() {
+    public List<Module> getAll(NativeWebRequest request) {
+        if (versions.notModified(request, versions.modulesTag())) return null;
         return moduleService.getAll();
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Module> findById(@PathVariable Long id) {
+    public ResponseEntity<Module> findById(@PathVariable Long id, NativeWebRequest request) {
+        if (versions.notModified(request, versions.moduleTag(id))) return null;
         return moduleService.findById(id)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping("/by-name")
-    public List<Module> findByName(@RequestParam String name) {
+    public List<Module> findByName(@RequestParam String name, NativeWebRequest request) {
+        if (versions.notModified(request, versions.modulesTag())) return null;
         return moduleService.findByName(name);
     }
 
@@ -46,7 +66,8 @@ public class ModuleController {
     }
 
     @GetMapping("/{id}/products")
-    public List<Product> products(@PathVariable Long id) {
+    public List<ProductView> products(@PathVariable Long id, NativeWebRequest request) {
+        if (versions.notModified(request, versions.productsTag())) return null;
         return moduleService.getProducts(id);
     }
 
@@ -54,4 +75,23 @@ public class ModuleController {
     public Module assignProduct(@PathVariable Long moduleId, @PathVariable Long productId) {
         return moduleService.assignProduct(moduleId, productId);
     }
-}
\ No newline at end of file
+
+    /** What-if headcounts and OP moves, evaluated in memory; nothing is written. */
+    @PostMapping("/simulate")
+    public LoadSimulation simulate(@RequestBody(required = false) LoadSimulationRequest request,
+                                   @RequestParam(value = "products", defaultValue = "true") boolean products) {
+        return loadSimulator.simulate(request, products);
+    }
+
+    @GetMapping("/load/check")
+    public List<ModuleLoadDrift> checkLoad() {
+        return moduleLoadService.check();
+    }
+
+    @PostMapping("/load/rebuild")
+    public Map<String, Integer> rebuildLoad() {
+        int modules = moduleLoadService.rebuild();
+        versions.allModulesChanged();
+        return Map.of("modules", modules);
+    }
+}
@@ -1,34 +1,140 @@
 package com.carsil.userapi.controller;
 
+import com.carsil.userapi.dto.ImportReport;
+import com.carsil.userapi.dto.KpiFilter;
+import com.carsil.userapi.dto.ProductExportFilter;
+import com.carsil.userapi.dto.PatchResult;
+import com.carsil.userapi.dto.ProductKpi;
+import com.carsil.userapi.dto.ProductSlice;
+import com.carsil.userapi.dto.ProductView;
 import com.carsil.userapi.model.Product;
+import com.carsil.userapi.service.ProductBoardBroadcaster;
+import com.carsil.userapi.service.ProductExportService;
+import com.carsil.userapi.service.ProductImportService;
 import com.carsil.userapi.service.ProductService;
+import com.carsil.userapi.service.ResourceVersions;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 @RestController
 @RequestMapping("/api/products")
 public class ProductController {
 
+    static final String CHANGED_FIELDS_HEADER = "X-Changed-Fields";
+
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private ProductExportService productExportService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProductBoardBroadcaster boardBroadcaster;
+
+    @Autowired
+    private ResourceVersions versions;
+
     @GetMapping
-    public List<Product> getProducts() {
+    public List<ProductView> getProducts(NativeWebRequest request) {
+        if (versions.notModified(request, versions.productsTag())) return null;
         return productService.getAll();
     }
 
+    @GetMapping("/page")
+    public ProductSlice getProductPage(
+            @RequestParam(value = "sort", defaultValue = "id") String sort,
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "size", defaultValue = "100") int size,
+            NativeWebRequest request) {
+        if (versions.notModified(request, versions.productsTag())) return null;
+        return productService.getPage(sort, after, size);
+    }
+
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(
+            @RequestParam(value = "moduleId", required = false) Long moduleId,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return boardBroadcaster.subscribe(moduleId, lastEventId);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamProducts() {
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator gen = objectMapper.getFactory().createGenerator(out)) {
+                gen.writeStartArray();
+                productService.streamAll(p -> {
+                    try {
+                        gen.writeObject(p);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                gen.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    /**
+     * The product list as a CSV or XLSX download, written while it is read from the database, so
+     * it goes out chunked and server memory does not grow with the number of rows. Columns default
+     * to all; q, startDate and endDate filter as /search and /by-date-range do.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            @RequestParam(value = "format", defaultValue = "csv") String format,
+            @RequestParam(value = "columns", required = false) List<String> columns,
+            @RequestParam(value = "q", required = false) String q,
+            @RequestParam(value = "startDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(value = "endDate", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        ProductExportService.Export export = productExportService.prepare(format, columns,
+                new ProductExportFilter(q, startDate, endDate));
+        StreamingResponseBody body = out -> productExportService.write(export, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(export.format().getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(export.filename()).build().toString())
+                .body(body);
+    }
+
     @PostMapping
     public Product createProduct(@RequestBody Product product) {
         return productService.create(product);
     }
 
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ImportReport importProducts(@RequestParam("file") MultipartFile file) throws IOException {
+        String name = file.getOriginalFilename();
+        if (name != null && name.toLowerCase(Locale.ROOT).endsWith(".xlsx")) {
+            return productImportService.importXlsx(file.getInputStream());
+        }
+        return productImportService.importCsv(file.getInputStream());
+    }
+
     @DeleteMapping("/{id}")
     public void deleteProduct(@PathVariable Long id) {
         productService.delete(id);
@@ -40,20 +146,25 @@ public class ProductController {
     }
 
     @GetMapping("/search")
-    public List<Product> searchProducts(@RequestParam("q") String q) {
+    public List<ProductView> searchProducts(@RequestParam("q") String q, NativeWebRequest request) {
+        if (versions.notModified(request, versions.productsTag())) return null;
         return productService.search(q);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Product> getProductById(@PathVariable Long id) {
+    public ResponseEntity<ProductView> getProductById(@PathVariable Long id, NativeWebRequest request) {
+        if (versions.notModified(request, versions.productTag(id))) return null;
         return productService.getById(id)
-                .map(ResponseEntity::ok)
+                .map(p -> {
+                    versions.learnModule(p.id(), p.module() == null ? null : p.module().id());
+                    return ResponseEntity.ok(p);
+                })
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping("/by-module/{op}")
-    public ResponseEntity<List<Product>> getProductByOp(@PathVariable String op) {
-        List<Product> products = productService.getProductsByOp(op);
+    public ResponseEntity<List<ProductView>> getProductByOp(@PathVariable String op) {
+        List<ProductView> products = productService.getProductsByOp(op);
         if (products.isEmpty()) {
             return ResponseEntity.noContent().build();
         }
@@ -61,8 +172,9 @@ public class ProductController {
     }
 
     @GetMapping("/by-module/{moduleId}")
-    public ResponseEntity<List<Product>> getProductsByModule(@PathVariable Long moduleId) {
-        List<Product> products = productService.getProductsByModule(moduleId);
+    public ResponseEntity<List<ProductView>> getProductsByModule(@PathVariable Long moduleId, NativeWebRequest request) {
+        if (versions.notModified(request, versions.productsTag())) return null;
+        List<ProductView> products = productService.getProductsByModule(moduleId);
         if (products.isEmpty()) {
             return ResponseEntity.noContent().build();
         }
@@ -70,13 +182,27 @@ public class ProductController {
     }
 
     @GetMapping("/by-date-range")
-    public ResponseEntity<List<Product>> getProductsByDateRange(
+    public ResponseEntity<List<ProductView>> getProductsByDateRange(
             @RequestParam("startDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam("endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
-        List<Product> products = productService.getProductsByDateRange(startDate, endDate);
+            @RequestParam("endDate") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            NativeWebRequest request) {
+        if (versions.notModified(request, versions.productsTag())) return null;
+        List<ProductView> products = productService.getProductsByDateRange(startDate, endDate);
         return ResponseEntity.ok(products);
     }
 
+    @GetMapping("/kpis")
+    public List<ProductKpi> getKpis(
+            @RequestParam(value = "by", required = false) String by,
+            @RequestParam(value = "assignedFrom", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate assignedFrom,
+            @RequestParam(value = "assignedTo", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate assignedTo,
+            @RequestParam(value = "plantEntryFrom", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate plantEntryFrom,
+            @RequestParam(value = "plantEntryTo", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate plantEntryTo,
+            NativeWebRequest request) {
+        if (versions.notModified(request, versions.productsTag())) return null;
+        return productService.kpis(by, new KpiFilter(assignedFrom, assignedTo, plantEntryFrom, plantEntryTo));
+    }
+
     @PutMapping("/{id}/made")
     public Product setMade(@PathVariable Long id, @RequestParam("value") int value) {
         return productService.setMade(id, value);
@@ -92,7 +218,9 @@ public class ProductController {
             @PathVariable Long id,
             @RequestBody Map<String, Object> updates
     ) {
-        Product updated = productService.partialUpdate(id, updates);
-        return ResponseEntity.ok(updated);
+        PatchResult result = productService.partialUpdate(id, updates);
+        return ResponseEntity.ok()
+                .header(CHANGED_FIELDS_HEADER, String.join(",", result.changedFields()))
+                .body(result.product());
     }
 }
@@ -0,0 +1,50 @@
+package com.carsil.userapi.controller;
+
+import com.carsil.userapi.dto.ThroughputPoint;
+import com.carsil.userapi.model.ProgressEvent;
+import com.carsil.userapi.model.enums.RollupGranularity;
+import com.carsil.userapi.model.enums.RollupScope;
+import com.carsil.userapi.service.ProgressLog;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+
+@RestController
+@RequestMapping("/api/progress")
+public class ProgressController {
+
+    @Autowired
+    private ProgressLog progressLog;
+
+    /** Units produced per hour or day by one module ({@code moduleId}) or one OP ({@code op}). */
+    @GetMapping("/throughput")
+    public List<ThroughputPoint> throughput(
+            @RequestParam(value = "moduleId", required = false) Long moduleId,
+            @RequestParam(value = "op", required = false) String op,
+            @RequestParam(value = "granularity", defaultValue = "day") String granularity,
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        if ((moduleId == null) == (op == null)) {
+            throw new IllegalArgumentException("Exactly one of moduleId or op is required");
+        }
+        RollupGranularity g;
+        try {
+            g = RollupGranularity.valueOf(granularity.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("granularity must be hour or day");
+        }
+        return moduleId != null
+                ? progressLog.throughput(RollupScope.MODULE, moduleId.toString(), g, from, to)
+                : progressLog.throughput(RollupScope.OP, op, g, from, to);
+    }
+
+    @GetMapping("/products/{productId}/events")
+    public List<ProgressEvent> events(@PathVariable Long productId,
+                                      @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        return progressLog.recent(productId, limit);
+    }
+}
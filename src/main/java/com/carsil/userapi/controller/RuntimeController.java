@@ -0,0 +1,43 @@
+package com.carsil.userapi.controller;
+
+import com.carsil.userapi.config.ConcurrencyLimitFilter;
+import com.carsil.userapi.dto.ConditionalStats;
+import com.carsil.userapi.dto.RuntimeStats;
+import com.carsil.userapi.service.RequestStats;
+import com.carsil.userapi.service.ResourceVersions;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/runtime")
+public class RuntimeController {
+
+    @Autowired
+    private RequestStats requestStats;
+
+    @Autowired
+    private ConcurrencyLimitFilter concurrencyLimitFilter;
+
+    @Autowired
+    private ResourceVersions resourceVersions;
+
+    @GetMapping("/stats")
+    public RuntimeStats stats() {
+        return requestStats.snapshot(concurrencyLimitFilter.size(), concurrencyLimitFilter.available());
+    }
+
+    @GetMapping("/conditional")
+    public ConditionalStats conditional() {
+        return resourceVersions.stats();
+    }
+
+    @PostMapping("/stats/reset")
+    public ResponseEntity<Void> reset() {
+        requestStats.reset();
+        return ResponseEntity.noContent().build();
+    }
+}
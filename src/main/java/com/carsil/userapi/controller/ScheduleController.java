@@ -0,0 +1,25 @@
+package com.carsil.userapi.controller;
+
+import com.carsil.userapi.dto.SchedulePlan;
+import com.carsil.userapi.service.ScheduleService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/schedule")
+public class ScheduleController {
+
+    @Autowired
+    private ScheduleService scheduleService;
+
+    /** Dry run: the plan the scheduler would apply right now. */
+    @GetMapping("/plan")
+    public SchedulePlan plan(@RequestParam(value = "rebalance", defaultValue = "false") boolean rebalance) {
+        return scheduleService.plan(rebalance);
+    }
+
+    @PostMapping("/apply")
+    public SchedulePlan apply(@RequestParam(value = "rebalance", defaultValue = "false") boolean rebalance) {
+        return scheduleService.apply(rebalance);
+    }
+}
@@ -0,0 +1,5 @@
+package com.carsil.userapi.dto;
+
+public record CacheRegionStats(String region, long hits, long misses, float hitPercentage,
+                               long puts, long removals, long evictions) {
+}
@@ -0,0 +1,4 @@
+package com.carsil.userapi.dto;
+
+public record ConditionalStats(long conditionalRequests, long notModified, double hitRatio) {
+}
@@ -0,0 +1,23 @@
+package com.carsil.userapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@Builder
+@AllArgsConstructor
+public class ImportReport {
+
+    private final long rowsRead;
+    private final long imported;
+    private final long failed;
+    private final List<RowError> errors;
+    // true when more rows failed than the report keeps
+    private final boolean errorsTruncated;
+
+    public record RowError(long line, String op, String message) {
+    }
+}
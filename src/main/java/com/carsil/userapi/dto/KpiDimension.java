@@ -0,0 +1,17 @@
+package com.carsil.userapi.dto;
+
+import java.util.Arrays;
+
+public enum KpiDimension {
+    MODULE, BRAND, CAMPAIGN, STATUS, STOPPAGE_REASON;
+
+    /** Accepts {@code stoppageReason}, {@code stoppage_reason} or {@code STOPPAGE_REASON}. */
+    public static KpiDimension parse(String value) {
+        String norm = value == null ? "" : value.trim().replace("_", "");
+        return Arrays.stream(values())
+                .filter(d -> d.name().replace("_", "").equalsIgnoreCase(norm))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown KPI dimension: " + value
+                        + " (expected module, brand, campaign, status or stoppageReason)"));
+    }
+}
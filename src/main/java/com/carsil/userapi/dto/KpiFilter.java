@@ -0,0 +1,10 @@
+package com.carsil.userapi.dto;
+
+import java.time.LocalDate;
+
+/** Inclusive date bounds; a null bound is not applied. */
+public record KpiFilter(LocalDate assignedFrom, LocalDate assignedTo,
+                        LocalDate plantEntryFrom, LocalDate plantEntryTo) {
+
+    public static final KpiFilter NONE = new KpiFilter(null, null, null, null);
+}
@@ -0,0 +1,16 @@
+package com.carsil.userapi.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Plant-wide effect of a what-if: the busiest module and its load days, the sum of load days and
+ * the headcount over all modules, before and after. {@code modules} and {@code products} list only
+ * what the simulation touched.
+ */
+public record LoadSimulation(BigDecimal maxLoadDaysBefore, BigDecimal maxLoadDaysAfter,
+                             Long bottleneckBefore, Long bottleneckAfter,
+                             BigDecimal totalLoadDaysBefore, BigDecimal totalLoadDaysAfter,
+                             int numPersonsBefore, int numPersonsAfter,
+                             List<ModuleLoadSimulation> modules, List<ProductLoadSimulation> products) {
+}
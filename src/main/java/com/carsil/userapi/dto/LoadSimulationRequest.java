@@ -0,0 +1,10 @@
+package com.carsil.userapi.dto;
+
+import java.util.Map;
+
+/**
+ * Hypothetical changes to evaluate: headcount per module id, and target module id per product id.
+ * Either map may be omitted.
+ */
+public record LoadSimulationRequest(Map<Long, Integer> numPersons, Map<Long, Long> moves) {
+}
@@ -0,0 +1,4 @@
+package com.carsil.userapi.dto;
+
+public record ModuleLoadDrift(Long moduleId, Long stored, Long actual) {
+}
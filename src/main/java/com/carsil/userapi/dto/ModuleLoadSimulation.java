@@ -0,0 +1,8 @@
+package com.carsil.userapi.dto;
+
+import java.math.BigDecimal;
+
+public record ModuleLoadSimulation(Long moduleId, String name, int numPersonsBefore, int numPersonsAfter,
+                                   long samTotalBefore, long samTotalAfter, int products,
+                                   BigDecimal loadDaysBefore, BigDecimal loadDaysAfter) {
+}
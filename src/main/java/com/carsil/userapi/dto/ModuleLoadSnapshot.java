@@ -0,0 +1,4 @@
+package com.carsil.userapi.dto;
+
+public record ModuleLoadSnapshot(Long moduleId, Long samTotalSum, Integer numPersons) {
+}
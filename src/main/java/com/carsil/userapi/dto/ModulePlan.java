@@ -0,0 +1,7 @@
+package com.carsil.userapi.dto;
+
+import java.math.BigDecimal;
+
+public record ModulePlan(Long moduleId, String name, Integer numPersons, int products,
+                         BigDecimal loadDaysBefore, BigDecimal loadDaysAfter) {
+}
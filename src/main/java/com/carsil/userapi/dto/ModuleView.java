@@ -0,0 +1,20 @@
+package com.carsil.userapi.dto;
+
+import com.carsil.userapi.model.Module;
+
+import java.math.BigDecimal;
+
+/** A module as the read endpoints serve it; same JSON shape as {@link Module}. */
+public record ModuleView(Long id, String description, String name, Integer numPersons, Long samTotalSum,
+                         BigDecimal totaLoadDays) {
+
+    public ModuleView(Long id, String description, String name, Integer numPersons, Long samTotalSum) {
+        this(id, description, name, numPersons, samTotalSum,
+                Module.loadDaysFor(samTotalSum == null ? 0L : samTotalSum, numPersons));
+    }
+
+    public static ModuleView of(Module m) {
+        if (m == null) return null;
+        return new ModuleView(m.getId(), m.getDescription(), m.getName(), m.getNumPersons(), m.getSamTotalSum());
+    }
+}
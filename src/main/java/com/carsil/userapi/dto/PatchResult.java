@@ -0,0 +1,8 @@
+package com.carsil.userapi.dto;
+
+import com.carsil.userapi.model.Product;
+
+import java.util.Set;
+
+public record PatchResult(Product product, Set<String> changedFields) {
+}
@@ -0,0 +1,19 @@
+package com.carsil.userapi.dto;
+
+import com.carsil.userapi.model.enums.ProductionStatus;
+
+import java.util.Set;
+
+/**
+ * What a production board needs to patch one row in place, without refetching the product.
+ * {@code previousModuleId} is set only when the write moved the product to another module; a board
+ * showing that module drops the row.
+ */
+public record ProductDelta(Long id, String op, Long moduleId, Long previousModuleId, String kind, Set<String> changed,
+                           Integer quantity, Integer quantityMade, Integer missing, Integer samTotal,
+                           ProductionStatus status) {
+
+    public boolean concerns(Long module) {
+        return module.equals(moduleId) || module.equals(previousModuleId);
+    }
+}
@@ -0,0 +1,12 @@
+package com.carsil.userapi.dto;
+
+import java.time.LocalDate;
+
+/**
+ * The filters of /search and /by-date-range: a substring of op, reference, campaign or brand, and
+ * inclusive plant entry bounds. Null or blank parts are not applied.
+ */
+public record ProductExportFilter(String q, LocalDate startDate, LocalDate endDate) {
+
+    public static final ProductExportFilter NONE = new ProductExportFilter(null, null, null);
+}
@@ -0,0 +1,13 @@
+package com.carsil.userapi.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Totals for one group of products. {@code key} identifies the group (module id, brand, enum name…)
+ * and is null for products without a value; {@code label} is the display name where it differs.
+ * {@code progress} is quantityMade / quantity over the whole group.
+ */
+public record ProductKpi(String key, String label, long products,
+                         long quantity, long quantityMade, long missing, long samTotal,
+                         BigDecimal totalPrice, Double avgSam, double progress) {
+}
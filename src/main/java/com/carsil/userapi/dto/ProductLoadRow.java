@@ -0,0 +1,4 @@
+package com.carsil.userapi.dto;
+
+public record ProductLoadRow(Long id, String op, Long moduleId, Integer samTotal) {
+}
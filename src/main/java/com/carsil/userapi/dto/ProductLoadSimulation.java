@@ -0,0 +1,7 @@
+package com.carsil.userapi.dto;
+
+import java.math.BigDecimal;
+
+public record ProductLoadSimulation(Long productId, String op, Long moduleIdBefore, Long moduleIdAfter,
+                                    BigDecimal loadDaysBefore, BigDecimal loadDaysAfter) {
+}
@@ -0,0 +1,9 @@
+package com.carsil.userapi.dto;
+
+public interface ProductSearchRow {
+    Long getId();
+    String getOp();
+    String getReference();
+    String getCampaign();
+    String getBrand();
+}
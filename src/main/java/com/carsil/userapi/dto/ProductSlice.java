@@ -0,0 +1,18 @@
+package com.carsil.userapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@Builder
+@AllArgsConstructor
+public class ProductSlice {
+
+    private final List<ProductView> content;
+    private final int size;
+    private final boolean hasNext;
+    private final String nextCursor;
+}
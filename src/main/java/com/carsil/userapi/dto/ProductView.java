@@ -0,0 +1,72 @@
+package com.carsil.userapi.dto;
+
+import com.carsil.userapi.model.Product;
+import com.carsil.userapi.model.SizeBreakdown;
+import com.carsil.userapi.model.enums.ProductionStatus;
+import com.carsil.userapi.model.enums.StoppageReason;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * A product as the read endpoints serve it, with its module inlined; same JSON shape as
+ * {@link Product}. Built straight from columns by the {@code ProductRepository.VIEW} queries, so
+ * reads neither load entities into the persistence context nor touch lazy associations.
+ */
+public record ProductView(
+        Long id,
+        BigDecimal price,
+        Integer quantity,
+        LocalDate assignedDate,
+        LocalDate plantEntryDate,
+        String reference,
+        String brand,
+        String op,
+        String campaign,
+        String type,
+        String description,
+        ModuleView module,
+        ProductionStatus status,
+        StoppageReason stoppageReason,
+        Integer quantityMade,
+        String actualDeliveryDate,
+        Integer missing,
+        Double sam,
+        Integer samTotal,
+        Map<String, Integer> sizeQuantities,
+        BigDecimal totalPrice,
+        Integer cycleCalculated,
+        Integer quantityPending,
+        Double deliveryPercentage,
+        BigDecimal loadDays) {
+
+    // Column order of ProductRepository.VIEW; the module columns are null when it is unassigned.
+    public ProductView(Long id, BigDecimal price, Integer quantity, LocalDate assignedDate, LocalDate plantEntryDate,
+                       String reference, String brand, String op, String campaign, String type, String description,
+                       SizeBreakdown sizes, ProductionStatus status, StoppageReason stoppageReason,
+                       Integer quantityMade, String actualDeliveryDate, Integer missing, Double sam, Integer samTotal,
+                       Long moduleId, String moduleDescription, String moduleName, Integer moduleNumPersons,
+                       Long moduleSamTotalSum) {
+        this(id, price, quantity, assignedDate, plantEntryDate, reference, brand, op, campaign, type, description,
+                moduleId == null ? null
+                        : new ModuleView(moduleId, moduleDescription, moduleName, moduleNumPersons, moduleSamTotalSum),
+                status, stoppageReason, quantityMade, actualDeliveryDate, missing, sam, samTotal,
+                sizes == null ? null : sizes.toMap(),
+                Product.totalPriceOf(price, quantity),
+                Product.cycleDaysOf(assignedDate, plantEntryDate),
+                Product.pendingOf(quantity, quantityMade),
+                Product.deliveryPercentageOf(quantity, quantityMade),
+                Product.loadDaysOf(samTotal, moduleId == null ? null : moduleNumPersons));
+    }
+
+    /** For lookups answered by the entity caches; reads the module, so call it inside the transaction. */
+    public static ProductView of(Product p) {
+        return new ProductView(p.getId(), p.getPrice(), p.getQuantity(), p.getAssignedDate(), p.getPlantEntryDate(),
+                p.getReference(), p.getBrand(), p.getOp(), p.getCampaign(), p.getType(), p.getDescription(),
+                ModuleView.of(p.getModule()), p.getStatus(), p.getStoppageReason(), p.getQuantityMade(),
+                p.getActualDeliveryDate(), p.getMissing(), p.getSam(), p.getSamTotal(), p.getSizeQuantities(),
+                p.getTotalPrice(), p.getCycleCalculated(), p.getQuantityPending(), p.getDeliveryPercentage(),
+                p.getLoadDays());
+    }
+}
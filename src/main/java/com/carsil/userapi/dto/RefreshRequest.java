@@ -0,0 +1,8 @@
+package com.carsil.userapi.dto;
+
+import lombok.Data;
+
+@Data
+public class RefreshRequest {
+    private String refreshToken;
+}
@@ -0,0 +1,9 @@
+package com.carsil.userapi.dto;
+
+import java.util.Map;
+
+public record RuntimeStats(String threads, long requests, long rejected, double throughputPerSecond,
+                           double p50Ms, double p99Ms, double maxMs, int inFlight,
+                           int dbPermits, int dbPermitsAvailable,
+                           long pinnedEvents, Map<String, Long> pinningHotspots) {
+}
@@ -0,0 +1,16 @@
+package com.carsil.userapi.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Outcome of a scheduling run. Load and late figures are in load days; "before" covers only the
+ * products that already had a module. {@code skipped} counts moves not applied because the product
+ * changed module in the meantime.
+ */
+public record SchedulePlan(boolean applied, int products, int moved, int skipped,
+                           BigDecimal makespanBefore, BigDecimal makespanAfter,
+                           BigDecimal lateDaysBefore, BigDecimal lateDaysAfter,
+                           int iterations, long elapsedMs,
+                           List<ModulePlan> modules, List<ScheduledAssignment> assignments) {
+}
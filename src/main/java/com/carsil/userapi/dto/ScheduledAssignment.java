@@ -0,0 +1,8 @@
+package com.carsil.userapi.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record ScheduledAssignment(Long productId, String op, Long fromModuleId, Long toModuleId,
+                                  LocalDate dueDate, BigDecimal finishDays, BigDecimal lateDays) {
+}
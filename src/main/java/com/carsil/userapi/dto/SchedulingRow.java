@@ -0,0 +1,16 @@
+package com.carsil.userapi.dto;
+
+import com.carsil.userapi.model.enums.ProductionStatus;
+
+import java.time.LocalDate;
+
+public interface SchedulingRow {
+    Long getId();
+    String getOp();
+    Long getModuleId();
+    Integer getSamTotal();
+    Integer getQuantityMade();
+    ProductionStatus getStatus();
+    LocalDate getAssignedDate();
+    LocalDate getPlantEntryDate();
+}
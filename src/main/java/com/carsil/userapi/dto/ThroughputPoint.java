@@ -0,0 +1,6 @@
+package com.carsil.userapi.dto;
+
+import java.time.LocalDateTime;
+
+public record ThroughputPoint(LocalDateTime bucketStart, long units, int changes) {
+}
@@ -0,0 +1,4 @@
+package com.carsil.userapi.dto;
+
+public record TokenPair(String accessToken, String refreshToken, long expiresIn) {
+}
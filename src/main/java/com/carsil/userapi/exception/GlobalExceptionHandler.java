@@ -115,7 +115,7 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         var status = HttpStatus.UNAUTHORIZED;
         var body = ApiError.builder()
                 .status(status.value())
-                .error(status.getReasonPhrase())
+                .error("Invalid credentials")
                 .message("Credenciales inválidas")
                 .developerMessage(ex.getMessage())
                 .path(req.getRequestURI())
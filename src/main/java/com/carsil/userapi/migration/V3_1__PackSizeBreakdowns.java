@@ -0,0 +1,106 @@
+package com.carsil.userapi.migration;
+
+import com.carsil.userapi.model.SizeBreakdown;
+import com.carsil.userapi.model.enums.Size;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.sql.Connection;
+import java.util.*;
+
+/**
+ * Moves size breakdowns out of the legacy {@code product_size_quantities} element-collection table
+ * into the packed {@code size_units} column added by V3, then fills the column of every product
+ * that had no legacy rows with an empty breakdown. It runs inside Flyway's transaction, before
+ * Hibernate validates the schema and before the application serves anything, so no request ever
+ * sees a half-converted product. Rows with a label that is not a {@link Size} stay in the legacy
+ * table for review.
+ */
+public class V3_1__PackSizeBreakdowns extends BaseJavaMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(V3_1__PackSizeBreakdowns.class);
+
+    static final String LEGACY_TABLE = "product_size_quantities";
+
+    record Result(int products, int rows, int unknownRows, int empty) {
+    }
+
+    private final int batchSize;
+
+    public V3_1__PackSizeBreakdowns() {
+        this(1000);
+    }
+
+    V3_1__PackSizeBreakdowns(int batchSize) {
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @Override
+    public void migrate(Context context) {
+        long start = System.nanoTime();
+        Result result = migrate(context.getConnection());
+        log.info("Size breakdowns packed: {} products from {} legacy rows, {} products without sizes, in {} ms;"
+                        + " {} rows with unknown sizes left in {}", result.products(), result.rows(), result.empty(),
+                (System.nanoTime() - start) / 1_000_000, result.unknownRows(), LEGACY_TABLE);
+    }
+
+    Result migrate(Connection connection) {
+        NamedParameterJdbcTemplate jdbcTemplate = new NamedParameterJdbcTemplate(new SingleConnectionDataSource(connection, true));
+        int products = 0;
+        int rows = 0;
+        int unknown = 0;
+        long after = 0;
+        while (true) {
+            List<Long> ids = jdbcTemplate.queryForList(
+                    "SELECT DISTINCT product_id FROM " + LEGACY_TABLE + " WHERE product_id > :after ORDER BY product_id LIMIT :limit",
+                    Map.of("after", after, "limit", batchSize), Long.class);
+            if (ids.isEmpty()) break;
+            after = ids.get(ids.size() - 1);
+            int[] batch = migrateBatch(jdbcTemplate, ids);
+            products += batch[0];
+            rows += batch[1];
+            unknown += batch[2];
+        }
+        int empty = jdbcTemplate.getJdbcTemplate().update(
+                "UPDATE carsil_product SET size_units = ? WHERE size_units IS NULL", (Object) SizeBreakdown.EMPTY.pack());
+        return new Result(products, rows, unknown, empty);
+    }
+
+    // {products written, legacy rows converted, legacy rows with an unknown size}
+    private int[] migrateBatch(NamedParameterJdbcTemplate jdbcTemplate, List<Long> ids) {
+        Map<Long, int[]> units = new LinkedHashMap<>();
+        Map<Long, List<String>> converted = new HashMap<>();
+        int[] unknown = new int[1];
+        jdbcTemplate.query("SELECT product_id, size, units FROM " + LEGACY_TABLE + " WHERE product_id IN (:ids)",
+                Map.of("ids", ids), rs -> {
+                    long id = rs.getLong("product_id");
+                    String label = rs.getString("size");
+                    Size size = Size.fromLabel(label);
+                    if (size == null) {
+                        unknown[0]++;
+                        log.warn("Product {} has units for unknown size '{}'; left in {}", id, label, LEGACY_TABLE);
+                        return;
+                    }
+                    units.computeIfAbsent(id, k -> new int[Size.values().length])[size.ordinal()] += Math.max(0, rs.getInt("units"));
+                    converted.computeIfAbsent(id, k -> new ArrayList<>()).add(label);
+                });
+
+        List<Object[]> updates = new ArrayList<>(units.size());
+        units.forEach((id, u) -> updates.add(new Object[]{SizeBreakdown.of(u).pack(), id}));
+        int[] written = jdbcTemplate.getJdbcTemplate().batchUpdate(
+                "UPDATE carsil_product SET size_units = ? WHERE id = ? AND size_units IS NULL", updates);
+
+        List<Object[]> deletes = new ArrayList<>();
+        converted.forEach((id, labels) -> labels.forEach(label -> deletes.add(new Object[]{id, label})));
+        jdbcTemplate.getJdbcTemplate().batchUpdate(
+                "DELETE FROM " + LEGACY_TABLE + " WHERE product_id = ? AND size = ?", deletes);
+
+        int products = 0;
+        for (int w : written) products += w == 0 ? 0 : 1;
+        return new int[]{products, deletes.size(), unknown[0]};
+    }
+}
@@ -1,10 +1,13 @@
 package com.carsil.userapi.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @Table(name = "carsil_modules")
@@ -16,6 +19,7 @@ import lombok.*;
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
 @ToString
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "modules")
 public class Module {
 
     @Id
@@ -34,21 +38,31 @@ public class Module {
     @Column
     private Integer numPersons;
 
-    private java.math.BigDecimal loadDays;
+    // SUM(samTotal) of the module's products. Only written by the set-based updates in
+    // ModuleRepository, never by entity dirty checking.
+    @Column(name = "sam_total_sum", insertable = false, updatable = false)
+    private Long samTotalSum;
 
     @OneToMany(mappedBy = "module", fetch = FetchType.LAZY, cascade = CascadeType.PERSIST)
-    @com.fasterxml.jackson.annotation.JsonIgnoreProperties({"module"})
+    @JsonIgnore
     private java.util.List<Product> products = new java.util.ArrayList<>();
 
     @Transient
     @com.fasterxml.jackson.annotation.JsonProperty("totaLoadDays")
     public java.math.BigDecimal getTotaLoadDays() {
-        if (products == null || products.isEmpty()) return java.math.BigDecimal.ZERO;
+        return loadDaysFor(samTotalSum == null ? 0L : samTotalSum, numPersons);
+    }
+
+    // días de carga = SAM (min) / 60 / 9 h / personas * 1.35
+    public static java.math.BigDecimal loadDaysFor(long samMinutes, Integer people) {
+        if (samMinutes <= 0) return java.math.BigDecimal.ZERO;
+        if (people == null || people <= 0) return java.math.BigDecimal.ZERO;
 
-        return products.stream()
-                .map(Product::getLoadDays)
-                .filter(java.util.Objects::nonNull)
-                .reduce(java.math.BigDecimal.ZERO, java.math.BigDecimal::add)
+        return java.math.BigDecimal.valueOf(samMinutes)
+                .divide(java.math.BigDecimal.valueOf(60), 6, java.math.RoundingMode.HALF_UP)
+                .divide(java.math.BigDecimal.valueOf(9), 6, java.math.RoundingMode.HALF_UP)
+                .divide(java.math.BigDecimal.valueOf(people), 6, java.math.RoundingMode.HALF_UP)
+                .multiply(java.math.BigDecimal.valueOf(1.35))
                 .setScale(2, java.math.RoundingMode.HALF_UP);
     }
 }
\ No newline at end of file
@@ -2,15 +2,18 @@ package com.carsil.userapi.model;
 
 import com.carsil.userapi.model.enums.ProductionStatus;
 import com.carsil.userapi.model.enums.StoppageReason;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDate;
-import java.util.HashMap;
 import java.util.Map;
 
 import static java.time.temporal.ChronoUnit.DAYS;
@@ -27,6 +30,8 @@ import static java.time.temporal.ChronoUnit.DAYS;
 @Builder
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
 @ToString
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "products")
+@NaturalIdCache(region = "products-op")
 public class Product {
 
     @Id
@@ -60,6 +65,7 @@ public class Product {
     private String brand;
 
     @NotNull
+    @NaturalId(mutable = true)
     @Pattern(regexp = "^[0-9]*$", message = "The OP field must contain only numbers.")
     @Column(nullable = false)
     private String op;
@@ -77,11 +83,19 @@ public class Product {
     @Column
     private String description;
 
-    @ElementCollection
-    @CollectionTable(name = "product_size_quantities", joinColumns = @JoinColumn(name = "product_id"))
-    @MapKeyColumn(name = "size")
-    @Column(name = "units")
-    private Map<String, Integer> sizeQuantities = new HashMap<>();
+    // Served as "sizeQuantities" (label -> units) through the accessors below.
+    @JsonIgnore
+    @Convert(converter = SizeBreakdownConverter.class)
+    @Column(name = "size_units", length = SizeBreakdown.PACKED_LENGTH)
+    private SizeBreakdown sizes = SizeBreakdown.EMPTY;
+
+    public Map<String, Integer> getSizeQuantities() {
+        return sizes == null ? null : sizes.toMap();
+    }
+
+    public void setSizeQuantities(Map<String, Integer> sizeQuantities) {
+        this.sizes = SizeBreakdown.of(sizeQuantities);
+    }
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "module_id")
@@ -90,11 +104,15 @@ public class Product {
 
     @PrePersist
     private void validateOnCreate() {
-        // Normalización inline
-        if (sizeQuantities == null) sizeQuantities = new java.util.HashMap<>();
-        sizeQuantities.replaceAll((k, v) -> v == null ? 0 : Math.max(0, v));
+        applyCreateRules();
+    }
+
+    // Also used by the bulk import, which inserts without going through JPA.
+    public void applyCreateRules() {
+        if (sizes == null) sizes = SizeBreakdown.EMPTY;
+        sizes.validate();
 
-        int sum = sizeQuantities.values().stream().mapToInt(Integer::intValue).sum();
+        int sum = sizes.total();
         boolean hasSizes = sum > 0;
 
         if (quantity == null || quantity == 0) {
@@ -151,24 +169,18 @@ public class Product {
 
     @Transient
     public BigDecimal getTotalPrice() {
-        return (price == null || quantity == null)
-                ? BigDecimal.ZERO
-                : price.multiply(BigDecimal.valueOf(quantity));
+        return totalPriceOf(price, quantity);
     }
 
 
     @Transient
     public Integer getCycleCalculated() {
-        if (assignedDate == null) return null;
-        LocalDate end = (plantEntryDate != null) ? plantEntryDate : LocalDate.now();
-        long diff = DAYS.between(assignedDate, end);
-        return (diff < 0) ? 0 : Math.toIntExact(diff);
+        return cycleDaysOf(assignedDate, plantEntryDate);
     }
 
     @Transient
     public Integer getQuantityPending() {
-        if (quantity == null || quantityMade == null) return null;
-        return Math.max(0, quantity - quantityMade);
+        return pendingOf(quantity, quantityMade);
     }
 
     public void addMade(int delta) {
@@ -192,25 +204,43 @@ public class Product {
 
     @Transient
     public Double getDeliveryPercentage() {
-        if (quantity == null || quantity == 0 || quantityMade == null) {
-            return 0.0;
-        }
-        return (quantityMade.doubleValue() / quantity.doubleValue()) * 100.0;
+        return deliveryPercentageOf(quantity, quantityMade);
     }
 
     @Transient
     public BigDecimal getLoadDays() {
-        Integer samTotalMin = this.samTotal;
-        Integer people = (module != null ? module.getNumPersons() : null);
+        return loadDaysOf(samTotal, module != null ? module.getNumPersons() : null);
+    }
+
+    // The derived values above, from columns; also used by read projections that never load a Product.
 
-        if (samTotalMin == null || samTotalMin <= 0) return BigDecimal.ZERO;
-        if (people == null || people <= 0) return BigDecimal.ZERO;
+    public static BigDecimal totalPriceOf(BigDecimal price, Integer quantity) {
+        return (price == null || quantity == null)
+                ? BigDecimal.ZERO
+                : price.multiply(BigDecimal.valueOf(quantity));
+    }
+
+    public static Integer cycleDaysOf(LocalDate assignedDate, LocalDate plantEntryDate) {
+        if (assignedDate == null) return null;
+        LocalDate end = (plantEntryDate != null) ? plantEntryDate : LocalDate.now();
+        long diff = DAYS.between(assignedDate, end);
+        return (diff < 0) ? 0 : Math.toIntExact(diff);
+    }
+
+    public static Integer pendingOf(Integer quantity, Integer quantityMade) {
+        if (quantity == null || quantityMade == null) return null;
+        return Math.max(0, quantity - quantityMade);
+    }
+
+    public static Double deliveryPercentageOf(Integer quantity, Integer quantityMade) {
+        if (quantity == null || quantity == 0 || quantityMade == null) {
+            return 0.0;
+        }
+        return (quantityMade.doubleValue() / quantity.doubleValue()) * 100.0;
+    }
 
-        return BigDecimal.valueOf(samTotalMin)
-                .divide(BigDecimal.valueOf(60), 6, RoundingMode.HALF_UP)
-                .divide(BigDecimal.valueOf(9), 6, RoundingMode.HALF_UP)
-                .divide(BigDecimal.valueOf(people), 6, RoundingMode.HALF_UP)
-                .multiply(BigDecimal.valueOf(1.35))
-                .setScale(2, RoundingMode.HALF_UP);
+    public static BigDecimal loadDaysOf(Integer samTotal, Integer people) {
+        if (samTotal == null) return BigDecimal.ZERO;
+        return Module.loadDaysFor(samTotal, people);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,41 @@
+package com.carsil.userapi.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.Instant;
+
+/** One change of a product's quantityMade. Rows are only ever inserted, in batches by ProgressLog. */
+@Entity
+@Immutable
+@Table(
+        name = "carsil_progress_event",
+        indexes = @Index(name = "ix_progress_event_product", columnList = "productId, occurredAt")
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@ToString
+public class ProgressEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @EqualsAndHashCode.Include
+    private Long id;
+
+    @Column(nullable = false)
+    private Long productId;
+
+    @Column
+    private Long moduleId;
+
+    @Column(nullable = false)
+    private Integer delta;
+
+    @Column(nullable = false)
+    private Instant occurredAt;
+}
@@ -0,0 +1,54 @@
+package com.carsil.userapi.model;
+
+import com.carsil.userapi.model.enums.RollupGranularity;
+import com.carsil.userapi.model.enums.RollupScope;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Units produced by one module or OP within one hour or day, in the plant's time zone. Kept up to
+ * date incrementally as progress events are flushed.
+ */
+@Entity
+@Table(
+        name = "carsil_progress_rollup",
+        uniqueConstraints = @UniqueConstraint(name = "uk_progress_rollup_bucket",
+                columnNames = {"scope", "scopeKey", "granularity", "bucketStart"})
+)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@ToString
+public class ProgressRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @EqualsAndHashCode.Include
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 6)
+    private RollupScope scope;
+
+    // module id or OP, as long as the product's op column
+    @Column(nullable = false)
+    private String scopeKey;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 4)
+    private RollupGranularity granularity;
+
+    @Column(nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(nullable = false)
+    private Long units;
+
+    @Column(nullable = false)
+    private Integer changes;
+}
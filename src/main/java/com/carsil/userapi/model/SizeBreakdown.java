@@ -0,0 +1,129 @@
+package com.carsil.userapi.model;
+
+import com.carsil.userapi.model.enums.Size;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Units per {@link Size}, held as one int per size in enum order. Immutable: Hibernate compares
+ * instances with {@link #equals} for dirty checking and never copies them. Persisted as a single
+ * {@value #PACKED_LENGTH}-byte column by {@link SizeBreakdownConverter}.
+ */
+public final class SizeBreakdown implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private static final Size[] SIZES = Size.values();
+
+    /** Four big-endian bytes per size. */
+    public static final int PACKED_LENGTH = 14 * Integer.BYTES;
+
+    public static final SizeBreakdown EMPTY = new SizeBreakdown(new int[SIZES.length]);
+
+    private final int[] units;
+
+    private SizeBreakdown(int[] units) {
+        this.units = units;
+    }
+
+    /**
+     * From the API shape: size label to units. Unknown sizes are rejected; null and negative units
+     * count as zero.
+     */
+    public static SizeBreakdown of(Map<String, Integer> sizes) {
+        if (sizes == null || sizes.isEmpty()) return EMPTY;
+        int[] units = new int[SIZES.length];
+        for (Map.Entry<String, Integer> e : sizes.entrySet()) {
+            Size size = Size.fromLabel(e.getKey());
+            if (size == null) throw new IllegalArgumentException("Unknown size: " + e.getKey());
+            Integer v = e.getValue();
+            units[size.ordinal()] = v == null ? 0 : Math.max(0, v);
+        }
+        return new SizeBreakdown(units);
+    }
+
+    /** Units in {@link Size} order; the array is copied. */
+    public static SizeBreakdown of(int[] units) {
+        if (units.length != SIZES.length) {
+            throw new IllegalArgumentException("Expected " + SIZES.length + " sizes, got " + units.length);
+        }
+        SizeBreakdown sizes = new SizeBreakdown(units.clone());
+        sizes.validate();
+        return sizes;
+    }
+
+    public static SizeBreakdown unpack(byte[] packed) {
+        if (packed == null) return null;
+        if (packed.length != PACKED_LENGTH) {
+            throw new IllegalArgumentException("Packed sizes must be " + PACKED_LENGTH + " bytes, got " + packed.length);
+        }
+        int[] units = new int[SIZES.length];
+        for (int i = 0, b = 0; i < units.length; i++, b += Integer.BYTES) {
+            units[i] = (packed[b] & 0xFF) << 24 | (packed[b + 1] & 0xFF) << 16 | (packed[b + 2] & 0xFF) << 8 | packed[b + 3] & 0xFF;
+        }
+        return new SizeBreakdown(units);
+    }
+
+    public byte[] pack() {
+        byte[] packed = new byte[PACKED_LENGTH];
+        for (int i = 0, b = 0; i < units.length; i++, b += Integer.BYTES) {
+            int v = units[i];
+            packed[b] = (byte) (v >>> 24);
+            packed[b + 1] = (byte) (v >>> 16);
+            packed[b + 2] = (byte) (v >>> 8);
+            packed[b + 3] = (byte) v;
+        }
+        return packed;
+    }
+
+    public int units(Size size) {
+        return units[size.ordinal()];
+    }
+
+    public int total() {
+        int sum = 0;
+        for (int v : units) sum += v;
+        return sum;
+    }
+
+    /** Rejects negative units and totals past {@code int}; a corrupt row is the only way to get either. */
+    public void validate() {
+        long sum = 0;
+        for (int i = 0; i < units.length; i++) {
+            if (units[i] < 0) {
+                throw new IllegalArgumentException("Units of " + SIZES[i].getLabel() + " cannot be negative");
+            }
+            sum += units[i];
+        }
+        if (sum > Integer.MAX_VALUE) throw new IllegalArgumentException("Total units exceed " + Integer.MAX_VALUE);
+    }
+
+    /** Label to units for the sizes present, in size order. */
+    public Map<String, Integer> toMap() {
+        Map<String, Integer> map = new LinkedHashMap<>();
+        for (int i = 0; i < units.length; i++) {
+            if (units[i] != 0) map.put(SIZES[i].getLabel(), units[i]);
+        }
+        return map;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof SizeBreakdown other && Arrays.equals(units, other.units);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(units);
+    }
+
+    @Override
+    public String toString() {
+        return toMap().toString();
+    }
+}
@@ -0,0 +1,22 @@
+package com.carsil.userapi.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import org.hibernate.annotations.Immutable;
+
+// @Immutable: Hibernate keeps the loaded instance as the snapshot instead of deep-copying it
+@Converter
+@Immutable
+public class SizeBreakdownConverter implements AttributeConverter<SizeBreakdown, byte[]> {
+
+    @Override
+    public byte[] convertToDatabaseColumn(SizeBreakdown sizes) {
+        return sizes == null ? null : sizes.pack();
+    }
+
+    @Override
+    public SizeBreakdown convertToEntityAttribute(byte[] packed) {
+        // rows written before the column existed have no breakdown; they are served as {} like before
+        return packed == null ? SizeBreakdown.EMPTY : SizeBreakdown.unpack(packed);
+    }
+}
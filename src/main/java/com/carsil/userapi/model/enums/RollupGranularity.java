@@ -0,0 +1,13 @@
+package com.carsil.userapi.model.enums;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+public enum RollupGranularity {
+    HOUR(ChronoUnit.HOURS), DAY(ChronoUnit.DAYS);
+
+    private final ChronoUnit unit;
+    RollupGranularity(ChronoUnit unit) { this.unit = unit; }
+
+    public LocalDateTime bucketOf(LocalDateTime time) { return time.truncatedTo(unit); }
+}
@@ -0,0 +1,5 @@
+package com.carsil.userapi.model.enums;
+
+public enum RollupScope {
+    MODULE, OP
+}
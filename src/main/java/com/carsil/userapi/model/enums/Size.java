@@ -4,8 +4,19 @@ public enum Size {
     T2("2"), T4("4"), T6("6"), T8("8"), T10("10"), T12("12"), T14("14"), T16("16"),
     XS("XS"), S("S"), M("M"), L("L"), XL("XL"), XXL("XXL");
 
+    private static final Size[] VALUES = values();
+
     private final String label;
     Size(String label) { this.label = label; }
     public String getLabel() { return label; }
-}
 
+    /** The size with this label or constant name, ignoring case and surrounding blanks; null if none. */
+    public static Size fromLabel(String value) {
+        if (value == null) return null;
+        String norm = value.strip();
+        for (Size s : VALUES) {
+            if (s.label.equalsIgnoreCase(norm) || s.name().equalsIgnoreCase(norm)) return s;
+        }
+        return null;
+    }
+}
@@ -1,12 +1,50 @@
 package com.carsil.userapi.repository;
 
+import com.carsil.userapi.dto.ModuleLoadDrift;
+import com.carsil.userapi.dto.ModuleLoadSnapshot;
 import com.carsil.userapi.model.Module;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+
 @Repository
-public interface ModuleRepository extends JpaRepository<Module, Long> {
+public interface ModuleRepository extends JpaRepository<Module, Long>, ModuleRepositoryCustom {
+
+    @Override
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    List<Module> findAll();
+
     List<Module> findByNameContainingIgnoreCase(String name);
-}
\ No newline at end of file
+
+    @Modifying
+    @Query("""
+        UPDATE Module m
+        SET m.samTotalSum = (SELECT COALESCE(SUM(p.samTotal), 0) FROM Product p WHERE p.module = m)
+    """)
+    int rebuildSamTotals();
+
+    @Query("""
+        SELECT new com.carsil.userapi.dto.ModuleLoadDrift(m.id, COALESCE(m.samTotalSum, 0),
+               (SELECT COALESCE(SUM(p.samTotal), 0) FROM Product p WHERE p.module = m))
+        FROM Module m
+        WHERE COALESCE(m.samTotalSum, 0) <> (SELECT COALESCE(SUM(p.samTotal), 0) FROM Product p WHERE p.module = m)
+        ORDER BY m.id
+    """)
+    List<ModuleLoadDrift> findSamTotalDrift();
+
+    @Query("""
+        SELECT new com.carsil.userapi.dto.ModuleLoadSnapshot(m.id, COALESCE(m.samTotalSum, 0), m.numPersons)
+        FROM Module m
+        WHERE m.id IN :ids
+    """)
+    List<ModuleLoadSnapshot> findLoadSnapshots(@Param("ids") Collection<Long> ids);
+}
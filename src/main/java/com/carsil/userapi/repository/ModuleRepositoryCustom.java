@@ -0,0 +1,9 @@
+package com.carsil.userapi.repository;
+
+import java.util.Collection;
+
+public interface ModuleRepositoryCustom {
+
+    // Only the given modules are evicted from the second-level cache; cached queries stay valid.
+    int recomputeSamTotals(Collection<Long> ids);
+}
@@ -0,0 +1,31 @@
+package com.carsil.userapi.repository;
+
+import com.carsil.userapi.model.Module;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+
+public class ModuleRepositoryImpl implements ModuleRepositoryCustom {
+
+    private static final String RECOMPUTE_SAM_TOTALS = """
+            UPDATE carsil_modules m
+            SET sam_total_sum = (SELECT COALESCE(SUM(p.sam_total), 0) FROM carsil_product p WHERE p.module_id = m.id)
+            WHERE m.id IN (:ids)
+            """;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public int recomputeSamTotals(Collection<Long> ids) {
+        if (ids.isEmpty()) return 0;
+        int updated = TouchedRows.update(entityManager, RECOMPUTE_SAM_TOTALS)
+                .setParameterList("ids", ids)
+                .executeUpdate();
+        TouchedRows.forget(entityManager, Module.class, ids);
+        return updated;
+    }
+}
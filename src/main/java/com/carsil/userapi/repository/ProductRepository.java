@@ -1,35 +1,127 @@
 package com.carsil.userapi.repository;
 
+import com.carsil.userapi.dto.ProductLoadRow;
+import com.carsil.userapi.dto.ProductSearchRow;
+import com.carsil.userapi.dto.ProductView;
+import com.carsil.userapi.dto.SchedulingRow;
+import com.carsil.userapi.model.Module;
 import com.carsil.userapi.model.Product;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductRepositoryCustom {
+
+    // Read projection: one row per product with its module joined in, no entities and no lazy loads.
+    // An entity join rather than p.module, so p.module.id in a WHERE stays on carsil_product.module_id.
+    String VIEW = """
+        SELECT new com.carsil.userapi.dto.ProductView(
+               p.id, p.price, p.quantity, p.assignedDate, p.plantEntryDate, p.reference, p.brand, p.op,
+               p.campaign, p.type, p.description, p.sizes, p.status, p.stoppageReason, p.quantityMade,
+               p.actualDeliveryDate, p.missing, p.sam, p.samTotal,
+               m.id, m.description, m.name, m.numPersons, m.samTotalSum)
+        FROM Product p LEFT JOIN Module m ON m.id = p.module.id
+        """;
+
+    // The /search substring match, bound to :q.
+    String MATCHES = """
+           LOWER(p.op)        LIKE LOWER(CONCAT('%', :q, '%'))
+        OR LOWER(p.reference) LIKE LOWER(CONCAT('%', :q, '%'))
+        OR LOWER(p.campaign)  LIKE LOWER(CONCAT('%', :q, '%'))
+        OR LOWER(p.brand)     LIKE LOWER(CONCAT('%', :q, '%'))
+        """;
+
+    @Query(VIEW)
+    List<ProductView> findAllViews();
+
+    @Query(VIEW + "WHERE p.id IN :ids")
+    List<ProductView> findViewsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(VIEW + "WHERE p.module.id = :moduleId")
+    List<ProductView> findViewsByModuleId(@Param("moduleId") Long moduleId);
+
+    @Query(VIEW + "WHERE p.plantEntryDate BETWEEN :startDate AND :endDate")
+    List<ProductView> findViewsByPlantEntryDateBetween(@Param("startDate") LocalDate startDate,
+                                                       @Param("endDate") LocalDate endDate);
+
+    @Query(VIEW + "WHERE " + MATCHES)
+    List<ProductView> searchViews(@Param("q") String q);
 
-    @Query("""
-        SELECT p FROM Product p
-        WHERE LOWER(p.op)        LIKE LOWER(CONCAT('%', :q, '%'))
-           OR LOWER(p.reference) LIKE LOWER(CONCAT('%', :q, '%'))
-           OR LOWER(p.campaign)  LIKE LOWER(CONCAT('%', :q, '%'))
-           OR LOWER(p.brand)     LIKE LOWER(CONCAT('%', :q, '%'))
-    """)
-    List<Product> search(@Param("q") String q);
     boolean existsByOp(String op);
     boolean existsByOpAndIdNot(String op, Long id);
 
+    @Query("SELECT p.op FROM Product p WHERE p.op IN :ops")
+    List<String> findExistingOps(@Param("ops") Collection<String> ops);
+
     Page<Product> findByPlantEntryDateBetween(LocalDate startDate, LocalDate endDate, Pageable pageable);
 
-    List<Product> findByPlantEntryDateBetween(LocalDate startDate, LocalDate endDate);
+    List<Product> findByOp(String op);
 
-    List<Product> findByModuleId(Long moduleId);
+    // Keyset pagination: Slice fetches size + 1 rows, so no COUNT(*) is issued.
+    @Query(VIEW + "WHERE p.id > :id ORDER BY p.id")
+    Slice<ProductView> findViewsAfterId(@Param("id") Long id, Pageable pageable);
 
-    List<Product> findByOp(String op);
-}
\ No newline at end of file
+    @Query(VIEW + "ORDER BY p.assignedDate, p.id")
+    Slice<ProductView> findViewsOrderByAssignedDate(Pageable pageable);
+
+    @Query(VIEW + """
+        WHERE p.assignedDate > :date
+           OR (p.assignedDate = :date AND p.id > :id)
+        ORDER BY p.assignedDate, p.id
+    """)
+    Slice<ProductView> findViewsAfterAssignedDate(@Param("date") LocalDate date, @Param("id") Long id, Pageable pageable);
+
+    // On MySQL the fetch size only streams when the URL sets useCursorFetch=true.
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query(VIEW + "ORDER BY p.id")
+    Stream<ProductView> streamViewsOrderById();
+
+    @Query("SELECT COALESCE(MAX(p.id), 0) FROM Product p")
+    long findMaxId();
+
+    @Query("""
+        SELECT p.id AS id, p.op AS op, p.reference AS reference, p.campaign AS campaign, p.brand AS brand
+        FROM Product p
+        WHERE p.id BETWEEN :fromId AND :toId
+    """)
+    List<ProductSearchRow> findSearchRows(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    // Everything with work left, without hydrating products or modules.
+    @Query("""
+        SELECT p.id AS id, p.op AS op, m.id AS moduleId, p.samTotal AS samTotal, p.quantityMade AS quantityMade,
+               p.status AS status, p.assignedDate AS assignedDate, p.plantEntryDate AS plantEntryDate
+        FROM Product p LEFT JOIN p.module m
+        WHERE p.samTotal > 0
+    """)
+    List<SchedulingRow> findSchedulingRows();
+
+    @Query("""
+        SELECT new com.carsil.userapi.dto.ProductLoadRow(p.id, p.op, m.id, p.samTotal)
+        FROM Product p LEFT JOIN p.module m
+    """)
+    List<ProductLoadRow> findLoadRows();
+
+    // Moves only rows still where the plan found them.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Product p SET p.module = :to WHERE p.id IN :ids AND p.module IS NULL")
+    int assignUnassigned(@Param("ids") Collection<Long> ids, @Param("to") Module to);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Product p SET p.module = :to WHERE p.id IN :ids AND p.module = :from")
+    int reassign(@Param("ids") Collection<Long> ids, @Param("from") Module from, @Param("to") Module to);
+}
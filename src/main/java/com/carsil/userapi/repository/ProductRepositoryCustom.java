@@ -0,0 +1,28 @@
+package com.carsil.userapi.repository;
+
+import com.carsil.userapi.dto.KpiDimension;
+import com.carsil.userapi.dto.KpiFilter;
+import com.carsil.userapi.dto.ProductExportFilter;
+import com.carsil.userapi.dto.ProductKpi;
+import com.carsil.userapi.dto.ProductView;
+import com.carsil.userapi.model.Product;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public interface ProductRepositoryCustom {
+
+    // Resolved through Hibernate's natural-id API, so repeated lookups are served from the cache.
+    Optional<Product> findByNaturalOp(String op);
+
+    // One GROUP BY query returning sums only; by == null gives a single row over every product.
+    List<ProductKpi> aggregate(KpiDimension by, KpiFilter filter);
+
+    // Forward-only, in id order; close the stream to release the cursor.
+    Stream<ProductView> streamViews(ProductExportFilter filter);
+
+    // Conditional increment of quantityMade and its derived columns; 0 when out of bounds or missing.
+    // Only this product is evicted from the second-level cache.
+    int applyMadeDelta(Long id, int delta);
+}
@@ -0,0 +1,174 @@
+package com.carsil.userapi.repository;
+
+import com.carsil.userapi.dto.KpiDimension;
+import com.carsil.userapi.dto.KpiFilter;
+import com.carsil.userapi.dto.ProductExportFilter;
+import com.carsil.userapi.dto.ProductKpi;
+import com.carsil.userapi.dto.ProductView;
+import com.carsil.userapi.model.Product;
+import com.carsil.userapi.model.enums.ProductionStatus;
+import com.carsil.userapi.model.enums.StoppageReason;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
+public class ProductRepositoryImpl implements ProductRepositoryCustom {
+
+    private static final String TOTALS = """
+            COUNT(p) AS products,
+            COALESCE(SUM(p.quantity), 0) AS quantity,
+            COALESCE(SUM(p.quantityMade), 0) AS quantityMade,
+            COALESCE(SUM(p.missing), 0) AS missing,
+            COALESCE(SUM(p.samTotal), 0) AS samTotal,
+            COALESCE(SUM(p.price * p.quantity), 0) AS totalPrice,
+            AVG(p.sam) AS avgSam
+            """;
+
+    // Bounds check and derived columns in one statement. sam_total and missing are assigned before
+    // quantity_made because MySQL evaluates SET assignments left to right with the updated values.
+    private static final String APPLY_MADE_DELTA = """
+            UPDATE carsil_product
+            SET sam_total = CASE WHEN sam IS NULL THEN sam_total
+                                 ELSE ROUND(sam * (quantity - (quantity_made + :delta)), 0) END,
+                missing = quantity - (quantity_made + :delta),
+                quantity_made = quantity_made + :delta
+            WHERE id = :id
+              AND quantity_made + :delta >= 0
+              AND quantity_made + :delta <= quantity
+            """;
+
+    // Same as ProductRepository.streamViewsOrderById; MySQL needs useCursorFetch=true to honour it.
+    private static final int STREAM_FETCH_SIZE = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<Product> findByNaturalOp(String op) {
+        if (op == null) return Optional.empty();
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(Product.class)
+                .loadOptional(op);
+    }
+
+    @Override
+    @Transactional
+    public int applyMadeDelta(Long id, int delta) {
+        int updated = TouchedRows.update(entityManager, APPLY_MADE_DELTA)
+                .setParameter("id", id)
+                .setParameter("delta", delta)
+                .executeUpdate();
+        TouchedRows.forget(entityManager, Product.class, List.of(id));
+        return updated;
+    }
+
+    @Override
+    public List<ProductKpi> aggregate(KpiDimension by, KpiFilter filter) {
+        String group = by == null ? null : switch (by) {
+            case MODULE -> "m.id, m.name";
+            case BRAND -> "p.brand";
+            case CAMPAIGN -> "p.campaign";
+            case STATUS -> "p.status";
+            case STOPPAGE_REASON -> "p.stoppageReason";
+        };
+
+        // only the bounds that are set become predicates, so the planner sees plain range conditions
+        Map<String, LocalDate> params = new LinkedHashMap<>();
+        List<String> where = new ArrayList<>();
+        bound(where, params, "p.assignedDate >=", "assignedFrom", filter.assignedFrom());
+        bound(where, params, "p.assignedDate <=", "assignedTo", filter.assignedTo());
+        bound(where, params, "p.plantEntryDate >=", "plantEntryFrom", filter.plantEntryFrom());
+        bound(where, params, "p.plantEntryDate <=", "plantEntryTo", filter.plantEntryTo());
+
+        StringBuilder jpql = new StringBuilder("SELECT ");
+        if (by == KpiDimension.MODULE) jpql.append("m.id AS groupKey, m.name AS groupLabel, ");
+        else if (group != null) jpql.append(group).append(" AS groupKey, ");
+        jpql.append(TOTALS).append(" FROM Product p");
+        if (by == KpiDimension.MODULE) jpql.append(" LEFT JOIN p.module m");
+        if (!where.isEmpty()) jpql.append(" WHERE ").append(String.join(" AND ", where));
+        if (group != null) jpql.append(" GROUP BY ").append(group).append(" ORDER BY ").append(group);
+
+        TypedQuery<Tuple> query = entityManager.createQuery(jpql.toString(), Tuple.class);
+        params.forEach(query::setParameter);
+
+        List<Tuple> rows = query.getResultList();
+        List<ProductKpi> out = new ArrayList<>(rows.size());
+        for (Tuple t : rows) {
+            if (group == null && t.get("products", Long.class) == 0) continue;
+            Object key = group == null ? null : t.get("groupKey");
+            String label = by == KpiDimension.MODULE ? t.get("groupLabel", String.class) : label(key);
+            long quantity = ((Number) t.get("quantity")).longValue();
+            long made = ((Number) t.get("quantityMade")).longValue();
+            out.add(new ProductKpi(
+                    key == null ? null : key instanceof Enum<?> e ? e.name() : key.toString(),
+                    label,
+                    t.get("products", Long.class),
+                    quantity,
+                    made,
+                    ((Number) t.get("missing")).longValue(),
+                    ((Number) t.get("samTotal")).longValue(),
+                    toBigDecimal(t.get("totalPrice")),
+                    t.get("avgSam", Double.class),
+                    quantity == 0 ? 0 : (double) made / quantity));
+        }
+        return out;
+    }
+
+    @Override
+    public Stream<ProductView> streamViews(ProductExportFilter filter) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        List<String> where = new ArrayList<>();
+        if (filter.q() != null && !filter.q().isBlank()) {
+            where.add("(" + ProductRepository.MATCHES + ")");
+            params.put("q", filter.q().trim());
+        }
+        if (filter.startDate() != null) {
+            where.add("p.plantEntryDate >= :startDate");
+            params.put("startDate", filter.startDate());
+        }
+        if (filter.endDate() != null) {
+            where.add("p.plantEntryDate <= :endDate");
+            params.put("endDate", filter.endDate());
+        }
+
+        StringBuilder jpql = new StringBuilder(ProductRepository.VIEW);
+        if (!where.isEmpty()) jpql.append("WHERE ").append(String.join(" AND ", where));
+        jpql.append(" ORDER BY p.id");
+
+        TypedQuery<ProductView> query = entityManager.createQuery(jpql.toString(), ProductView.class)
+                .setHint(HINT_FETCH_SIZE, STREAM_FETCH_SIZE);
+        params.forEach(query::setParameter);
+        return query.getResultStream();
+    }
+
+    private static void bound(List<String> where, Map<String, LocalDate> params,
+                              String predicate, String name, LocalDate value) {
+        if (value == null) return;
+        where.add(predicate + " :" + name);
+        params.put(name, value);
+    }
+
+    private static String label(Object key) {
+        if (key instanceof StoppageReason r) return r.getLabel();
+        if (key instanceof ProductionStatus s) return s.getLabel();
+        return null;
+    }
+
+    private static BigDecimal toBigDecimal(Object value) {
+        return value instanceof BigDecimal b ? b : new BigDecimal(value.toString());
+    }
+}
@@ -0,0 +1,14 @@
+package com.carsil.userapi.repository;
+
+import com.carsil.userapi.model.ProgressEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ProgressEventRepository extends JpaRepository<ProgressEvent, Long> {
+
+    List<ProgressEvent> findByProductIdOrderByOccurredAtDescIdDesc(Long productId, Pageable pageable);
+}
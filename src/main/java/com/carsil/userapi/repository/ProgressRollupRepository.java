@@ -0,0 +1,27 @@
+package com.carsil.userapi.repository;
+
+import com.carsil.userapi.model.ProgressRollup;
+import com.carsil.userapi.model.enums.RollupGranularity;
+import com.carsil.userapi.model.enums.RollupScope;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ProgressRollupRepository extends JpaRepository<ProgressRollup, Long> {
+
+    // A range scan on uk_progress_rollup_bucket; the upper bound is exclusive.
+    @Query("""
+        SELECT r FROM ProgressRollup r
+        WHERE r.scope = :scope AND r.scopeKey = :key AND r.granularity = :granularity
+          AND r.bucketStart >= :from AND r.bucketStart < :to
+        ORDER BY r.bucketStart
+    """)
+    List<ProgressRollup> findSeries(@Param("scope") RollupScope scope, @Param("key") String key,
+                                    @Param("granularity") RollupGranularity granularity,
+                                    @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+}
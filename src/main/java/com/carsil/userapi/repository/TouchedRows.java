@@ -0,0 +1,45 @@
+package com.carsil.userapi.repository;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.Cache;
+import org.hibernate.Session;
+import org.hibernate.query.NativeQuery;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Native UPDATEs that Hibernate is told touch no cached table, so it neither clears whole
+ * second-level cache regions nor invalidates the query cache. The caller names the rows it
+ * changed and only those are dropped from the persistence context and evicted from the cache;
+ * they are evicted again when the transaction ends, in case a concurrent load cached the old
+ * state in between. Only safe for updates that cannot change which rows a cached query returns.
+ */
+final class TouchedRows {
+
+    private TouchedRows() {
+    }
+
+    static NativeQuery<?> update(EntityManager entityManager, String sql) {
+        entityManager.flush();
+        return entityManager.createNativeQuery(sql).unwrap(NativeQuery.class).addSynchronizedQuerySpace("");
+    }
+
+    static void forget(EntityManager entityManager, Class<?> type, Collection<?> ids) {
+        Session session = entityManager.unwrap(Session.class);
+        for (Object id : ids) session.detach(session.getReference(type, id));
+        Cache cache = session.getSessionFactory().getCache();
+        List<?> evicted = List.copyOf(ids);
+        evicted.forEach(id -> cache.evictEntityData(type, id));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evicted.forEach(id -> cache.evictEntityData(type, id));
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.carsil.userapi.service;
+
+import com.carsil.userapi.dto.CacheRegionStats;
+import com.carsil.userapi.repository.ModuleRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Warms and reports on the second-level cache. Statistics come from the standard JCache
+ * CacheStatistics MXBeans, so they keep working if the provider is swapped.
+ */
+@Service
+public class CacheService {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheService.class);
+
+    private static final String STATISTICS_PATTERN = "javax.cache:type=CacheStatistics,*";
+
+    @Autowired
+    private ModuleRepository moduleRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warmModules() {
+        int modules = moduleRepository.findAll().size();
+        log.info("Second-level cache warmed with {} modules", modules);
+    }
+
+    public List<CacheRegionStats> stats() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            return server.queryNames(new ObjectName(STATISTICS_PATTERN), null).stream()
+                    .map(name -> read(server, name))
+                    .sorted(Comparator.comparing(CacheRegionStats::region))
+                    .toList();
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot read cache statistics", e);
+        }
+    }
+
+    private CacheRegionStats read(MBeanServer server, ObjectName name) {
+        try {
+            return new CacheRegionStats(
+                    name.getKeyProperty("Cache"),
+                    (Long) server.getAttribute(name, "CacheHits"),
+                    (Long) server.getAttribute(name, "CacheMisses"),
+                    (Float) server.getAttribute(name, "CacheHitPercentage"),
+                    (Long) server.getAttribute(name, "CachePuts"),
+                    (Long) server.getAttribute(name, "CacheRemovals"),
+                    (Long) server.getAttribute(name, "CacheEvictions"));
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot read cache statistics for " + name, e);
+        }
+    }
+}
@@ -0,0 +1,396 @@
+package com.carsil.userapi.service;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Assignment engine behind {@link ScheduleService}. Works on primitive arrays only: per module a
+ * capacity in SAM minutes per day and the load it already carries, per product its remaining SAM
+ * minutes and the days left until it is due.
+ * <p>
+ * Each module works its products earliest-due-first after the pinned load, so a product finishes
+ * when the SAM ahead of it plus its own is done. The cost of a plan is its makespan (load days of
+ * the busiest module) plus {@code lateWeight} times the total days products finish after their due
+ * date. Products without a module are placed greedily in due-date order; then a local search
+ * applies the best relocation or swap per round until none improves the cost. Between moves of equal
+ * cost the one leaving the load more even wins (lower sum of squared load days), which gets the search
+ * off plateaus where several modules share the makespan. Candidate moves of a round are evaluated in
+ * parallel on a fork/join pool.
+ */
+final class CapacityScheduler {
+
+    static final double NO_DUE = Double.POSITIVE_INFINITY;
+
+    private static final double EPSILON = 1e-9;
+    private static final int LEAF = 512;
+    private static final int SWAP_TARGETS = 3;
+
+    record Result(int[] assignment, double[] finishDays, double makespan, double lateDays, int iterations) {
+    }
+
+    private record Move(int i, int x, boolean swap, double delta, double balance) {
+        static final Move NONE = new Move(-1, -1, false, 0, 0);
+
+        boolean beats(double delta, double balance) {
+            return this.delta < delta - EPSILON || (this.delta <= delta + EPSILON && this.balance < balance - EPSILON);
+        }
+    }
+
+    private final double[] capacity;
+    private final double[] pinned;
+    private final int[] sam;
+    private final double[] due;
+    private final double lateWeight;
+    private final int n;
+    private final int m;
+
+    // products in earliest-due-first order; rank[i] is the position of product i in it
+    private final int[] rank;
+
+    private final int[] assignment;
+    private final int[][] seq;
+    private final int[] seqSize;
+    private final double[] load;
+    private final double[] late;
+
+    /**
+     * @param capacity SAM minutes per day of each module; every module must have capacity
+     * @param pinned   SAM minutes already on each module that the scheduler cannot move
+     * @param sam      remaining SAM minutes of each movable product
+     * @param due      days from today until each product is due, or {@link #NO_DUE}
+     * @param current  module index of each product, or -1 when it has none
+     */
+    CapacityScheduler(double[] capacity, double[] pinned, int[] sam, double[] due, int[] current, double lateWeight) {
+        this.capacity = capacity;
+        this.pinned = pinned;
+        this.sam = sam;
+        this.due = due;
+        this.lateWeight = lateWeight;
+        this.n = sam.length;
+        this.m = capacity.length;
+        if (m == 0 && n > 0) throw new IllegalArgumentException("No module has people to take work");
+        for (double c : capacity) {
+            if (!(c > 0)) throw new IllegalArgumentException("Every module needs a positive capacity");
+        }
+
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) order[i] = i;
+        // earliest due first; among equal dates the longest first, which balances better
+        Arrays.sort(order, (a, b) -> due[a] != due[b] ? Double.compare(due[a], due[b]) : Integer.compare(sam[b], sam[a]));
+        rank = new int[n];
+        for (int r = 0; r < n; r++) rank[order[r]] = r;
+
+        assignment = current.clone();
+        seq = new int[m][];
+        seqSize = new int[m];
+        load = pinned.clone();
+        late = new double[m];
+        for (int k = 0; k < m; k++) seq[k] = new int[8];
+        for (int r = 0; r < n; r++) {
+            int i = order[r];
+            if (assignment[i] < 0) continue;
+            append(assignment[i], i);
+            load[assignment[i]] += sam[i];
+        }
+        for (int k = 0; k < m; k++) late[k] = lateness(k, -1, -1);
+    }
+
+    /** Makespan and late days of the current assignment, ignoring products without a module. */
+    double[] evaluate() {
+        double lateDays = 0;
+        for (double l : late) lateDays += l;
+        return new double[]{makespan(), lateDays};
+    }
+
+    Result solve(int maxIterations, long budgetNanos, ForkJoinPool pool) {
+        if (n == 0 || m == 0) return new Result(assignment.clone(), new double[n], makespan(), 0, 0);
+        long deadline = System.nanoTime() + budgetNanos;
+        placeUnassigned();
+
+        int iterations = 0;
+        while (iterations < maxIterations && System.nanoTime() < deadline) {
+            int[][] candidates = candidates();
+            Move best = pool.invoke(new Search(candidates, 0, candidates[0].length, makespan()));
+            if (best.i() < 0) break;
+            apply(best);
+            iterations++;
+        }
+        double[] score = evaluate();
+        return new Result(assignment.clone(), finishDays(), score[0], score[1], iterations);
+    }
+
+    private double[] finishDays() {
+        double[] finish = new double[n];
+        for (int k = 0; k < m; k++) {
+            double t = pinned[k];
+            for (int p = 0; p < seqSize[k]; p++) {
+                t += sam[seq[k][p]];
+                finish[seq[k][p]] = t / capacity[k];
+            }
+        }
+        return finish;
+    }
+
+    private void placeUnassigned() {
+        Integer[] pending = new Integer[n];
+        int count = 0;
+        for (int i = 0; i < n; i++) if (assignment[i] < 0) pending[count++] = i;
+        Arrays.sort(pending, 0, count, (a, b) -> Integer.compare(rank[a], rank[b]));
+        for (int p = 0; p < count; p++) {
+            int i = pending[p];
+            double ms = makespan();
+            int bestModule = -1;
+            double bestDelta = Double.POSITIVE_INFINITY;
+            double bestLoad = Double.POSITIVE_INFINITY;
+            for (int k = 0; k < m; k++) {
+                double newLoad = (load[k] + sam[i]) / capacity[k];
+                // placed in due order, so i usually goes last and only its own lateness changes
+                boolean last = seqSize[k] == 0 || rank[seq[k][seqSize[k] - 1]] < rank[i];
+                double lateDelta = last ? lateBy(i, newLoad) : lateness(k, i, -1) - late[k];
+                double delta = Math.max(ms, newLoad) - ms + lateWeight * lateDelta;
+                if (delta < bestDelta - EPSILON || (delta < bestDelta + EPSILON && newLoad < bestLoad)) {
+                    bestModule = k;
+                    bestDelta = delta;
+                    bestLoad = newLoad;
+                }
+            }
+            boolean last = seqSize[bestModule] == 0 || rank[seq[bestModule][seqSize[bestModule] - 1]] < rank[i];
+            insert(bestModule, i);
+            load[bestModule] += sam[i];
+            late[bestModule] = last ? late[bestModule] + lateBy(i, bestLoad) : lateness(bestModule, -1, -1);
+            assignment[i] = bestModule;
+        }
+    }
+
+    // Moves out of the busiest module can shorten the makespan; moves of late products can cut
+    // lateness. Swaps pair the busiest module with the least loaded ones.
+    private int[][] candidates() {
+        Integer[] byLoad = new Integer[m];
+        for (int k = 0; k < m; k++) byLoad[k] = k;
+        Arrays.sort(byLoad, (a, b) -> Double.compare(load[b] / capacity[b], load[a] / capacity[a]));
+        int critical = byLoad[0];
+
+        boolean[] isLate = lateProducts();
+        int[] is = new int[64];
+        int[] xs = new int[64];
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            int a = assignment[i];
+            if (a != critical && !isLate[i]) continue;
+            for (int k = 0; k < m; k++) {
+                if (k == a) continue;
+                if (count == is.length) {
+                    is = Arrays.copyOf(is, count * 2);
+                    xs = Arrays.copyOf(xs, count * 2);
+                }
+                is[count] = i;
+                xs[count++] = k;
+            }
+        }
+        int relocations = count;
+        for (int t = 1; t <= SWAP_TARGETS && t < m; t++) {
+            int other = byLoad[m - t];
+            if (other == critical) continue;
+            for (int p = 0; p < seqSize[critical]; p++) {
+                for (int q = 0; q < seqSize[other]; q++) {
+                    // only a smaller product coming back can lighten the busiest module
+                    if (sam[seq[other][q]] >= sam[seq[critical][p]]) continue;
+                    if (count == is.length) {
+                        is = Arrays.copyOf(is, count * 2);
+                        xs = Arrays.copyOf(xs, count * 2);
+                    }
+                    is[count] = seq[critical][p];
+                    xs[count++] = seq[other][q];
+                }
+            }
+        }
+        return new int[][]{Arrays.copyOf(is, count), Arrays.copyOf(xs, count), {relocations}};
+    }
+
+    private final class Search extends RecursiveTask<Move> {
+        private final int[][] candidates;
+        private final int from;
+        private final int to;
+        private final double makespan;
+
+        Search(int[][] candidates, int from, int to, double makespan) {
+            this.candidates = candidates;
+            this.from = from;
+            this.to = to;
+            this.makespan = makespan;
+        }
+
+        @Override
+        protected Move compute() {
+            if (to - from > LEAF) {
+                int mid = (from + to) >>> 1;
+                Search left = new Search(candidates, from, mid, makespan);
+                left.fork();
+                Move right = new Search(candidates, mid, to, makespan).compute();
+                Move l = left.join();
+                return right.beats(l.delta(), l.balance()) ? right : l;
+            }
+            int relocations = candidates[2][0];
+            Move best = Move.NONE;
+            for (int c = from; c < to; c++) {
+                int i = candidates[0][c];
+                int x = candidates[1][c];
+                boolean swap = c >= relocations;
+                double bound = best.delta() + EPSILON;
+                double delta = swap ? swapDelta(i, x, makespan, bound) : relocateDelta(i, x, makespan, bound);
+                if (delta > bound) continue;
+                int a = assignment[i];
+                int b = swap ? assignment[x] : x;
+                int moved = swap ? sam[i] - sam[x] : sam[i];
+                double balance = square((load[a] - moved) / capacity[a]) + square((load[b] + moved) / capacity[b])
+                        - square(load[a] / capacity[a]) - square(load[b] / capacity[b]);
+                Move move = new Move(i, x, swap, delta, balance);
+                if (move.beats(best.delta(), best.balance())) best = move;
+            }
+            return best;
+        }
+    }
+
+    // Both deltas skip the O(k) lateness walks when even losing all the lateness the module sheds
+    // could not beat the best move found so far; a product joining a module never lowers its lateness.
+    private double relocateDelta(int i, int b, double ms, double bound) {
+        int a = assignment[i];
+        double la = (load[a] - sam[i]) / capacity[a];
+        double lb = (load[b] + sam[i]) / capacity[b];
+        double msDelta = Math.max(Math.max(la, lb), maxExcluding(a, b)) - ms;
+        if (msDelta - lateWeight * late[a] >= bound) return Double.POSITIVE_INFINITY;
+        double lateDelta = (late[a] > 0 ? lateness(a, -1, i) - late[a] : 0) + lateness(b, i, -1) - late[b];
+        return msDelta + lateWeight * lateDelta;
+    }
+
+    private double swapDelta(int i, int j, double ms, double bound) {
+        int a = assignment[i];
+        int b = assignment[j];
+        double la = (load[a] - sam[i] + sam[j]) / capacity[a];
+        double lb = (load[b] - sam[j] + sam[i]) / capacity[b];
+        double msDelta = Math.max(Math.max(la, lb), maxExcluding(a, b)) - ms;
+        if (msDelta - lateWeight * (late[a] + late[b]) >= bound) return Double.POSITIVE_INFINITY;
+        double lateDelta = lateness(a, j, i) - late[a] + lateness(b, i, j) - late[b];
+        return msDelta + lateWeight * lateDelta;
+    }
+
+    private static double square(double v) {
+        return v * v;
+    }
+
+    private void apply(Move move) {
+        int i = move.i();
+        int a = assignment[i];
+        if (move.swap()) {
+            int j = move.x();
+            int b = assignment[j];
+            remove(a, i);
+            remove(b, j);
+            insert(a, j);
+            insert(b, i);
+            load[a] += sam[j] - sam[i];
+            load[b] += sam[i] - sam[j];
+            assignment[i] = b;
+            assignment[j] = a;
+            late[a] = lateness(a, -1, -1);
+            late[b] = lateness(b, -1, -1);
+        } else {
+            int b = move.x();
+            remove(a, i);
+            insert(b, i);
+            load[a] -= sam[i];
+            load[b] += sam[i];
+            assignment[i] = b;
+            late[a] = lateness(a, -1, -1);
+            late[b] = lateness(b, -1, -1);
+        }
+    }
+
+    /** Late days of module k if {@code add} joined it and {@code remove} left it (-1 for neither). */
+    private double lateness(int k, int add, int remove) {
+        double t = pinned[k];
+        double cap = capacity[k];
+        double sum = 0;
+        boolean added = add < 0;
+        int addRank = added ? Integer.MAX_VALUE : rank[add];
+        int[] s = seq[k];
+        for (int p = 0, size = seqSize[k]; p < size; p++) {
+            int j = s[p];
+            if (j == remove) continue;
+            if (!added && addRank < rank[j]) {
+                t += sam[add];
+                sum += lateBy(add, t / cap);
+                added = true;
+            }
+            t += sam[j];
+            sum += lateBy(j, t / cap);
+        }
+        if (!added) {
+            t += sam[add];
+            sum += lateBy(add, t / cap);
+        }
+        return sum;
+    }
+
+    private double lateBy(int i, double finish) {
+        return finish > due[i] ? finish - due[i] : 0;
+    }
+
+    private boolean[] lateProducts() {
+        boolean[] result = new boolean[n];
+        for (int k = 0; k < m; k++) {
+            if (late[k] == 0) continue;
+            double t = pinned[k];
+            for (int p = 0; p < seqSize[k]; p++) {
+                int j = seq[k][p];
+                t += sam[j];
+                result[j] = t / capacity[k] > due[j];
+            }
+        }
+        return result;
+    }
+
+    private double makespan() {
+        double max = 0;
+        for (int k = 0; k < m; k++) max = Math.max(max, load[k] / capacity[k]);
+        return max;
+    }
+
+    private double maxExcluding(int a, int b) {
+        double max = 0;
+        for (int k = 0; k < m; k++) {
+            if (k != a && k != b) max = Math.max(max, load[k] / capacity[k]);
+        }
+        return max;
+    }
+
+    private void append(int k, int i) {
+        if (seqSize[k] == seq[k].length) seq[k] = Arrays.copyOf(seq[k], seqSize[k] * 2);
+        seq[k][seqSize[k]++] = i;
+    }
+
+    private void insert(int k, int i) {
+        if (seqSize[k] == seq[k].length) seq[k] = Arrays.copyOf(seq[k], seqSize[k] * 2);
+        int[] s = seq[k];
+        int p = seqSize[k];
+        while (p > 0 && rank[s[p - 1]] > rank[i]) {
+            s[p] = s[p - 1];
+            p--;
+        }
+        s[p] = i;
+        seqSize[k]++;
+    }
+
+    private void remove(int k, int i) {
+        int[] s = seq[k];
+        int size = seqSize[k];
+        for (int p = 0; p < size; p++) {
+            if (s[p] == i) {
+                System.arraycopy(s, p + 1, s, p, size - p - 1);
+                seqSize[k]--;
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.carsil.userapi.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal RFC 4180 reader: quoted fields, doubled quotes and line breaks inside quotes. Reads one
+ * record at a time so the caller never holds more than the current row.
+ */
+class CsvRecordReader implements Closeable {
+
+    private final Reader in;
+    private final char delimiter;
+    private long line = 1;
+    private long recordLine;
+    private int pushback = -2;
+
+    CsvRecordReader(Reader in, char delimiter) {
+        this.in = in;
+        this.delimiter = delimiter;
+    }
+
+    // Spreadsheets exported with a Spanish locale separate with ';'.
+    static char detectDelimiter(String headerLine) {
+        int commas = headerLine.length() - headerLine.replace(",", "").length();
+        int semicolons = headerLine.length() - headerLine.replace(";", "").length();
+        return semicolons > commas ? ';' : ',';
+    }
+
+    /** Line number where the last record returned by {@link #next()} started. */
+    long recordLine() {
+        return recordLine;
+    }
+
+    /** Next record, or null at end of input. Blank lines are skipped. */
+    List<String> next() throws IOException {
+        while (true) {
+            int c = read();
+            if (c == -1) return null;
+            if (c == '\n') {
+                line++;
+                continue;
+            }
+            if (c == '\r') continue;
+            unread(c);
+            recordLine = line;
+            return readRecord();
+        }
+    }
+
+    private List<String> readRecord() throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            int c = read();
+            if (quoted) {
+                if (c == -1) throw new IOException("Unterminated quoted field starting at line " + recordLine);
+                if (c == '"') {
+                    int n = read();
+                    if (n == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        unread(n);
+                    }
+                } else {
+                    if (c == '\n') line++;
+                    field.append((char) c);
+                }
+                continue;
+            }
+            if (c == -1 || c == '\n') {
+                if (c == '\n') line++;
+                fields.add(field.toString());
+                return fields;
+            }
+            if (c == '\r') continue;
+            if (c == delimiter) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else {
+                field.append((char) c);
+            }
+        }
+    }
+
+    private int read() throws IOException {
+        if (pushback != -2) {
+            int c = pushback;
+            pushback = -2;
+            return c;
+        }
+        return in.read();
+    }
+
+    private void unread(int c) {
+        pushback = c;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
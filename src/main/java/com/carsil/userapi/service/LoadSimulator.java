@@ -0,0 +1,267 @@
+package com.carsil.userapi.service;
+
+import com.carsil.userapi.dto.LoadSimulation;
+import com.carsil.userapi.dto.LoadSimulationRequest;
+import com.carsil.userapi.dto.ModuleLoadSimulation;
+import com.carsil.userapi.dto.ProductLoadRow;
+import com.carsil.userapi.dto.ProductLoadSimulation;
+import com.carsil.userapi.model.Module;
+import com.carsil.userapi.model.Product;
+import com.carsil.userapi.repository.ModuleRepository;
+import com.carsil.userapi.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory copy of the plant for what-if questions: per product its module and SAM left, per
+ * module its headcount and the SAM it carries. Products are read once and then kept current from
+ * {@link ProductChangedEvent}s; module rows are re-read whenever the module version moves, which is
+ * cheap with a few dozen modules. A simulation recomputes only the modules it touches and compares
+ * them with the cached baseline of the rest, so it never goes to the database.
+ */
+@Component
+public class LoadSimulator {
+
+    private static final class ModuleState {
+        final Long id;
+        String name;
+        int numPersons;
+        long sam;
+        BigDecimal loadDays = BigDecimal.ZERO;
+        final Set<Long> products = new LinkedHashSet<>();
+
+        ModuleState(Long id) {
+            this.id = id;
+        }
+    }
+
+    private record ProductState(Long id, String op, Long moduleId, long sam) {
+    }
+
+    private final Map<Long, ModuleState> modules = new HashMap<>();
+    private final Map<Long, ProductState> products = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile boolean loaded;
+    private volatile String modulesTag;
+
+    // baseline, refreshed on every write: modules busiest first, and plant totals
+    private List<ModuleState> ranking = List.of();
+    private BigDecimal totalLoadDays = BigDecimal.ZERO;
+    private int totalPersons;
+
+    @Autowired
+    private ModuleRepository moduleRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ResourceVersions versions;
+
+    @TransactionalEventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            // not read yet: the first simulation will see this write in the database
+            if (!loaded) return;
+            unplace(event.productId());
+            Product p = event.product();
+            if (event.kind() != ProductChangedEvent.Kind.DELETED && p != null) {
+                place(new ProductState(p.getId(), p.getOp(), p.getModule() == null ? null : p.getModule().getId(),
+                        p.getSamTotal() == null ? 0 : p.getSamTotal()));
+            }
+            refreshBaseline();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public LoadSimulation simulate(LoadSimulationRequest request, boolean includeProducts) {
+        ensureCurrent();
+        Map<Long, Integer> people = request == null || request.numPersons() == null ? Map.of() : request.numPersons();
+        Map<Long, Long> moves = request == null || request.moves() == null ? Map.of() : request.moves();
+
+        lock.readLock().lock();
+        try {
+            SortedMap<Long, long[]> affected = new TreeMap<>();  // module id -> {numPersons, sam, products}
+            people.forEach((id, n) -> {
+                if (n == null || n < 0) throw new IllegalArgumentException("numPersons must be >= 0");
+                state(affected, id)[0] = n;
+            });
+            List<ProductState> moved = new ArrayList<>();
+            moves.forEach((productId, to) -> {
+                ProductState p = products.get(productId);
+                if (p == null) throw new IllegalArgumentException("Product not found: " + productId);
+                if (to == null) throw new IllegalArgumentException("Target module is required for product " + productId);
+                if (to.equals(p.moduleId())) return;
+                long[] target = state(affected, to);
+                target[1] += p.sam();
+                target[2]++;
+                if (p.moduleId() != null && modules.containsKey(p.moduleId())) {
+                    long[] source = state(affected, p.moduleId());
+                    source[1] -= p.sam();
+                    source[2]--;
+                }
+                moved.add(p);
+            });
+
+            List<ModuleLoadSimulation> moduleResults = new ArrayList<>(affected.size());
+            Map<Long, Integer> personsAfter = new HashMap<>();
+            BigDecimal total = totalLoadDays;
+            int persons = totalPersons;
+            BigDecimal max = BigDecimal.ZERO;
+            Long bottleneck = null;
+            for (Map.Entry<Long, long[]> e : affected.entrySet()) {
+                ModuleState m = modules.get(e.getKey());
+                long[] s = e.getValue();
+                int n = (int) s[0];
+                BigDecimal after = Module.loadDaysFor(s[1], n);
+                personsAfter.put(m.id, n);
+                total = total.subtract(m.loadDays).add(after);
+                persons += n - m.numPersons;
+                if (bottleneck == null || after.compareTo(max) > 0) {
+                    max = after;
+                    bottleneck = m.id;
+                }
+                moduleResults.add(new ModuleLoadSimulation(m.id, m.name, m.numPersons, n, m.sam, s[1], (int) s[2],
+                        m.loadDays, after));
+            }
+            // the busiest untouched module is the first in the ranking the simulation left alone
+            for (ModuleState m : ranking) {
+                if (affected.containsKey(m.id)) continue;
+                if (bottleneck == null || m.loadDays.compareTo(max) > 0) {
+                    max = m.loadDays;
+                    bottleneck = m.id;
+                }
+                break;
+            }
+            ModuleState busiest = ranking.isEmpty() ? null : ranking.get(0);
+
+            List<ProductLoadSimulation> productResults = includeProducts
+                    ? products(affected.keySet(), moves, moved, personsAfter)
+                    : List.of();
+            return new LoadSimulation(busiest == null ? BigDecimal.ZERO : busiest.loadDays, max,
+                    busiest == null ? null : busiest.id, bottleneck,
+                    totalLoadDays, total, totalPersons, persons, moduleResults, productResults);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<ProductLoadSimulation> products(Set<Long> affected, Map<Long, Long> moves,
+                                                 List<ProductState> moved, Map<Long, Integer> personsAfter) {
+        List<ProductLoadSimulation> out = new ArrayList<>();
+        for (Long id : affected) {
+            for (Long productId : modules.get(id).products) {
+                ProductState p = products.get(productId);
+                Long to = moves.getOrDefault(productId, p.moduleId());
+                if (!to.equals(p.moduleId())) continue;
+                out.add(result(p, to, personsAfter));
+            }
+        }
+        for (ProductState p : moved) out.add(result(p, moves.get(p.id()), personsAfter));
+        return out;
+    }
+
+    private ProductLoadSimulation result(ProductState p, Long to, Map<Long, Integer> personsAfter) {
+        ModuleState from = p.moduleId() == null ? null : modules.get(p.moduleId());
+        return new ProductLoadSimulation(p.id(), p.op(), p.moduleId(), to,
+                from == null ? BigDecimal.ZERO : Module.loadDaysFor(p.sam(), from.numPersons),
+                Module.loadDaysFor(p.sam(), personsAfter.get(to)));
+    }
+
+    // {numPersons, sam, products} of a module as the simulation leaves it, seeded from the snapshot
+    private long[] state(Map<Long, long[]> affected, Long moduleId) {
+        return affected.computeIfAbsent(moduleId, id -> {
+            ModuleState m = modules.get(id);
+            if (m == null) throw new IllegalArgumentException("Module not found: " + id);
+            return new long[]{m.numPersons, m.sam, m.products.size()};
+        });
+    }
+
+    private void ensureCurrent() {
+        String tag = versions.modulesTag();
+        if (loaded && tag.equals(modulesTag)) return;
+        lock.writeLock().lock();
+        try {
+            if (!tag.equals(modulesTag)) reloadModules(tag);
+            if (!loaded) {
+                for (ProductLoadRow r : productRepository.findLoadRows()) {
+                    place(new ProductState(r.id(), r.op(), r.moduleId(), r.samTotal() == null ? 0 : r.samTotal()));
+                }
+                loaded = true;
+            }
+            refreshBaseline();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void reloadModules(String tag) {
+        Set<Long> seen = new HashSet<>();
+        List<ModuleState> added = new ArrayList<>();
+        for (Module row : moduleRepository.findAll()) {
+            seen.add(row.getId());
+            ModuleState m = modules.get(row.getId());
+            if (m == null) {
+                m = new ModuleState(row.getId());
+                modules.put(m.id, m);
+                added.add(m);
+            }
+            m.name = row.getName();
+            m.numPersons = row.getNumPersons() == null ? 0 : row.getNumPersons();
+            m.loadDays = Module.loadDaysFor(m.sam, m.numPersons);
+        }
+        modules.keySet().retainAll(seen);
+        // products may have reached a module before its row did
+        if (loaded && !added.isEmpty()) {
+            for (ProductState p : products.values()) {
+                for (ModuleState m : added) {
+                    if (m.id.equals(p.moduleId())) add(m, p);
+                }
+            }
+        }
+        modulesTag = tag;
+    }
+
+    private void place(ProductState p) {
+        products.put(p.id(), p);
+        ModuleState m = p.moduleId() == null ? null : modules.get(p.moduleId());
+        if (m != null) add(m, p);
+    }
+
+    private void unplace(Long productId) {
+        ProductState p = products.remove(productId);
+        ModuleState m = p == null || p.moduleId() == null ? null : modules.get(p.moduleId());
+        if (m == null) return;
+        m.products.remove(p.id());
+        m.sam -= p.sam();
+        m.loadDays = Module.loadDaysFor(m.sam, m.numPersons);
+    }
+
+    private static void add(ModuleState m, ProductState p) {
+        m.products.add(p.id());
+        m.sam += p.sam();
+        m.loadDays = Module.loadDaysFor(m.sam, m.numPersons);
+    }
+
+    private void refreshBaseline() {
+        List<ModuleState> sorted = new ArrayList<>(modules.values());
+        sorted.sort(Comparator.comparing((ModuleState m) -> m.loadDays).reversed().thenComparing(m -> m.id));
+        BigDecimal total = BigDecimal.ZERO;
+        int persons = 0;
+        for (ModuleState m : sorted) {
+            total = total.add(m.loadDays);
+            persons += m.numPersons;
+        }
+        ranking = sorted;
+        totalLoadDays = total;
+        totalPersons = persons;
+    }
+}
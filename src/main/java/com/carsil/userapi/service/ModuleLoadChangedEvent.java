@@ -0,0 +1,11 @@
+package com.carsil.userapi.service;
+
+import java.math.BigDecimal;
+
+/**
+ * Published by {@link ModuleLoadService#flush()} after a recomputation has committed, for each
+ * module whose aggregate actually moved.
+ */
+public record ModuleLoadChangedEvent(Long moduleId, long samTotalSum, long samDelta,
+                                     BigDecimal totalLoadDays, BigDecimal loadDaysDelta) {
+}
@@ -0,0 +1,125 @@
+package com.carsil.userapi.service;
+
+import com.carsil.userapi.dto.ModuleLoadDrift;
+import com.carsil.userapi.dto.ModuleLoadSnapshot;
+import com.carsil.userapi.model.Module;
+import com.carsil.userapi.repository.ModuleRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Owns the module load aggregate. Product writes only mark their modules dirty; the ids are
+ * collected after commit, deduplicated, and recomputed together by {@link #flush()} with one
+ * set-based statement, so a burst of progress reports rewrites each module row once per window.
+ * Modules whose load moved are announced with a {@link ModuleLoadChangedEvent} after commit.
+ */
+@Service
+public class ModuleLoadService {
+
+    private static final Logger log = LoggerFactory.getLogger(ModuleLoadService.class);
+
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    private ModuleRepository moduleRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher events;
+
+    public void markDirty(Long... moduleIds) {
+        List<Long> ids = Arrays.stream(moduleIds).filter(Objects::nonNull).distinct().toList();
+        if (ids.isEmpty()) return;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dirty.addAll(ids);
+                }
+            });
+        } else {
+            dirty.addAll(ids);
+        }
+    }
+
+    int pending() {
+        return dirty.size();
+    }
+
+    @Scheduled(fixedDelayString = "${carsil.module-load.flush-interval-ms:500}")
+    public void flush() {
+        if (dirty.isEmpty()) return;
+        List<Long> ids = new ArrayList<>(dirty);
+        dirty.removeAll(ids);
+        List<ModuleLoadChangedEvent> changes;
+        try {
+            changes = transactionTemplate.execute(tx -> {
+                Map<Long, ModuleLoadSnapshot> before = snapshots(ids);
+                moduleRepository.recomputeSamTotals(ids);
+                return diff(before, snapshots(ids));
+            });
+        } catch (RuntimeException e) {
+            dirty.addAll(ids);
+            log.warn("Module load recomputation failed for {}; will retry", ids, e);
+            return;
+        }
+        if (changes != null) changes.forEach(events::publishEvent);
+        // the recomputation evicted these modules from the second-level cache; one query puts them
+        // back, instead of the cached module list fetching each of them on its next read
+        transactionTemplate.executeWithoutResult(tx -> moduleRepository.findAllById(ids));
+    }
+
+    private Map<Long, ModuleLoadSnapshot> snapshots(Collection<Long> ids) {
+        return moduleRepository.findLoadSnapshots(ids).stream()
+                .collect(Collectors.toMap(ModuleLoadSnapshot::moduleId, Function.identity()));
+    }
+
+    private static List<ModuleLoadChangedEvent> diff(Map<Long, ModuleLoadSnapshot> before,
+                                                     Map<Long, ModuleLoadSnapshot> after) {
+        List<ModuleLoadChangedEvent> changes = new ArrayList<>();
+        after.forEach((id, now) -> {
+            ModuleLoadSnapshot old = before.get(id);
+            long oldSam = old == null ? 0 : old.samTotalSum();
+            if (old != null && oldSam == now.samTotalSum()) return;
+            var oldDays = Module.loadDaysFor(oldSam, now.numPersons());
+            var newDays = Module.loadDaysFor(now.samTotalSum(), now.numPersons());
+            changes.add(new ModuleLoadChangedEvent(id, now.samTotalSum(), now.samTotalSum() - oldSam,
+                    newDays, newDays.subtract(oldDays)));
+        });
+        return changes;
+    }
+
+    @Transactional(readOnly = true)
+    public List<ModuleLoadDrift> check() {
+        return moduleRepository.findSamTotalDrift();
+    }
+
+    @Transactional
+    public int rebuild() {
+        return moduleRepository.rebuildSamTotals();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void rebuildOnStartup() {
+        int modules = moduleRepository.rebuildSamTotals();
+        log.info("Module load aggregate rebuilt for {} modules", modules);
+    }
+}
@@ -1,15 +1,18 @@
 package com.carsil.userapi.service;
 
+import com.carsil.userapi.dto.ProductView;
 import com.carsil.userapi.model.Module;
 import com.carsil.userapi.model.Product;
 import com.carsil.userapi.repository.ModuleRepository;
 import com.carsil.userapi.repository.ProductRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class ModuleService {
@@ -20,6 +23,16 @@ public class ModuleService {
     @Autowired
     private  ProductRepository productRepository;
 
+    @Autowired
+    private ModuleLoadService moduleLoadService;
+
+    @Autowired
+    private ApplicationEventPublisher events;
+
+    @Autowired
+    private ResourceVersions versions;
+
+    @Transactional(readOnly = true)
     public List<Module> getAll() {
         return moduleRepository.findAll();
     }
@@ -31,6 +44,7 @@ public class ModuleService {
                 .orElseThrow(() -> new IllegalArgumentException("Module not found: " + id)));
     }
 
+    @Transactional(readOnly = true)
     public List<Module> findByName(String name) {
         return moduleRepository.findByNameContainingIgnoreCase(name);
     }
@@ -38,7 +52,9 @@ public class ModuleService {
     @Transactional
     public Module create(Module m) {
         if (m.getNumPersons() == null) m.setNumPersons(0);
-        return moduleRepository.save(m);
+        Module saved = moduleRepository.save(m);
+        versions.moduleChanged(saved.getId());
+        return saved;
     }
 
     @Transactional
@@ -49,6 +65,7 @@ public class ModuleService {
             throw new IllegalArgumentException("numPersons must be >= 0");
         }
         m.setNumPersons(numPersons);
+        versions.moduleChanged(id);
         return moduleRepository.save(m);
     }
 
@@ -58,13 +75,14 @@ public class ModuleService {
             existing.setDescription(input.getDescription());
             existing.setName(input.getName());
             existing.setNumPersons(input.getNumPersons());
+            versions.moduleChanged(id);
             return moduleRepository.save(existing);
         });
     }
 
     @Transactional(readOnly = true)
-    public List<Product> getProducts(Long id) {
-        return productRepository.findByModuleId(id);
+    public List<ProductView> getProducts(Long id) {
+        return productRepository.findViewsByModuleId(id);
     }
 
     @Transactional
@@ -73,8 +91,11 @@ public class ModuleService {
                 .orElseThrow(() -> new IllegalArgumentException("Module not found: " + moduleId));
         Product p = productRepository.findById(productId)
                 .orElseThrow(() -> new IllegalArgumentException("Product not found: " + productId));
+        Long previousModuleId = p.getModule() == null ? null : p.getModule().getId();
         p.setModule(m);
         productRepository.save(p);
+        events.publishEvent(ProductChangedEvent.updated(p, Set.of("module"), previousModuleId));
+        moduleLoadService.markDirty(previousModuleId, moduleId);
         return m;
     }
 }
\ No newline at end of file
@@ -0,0 +1,111 @@
+package com.carsil.userapi.service;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Watches the JFR {@code jdk.VirtualThreadPinned} event while virtual threads are enabled. A virtual
+ * thread that blocks inside a {@code synchronized} block (common in JDBC drivers and connection
+ * pools) holds its carrier thread; each such event is counted against the first driver, pool or
+ * Hibernate frame on its stack so the offending path is visible without a profiler.
+ */
+@Component
+public class PinningMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(PinningMonitor.class);
+
+    private static final String EVENT = "jdk.VirtualThreadPinned";
+    private static final List<String> INTERESTING = List.of(
+            "com.mysql.", "org.h2.", "com.zaxxer.hikari.", "org.hibernate.", "com.carsil.");
+
+    private final Map<String, LongAdder> hotspots = new ConcurrentHashMap<>();
+    private final LongAdder pinned = new LongAdder();
+    private RecordingStream stream;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Value("${carsil.pinning.threshold:20ms}")
+    private Duration threshold;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!virtualThreads || stream != null) return;
+        try {
+            stream = new RecordingStream();
+            stream.enable(EVENT).withThreshold(threshold).withStackTrace();
+            stream.onEvent(EVENT, this::onPinned);
+            stream.startAsync();
+            log.info("Watching for virtual thread pinning longer than {} ms", threshold.toMillis());
+        } catch (RuntimeException e) {
+            // JFR can be unavailable (e.g. stripped runtimes); pinning simply goes unreported
+            log.warn("Virtual thread pinning monitor could not start", e);
+            stream = null;
+        }
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (stream != null) stream.close();
+        stream = null;
+    }
+
+    public long pinnedEvents() {
+        return pinned.sum();
+    }
+
+    /** Pinning counts per frame, highest first, limited to the ten worst. */
+    public Map<String, Long> hotspots() {
+        Map<String, Long> out = new LinkedHashMap<>();
+        hotspots.entrySet().stream()
+                .sorted((a, b) -> Long.compare(b.getValue().sum(), a.getValue().sum()))
+                .limit(10)
+                .forEach(e -> out.put(e.getKey(), e.getValue().sum()));
+        return out;
+    }
+
+    public void reset() {
+        pinned.reset();
+        hotspots.clear();
+    }
+
+    void onPinned(RecordedEvent event) {
+        pinned.increment();
+        String frame = frame(event);
+        LongAdder count = hotspots.computeIfAbsent(frame, f -> new LongAdder());
+        count.increment();
+        if (count.sum() == 1) {
+            log.warn("Virtual thread pinned for {} ms at {}", event.getDuration().toMillis(), frame);
+        }
+    }
+
+    private static String frame(RecordedEvent event) {
+        if (event.getStackTrace() == null) return "unknown";
+        List<RecordedFrame> frames = event.getStackTrace().getFrames();
+        for (RecordedFrame f : frames) {
+            if (!f.isJavaFrame()) continue;
+            String type = f.getMethod().getType().getName();
+            if (INTERESTING.stream().anyMatch(type::startsWith)) {
+                return type + "." + f.getMethod().getName() + ":" + f.getLineNumber();
+            }
+        }
+        if (frames.isEmpty()) return "unknown";
+        RecordedFrame top = frames.get(0);
+        return top.getMethod().getType().getName() + "." + top.getMethod().getName();
+    }
+}
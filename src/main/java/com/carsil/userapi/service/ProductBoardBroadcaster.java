@@ -0,0 +1,262 @@
+package com.carsil.userapi.service;
+
+import com.carsil.userapi.dto.ProductDelta;
+import com.carsil.userapi.model.Product;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pushes product and module-load deltas to production boards over Server-Sent Events.
+ * <p>
+ * Every event gets a sequential id and is kept in a bounded replay buffer, so a board that
+ * reconnects with {@code Last-Event-ID} receives what it missed; if that is no longer in the buffer
+ * it gets a {@code reset} event and should reload. Each client has a bounded queue drained by its
+ * own sender; a client whose queue fills up is disconnected rather than slowing anyone else down,
+ * and resumes from the buffer when it reconnects.
+ * <p>
+ * Product changes are sent once per commit: a transaction that changed one product sends a
+ * {@code product} delta, one that changed several (an import chunk, a schedule apply) sends a single
+ * {@code products} event carrying all of them, so bulk writes cost each board one event. A product
+ * that moved between modules reaches boards of both.
+ */
+@Component
+public class ProductBoardBroadcaster {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductBoardBroadcaster.class);
+
+    static final String PRODUCT = "product";
+    static final String PRODUCTS = "products";
+    static final String MODULE = "module";
+    static final String RESET = "reset";
+
+    // modules: the modules the event concerns; boards filtered on any other module skip it
+    record BoardEvent(long id, String name, Set<Long> modules, Object data) {
+    }
+
+    private static final BoardEvent HEARTBEAT = new BoardEvent(-1, null, Set.of(), null);
+
+    // key of the changes collected for the current transaction
+    private final Object pendingKey = new Object();
+
+    private final Deque<BoardEvent> replay = new ArrayDeque<>();
+    private final Map<SseEmitter, Client> clients = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Value("${carsil.board.replay-size:1000}")
+    private int replaySize;
+
+    @Value("${carsil.board.client-queue:256}")
+    private int clientQueue;
+
+    @Value("${carsil.board.timeout:30m}")
+    private Duration timeout;
+
+    /**
+     * Registers a board. {@code moduleId} restricts it to one module; {@code lastEventId} is the
+     * id of the last event it received before reconnecting.
+     */
+    public SseEmitter subscribe(Long moduleId, Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Client client = new Client(emitter, moduleId, new ArrayBlockingQueue<>(clientQueue));
+        emitter.onCompletion(() -> clients.remove(emitter));
+        emitter.onTimeout(() -> clients.remove(emitter));
+        emitter.onError(e -> clients.remove(emitter));
+
+        synchronized (replay) {
+            if (lastEventId != null) {
+                List<BoardEvent> missed = replay.stream().filter(e -> e.id() > lastEventId).toList();
+                long oldest = replay.isEmpty() ? sequence.get() + 1 : replay.peekFirst().id();
+                if (lastEventId > sequence.get() || lastEventId < oldest - 1) {
+                    client.offer(new BoardEvent(sequence.get(), RESET, Set.of(), Map.of("lastEventId", sequence.get())));
+                } else {
+                    missed.forEach(client::offer);
+                }
+            }
+            clients.put(emitter, client);
+        }
+        client.drain();
+        return emitter;
+    }
+
+    public int clients() {
+        return clients.size();
+    }
+
+    /** Collects the change until the transaction commits; outside a transaction it is sent right away. */
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publishProducts(List.of(event));
+            return;
+        }
+        PendingChanges pending = (PendingChanges) TransactionSynchronizationManager.getResource(pendingKey);
+        if (pending == null) {
+            pending = new PendingChanges();
+            TransactionSynchronizationManager.bindResource(pendingKey, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.events.add(event);
+    }
+
+    @EventListener
+    public void onModuleLoadChanged(ModuleLoadChangedEvent event) {
+        publish(MODULE, Set.of(event.moduleId()), event);
+    }
+
+    @Scheduled(fixedDelayString = "${carsil.board.heartbeat-ms:15000}")
+    public void heartbeat() {
+        clients.values().forEach(c -> {
+            c.offer(HEARTBEAT);
+            c.drain();
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        clients.keySet().forEach(SseEmitter::complete);
+        senders.shutdownNow();
+    }
+
+    private void publishProducts(List<ProductChangedEvent> events) {
+        // the last state of each product, as of the commit
+        Map<Long, ProductChangedEvent> byProduct = new LinkedHashMap<>();
+        for (ProductChangedEvent e : events) byProduct.merge(e.productId(), e, ProductChangedEvent::then);
+        List<ProductDelta> deltas = byProduct.values().stream().map(ProductBoardBroadcaster::delta).toList();
+        Set<Long> modules = new HashSet<>();
+        for (ProductDelta d : deltas) {
+            if (d.moduleId() != null) modules.add(d.moduleId());
+            if (d.previousModuleId() != null) modules.add(d.previousModuleId());
+        }
+        if (deltas.size() == 1) publish(PRODUCT, modules, deltas.get(0));
+        else publish(PRODUCTS, modules, deltas);
+    }
+
+    private static ProductDelta delta(ProductChangedEvent event) {
+        Product p = event.product();
+        Long moduleId = event.moduleId();
+        Long previousModuleId = event.moved() ? event.previousModuleId() : null;
+        return event.kind() == ProductChangedEvent.Kind.DELETED || p == null
+                ? new ProductDelta(event.productId(), p == null ? null : p.getOp(), moduleId, previousModuleId,
+                        event.kind().name(), event.changedFields(), null, null, null, null, null)
+                : new ProductDelta(p.getId(), p.getOp(), moduleId, previousModuleId, event.kind().name(),
+                        event.changedFields(), p.getQuantity(), p.getQuantityMade(), p.getMissing(),
+                        p.getSamTotal(), p.getStatus());
+    }
+
+    private void publish(String name, Set<Long> modules, Object data) {
+        List<Client> targets;
+        synchronized (replay) {
+            BoardEvent event = new BoardEvent(sequence.incrementAndGet(), name, modules, data);
+            replay.addLast(event);
+            while (replay.size() > replaySize) replay.removeFirst();
+            targets = clients.values().stream().filter(c -> c.offer(event)).toList();
+        }
+        targets.forEach(Client::drain);
+    }
+
+    private final class PendingChanges implements TransactionSynchronization {
+        final List<ProductChangedEvent> events = new ArrayList<>();
+
+        @Override
+        public void afterCommit() {
+            publishProducts(events);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(pendingKey);
+        }
+    }
+
+    private final class Client {
+
+        private final SseEmitter emitter;
+        private final Long moduleId;
+        private final BlockingQueue<BoardEvent> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+
+        Client(SseEmitter emitter, Long moduleId, BlockingQueue<BoardEvent> queue) {
+            this.emitter = emitter;
+            this.moduleId = moduleId;
+            this.queue = queue;
+        }
+
+        /** Queues the event if it passes the filter; returns whether a drain is needed. */
+        boolean offer(BoardEvent event) {
+            if (closed) return false;
+            boolean wanted = event == HEARTBEAT || event.name().equals(RESET)
+                    || moduleId == null || event.modules().contains(moduleId);
+            if (!wanted) return false;
+            if (!queue.offer(event)) {
+                // too slow to keep up: cut it loose, it will resume from the replay buffer
+                closed = true;
+                clients.remove(emitter);
+                log.debug("Dropping slow production board client after {} queued events", queue.size());
+                senders.execute(emitter::complete);
+                return false;
+            }
+            return true;
+        }
+
+        void drain() {
+            if (!draining.compareAndSet(false, true)) return;
+            senders.execute(() -> {
+                try {
+                    BoardEvent event;
+                    while (!closed && (event = queue.poll()) != null) send(event);
+                } catch (IOException | IllegalStateException e) {
+                    closed = true;
+                    clients.remove(emitter);
+                } finally {
+                    draining.set(false);
+                }
+                // an event may have been queued after the last poll but before draining was reset
+                if (!closed && !queue.isEmpty()) drain();
+            });
+        }
+
+        private void send(BoardEvent event) throws IOException {
+            if (event == HEARTBEAT) {
+                emitter.send(SseEmitter.event().comment("keep-alive"));
+            } else {
+                Object data = event.data();
+                if (moduleId != null && data instanceof List<?> deltas) {
+                    data = deltas.stream().filter(d -> ((ProductDelta) d).concerns(moduleId)).toList();
+                }
+                emitter.send(SseEmitter.event()
+                        .id(Long.toString(event.id()))
+                        .name(event.name())
+                        .data(data, MediaType.APPLICATION_JSON));
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.carsil.userapi.service;
+
+import com.carsil.userapi.model.Product;
+
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Published by the product write paths; listeners react after the transaction commits.
+ * {@code changedFields} is empty when the write path does not track individual fields.
+ * {@code previousModuleId} is the product's module before the write: null for a new product, the
+ * current module when the write did not move it.
+ */
+public record ProductChangedEvent(Long productId, Product product, Kind kind, Set<String> changedFields,
+                                  Long previousModuleId) {
+
+    public enum Kind { CREATED, UPDATED, DELETED }
+
+    public static ProductChangedEvent created(Product p) {
+        return new ProductChangedEvent(p.getId(), p, Kind.CREATED, Set.of(), null);
+    }
+
+    public static ProductChangedEvent updated(Product p) {
+        return updated(p, Set.of());
+    }
+
+    public static ProductChangedEvent updated(Product p, Set<String> changedFields) {
+        return updated(p, changedFields, moduleIdOf(p));
+    }
+
+    public static ProductChangedEvent updated(Product p, Set<String> changedFields, Long previousModuleId) {
+        return new ProductChangedEvent(p.getId(), p, Kind.UPDATED, Set.copyOf(changedFields), previousModuleId);
+    }
+
+    public static ProductChangedEvent deleted(Product p) {
+        return new ProductChangedEvent(p.getId(), p, Kind.DELETED, Set.of(), moduleIdOf(p));
+    }
+
+    public Long moduleId() {
+        return moduleIdOf(product);
+    }
+
+    public boolean moved() {
+        return kind == Kind.UPDATED && !Objects.equals(previousModuleId, moduleId());
+    }
+
+    /** This change followed by a later one to the same product in the same transaction. */
+    ProductChangedEvent then(ProductChangedEvent later) {
+        Kind merged = kind == Kind.CREATED && later.kind != Kind.DELETED ? Kind.CREATED : later.kind;
+        Set<String> fields;
+        if (changedFields.isEmpty() || later.changedFields.isEmpty()) {
+            fields = Set.of();
+        } else {
+            fields = new HashSet<>(changedFields);
+            fields.addAll(later.changedFields);
+        }
+        return new ProductChangedEvent(productId, later.product, merged, Set.copyOf(fields), previousModuleId);
+    }
+
+    private static Long moduleIdOf(Product p) {
+        return p == null || p.getModule() == null ? null : p.getModule().getId();
+    }
+}
@@ -0,0 +1,74 @@
+package com.carsil.userapi.service;
+
+import com.carsil.userapi.dto.ProductView;
+import com.carsil.userapi.model.enums.Size;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * Columns of the product export, in their default order. Headers are the names the CSV import
+ * reads, so an export limited to importable columns can be imported back.
+ */
+public enum ProductExportColumn {
+    ID("id", ProductView::id),
+    OP("op", ProductView::op),
+    REFERENCE("reference", ProductView::reference),
+    BRAND("brand", ProductView::brand),
+    CAMPAIGN("campaign", ProductView::campaign),
+    TYPE("type", ProductView::type),
+    DESCRIPTION("description", ProductView::description),
+    PRICE("price", ProductView::price),
+    QUANTITY("quantity", ProductView::quantity),
+    QUANTITY_MADE("quantityMade", ProductView::quantityMade),
+    MISSING("missing", ProductView::missing),
+    SAM("sam", ProductView::sam),
+    SAM_TOTAL("samTotal", ProductView::samTotal),
+    STATUS("status", ProductView::status),
+    STOPPAGE_REASON("stoppageReason", ProductView::stoppageReason),
+    ASSIGNED_DATE("assignedDate", ProductView::assignedDate),
+    PLANT_ENTRY_DATE("plantEntryDate", ProductView::plantEntryDate),
+    ACTUAL_DELIVERY_DATE("actualDeliveryDate", ProductView::actualDeliveryDate),
+    MODULE_ID("moduleId", v -> v.module() == null ? null : v.module().id()),
+    MODULE_NAME("moduleName", v -> v.module() == null ? null : v.module().name()),
+    TOTAL_PRICE("totalPrice", ProductView::totalPrice),
+    DELIVERY_PERCENTAGE("deliveryPercentage", ProductView::deliveryPercentage),
+    LOAD_DAYS("loadDays", ProductView::loadDays),
+    // one column per size, headed by its label
+    SIZES("sizes", null);
+
+    public record Field(String header, Function<ProductView, Object> value) {
+    }
+
+    private final String key;
+    private final Function<ProductView, Object> value;
+
+    ProductExportColumn(String key, Function<ProductView, Object> value) {
+        this.key = key;
+        this.value = value;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public List<Field> fields() {
+        if (this != SIZES) return List.of(new Field(key, value));
+        List<Field> sizes = new ArrayList<>();
+        for (Size size : Size.values()) {
+            String label = size.getLabel();
+            sizes.add(new Field(label, v -> v.sizeQuantities() == null ? null : v.sizeQuantities().get(label)));
+        }
+        return sizes;
+    }
+
+    public static ProductExportColumn fromKey(String key) {
+        String norm = key.strip().toLowerCase(Locale.ROOT);
+        for (ProductExportColumn c : values()) {
+            if (c.key.toLowerCase(Locale.ROOT).equals(norm)) return c;
+        }
+        throw new IllegalArgumentException("Unknown export column: " + key);
+    }
+}
@@ -0,0 +1,217 @@
+package com.carsil.userapi.service;
+
+import com.carsil.userapi.dto.ProductExportFilter;
+import com.carsil.userapi.dto.ProductView;
+import com.carsil.userapi.repository.ProductRepository;
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Writes products straight from a forward-only cursor to CSV or XLSX. Memory stays flat whatever
+ * the row count: rows are projections that never enter the persistence context, CSV is flushed to
+ * the response every {@value #CSV_FLUSH_ROWS} rows, and the XLSX workbook keeps only the last
+ * {@value #XLSX_ROW_WINDOW} rows in memory, spilling the rest to a compressed temp file.
+ */
+@Service
+public class ProductExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductExportService.class);
+
+    static final int CSV_FLUSH_ROWS = 500;
+    static final int XLSX_ROW_WINDOW = 100;
+
+    // rows per sheet including the header; longer exports continue on a new sheet
+    private static final int XLSX_SHEET_ROWS = SpreadsheetVersion.EXCEL2007.getMaxRows();
+
+    private static final String XLSX_SHEET = "Products";
+
+    public enum Format {
+        CSV("text/csv; charset=UTF-8", "csv"),
+        XLSX("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", "xlsx");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public static Format parse(String raw) {
+            if (raw == null || raw.isBlank()) return CSV;
+            for (Format f : values()) {
+                if (f.name().equalsIgnoreCase(raw.strip())) return f;
+            }
+            throw new IllegalArgumentException("Unsupported export format: " + raw);
+        }
+    }
+
+    /** A validated export request; building one reads nothing, so errors surface before streaming starts. */
+    public record Export(Format format, List<ProductExportColumn.Field> fields, ProductExportFilter filter) {
+
+        public String filename() {
+            return "products-" + LocalDate.now() + "." + format.extension;
+        }
+    }
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    public Export prepare(String format, List<String> columns, ProductExportFilter filter) {
+        ProductExportFilter f = filter == null ? ProductExportFilter.NONE : filter;
+        if (f.startDate() != null && f.endDate() != null && f.startDate().isAfter(f.endDate())) {
+            throw new IllegalArgumentException("startDate must not be after endDate");
+        }
+        Set<ProductExportColumn> selected = new LinkedHashSet<>();
+        if (columns == null || columns.stream().allMatch(String::isBlank)) {
+            selected.addAll(EnumSet.allOf(ProductExportColumn.class));
+        } else {
+            for (String c : columns) {
+                if (!c.isBlank()) selected.add(ProductExportColumn.fromKey(c));
+            }
+        }
+        List<ProductExportColumn.Field> fields = new ArrayList<>();
+        selected.forEach(c -> fields.addAll(c.fields()));
+        return new Export(Format.parse(format), List.copyOf(fields), f);
+    }
+
+    /** Streams the export to {@code out}, which is flushed but left open; returns the rows written. */
+    @Transactional(readOnly = true)
+    public long write(Export export, OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        long rows;
+        try (Stream<ProductView> products = productRepository.streamViews(export.filter())) {
+            rows = export.format() == Format.XLSX
+                    ? writeXlsx(products.iterator(), export.fields(), out)
+                    : writeCsv(products.iterator(), export.fields(), out);
+        }
+        log.debug("Exported {} products as {} in {} ms", rows, export.format(), (System.nanoTime() - start) / 1_000_000);
+        return rows;
+    }
+
+    private long writeCsv(Iterator<ProductView> products, List<ProductExportColumn.Field> fields,
+                          OutputStream out) throws IOException {
+        Writer w = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        // Excel only reads UTF-8 when the file starts with a BOM; the import skips it
+        w.write('\uFEFF');
+        for (int i = 0; i < fields.size(); i++) {
+            if (i > 0) w.write(',');
+            w.write(csvCell(fields.get(i).header()));
+        }
+        w.write("\r\n");
+
+        long rows = 0;
+        while (products.hasNext()) {
+            ProductView p = products.next();
+            for (int i = 0; i < fields.size(); i++) {
+                if (i > 0) w.write(',');
+                w.write(csvCell(fields.get(i).value().apply(p)));
+            }
+            w.write("\r\n");
+            if (++rows % CSV_FLUSH_ROWS == 0) w.flush();
+        }
+        w.flush();
+        return rows;
+    }
+
+    static String csvCell(Object value) {
+        if (value == null) return "";
+        String text;
+        if (value instanceof BigDecimal b) text = b.toPlainString();
+        else if (value instanceof Enum<?> e) text = e.name();
+        else if (value instanceof String s) text = defuseFormula(s);
+        else text = value.toString();
+
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+
+    // Free text starting like a formula would be evaluated by the spreadsheet that opens the file.
+    private static String defuseFormula(String s) {
+        if (s.isEmpty()) return s;
+        char c = s.charAt(0);
+        return (c == '=' || c == '+' || c == '-' || c == '@' || c == '\t' || c == '\r') ? "'" + s : s;
+    }
+
+    private long writeXlsx(Iterator<ProductView> products, List<ProductExportColumn.Field> fields,
+                           OutputStream out) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(XLSX_ROW_WINDOW);
+        try {
+            workbook.setCompressTempFiles(true);
+            CellStyle dates = workbook.createCellStyle();
+            dates.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("yyyy-mm-dd"));
+
+            Sheet sheet = newSheet(workbook, fields);
+            int r = 1;
+            long rows = 0;
+            while (products.hasNext()) {
+                if (r == XLSX_SHEET_ROWS) {
+                    sheet = newSheet(workbook, fields);
+                    r = 1;
+                }
+                ProductView p = products.next();
+                Row row = sheet.createRow(r++);
+                for (int i = 0; i < fields.size(); i++) {
+                    Object value = fields.get(i).value().apply(p);
+                    if (value != null) xlsxCell(row.createCell(i), value, dates);
+                }
+                rows++;
+            }
+            workbook.write(out);
+            out.flush();
+            return rows;
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    private static Sheet newSheet(SXSSFWorkbook workbook, List<ProductExportColumn.Field> fields) {
+        int n = workbook.getNumberOfSheets();
+        Sheet sheet = workbook.createSheet(n == 0 ? XLSX_SHEET : XLSX_SHEET + " " + (n + 1));
+        Row header = sheet.createRow(0);
+        for (int i = 0; i < fields.size(); i++) {
+            header.createCell(i).setCellValue(fields.get(i).header());
+        }
+        return sheet;
+    }
+
+    private static void xlsxCell(Cell cell, Object value, CellStyle dates) {
+        if (value instanceof Number n) {
+            cell.setCellValue(n.doubleValue());
+        } else if (value instanceof LocalDate d) {
+            cell.setCellValue(d);
+            cell.setCellStyle(dates);
+        } else if (value instanceof Enum<?> e) {
+            cell.setCellValue(e.name());
+        } else {
+            cell.setCellValue(value.toString());
+        }
+    }
+}
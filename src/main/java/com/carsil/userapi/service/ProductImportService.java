@@ -0,0 +1,454 @@
+package com.carsil.userapi.service;
+
+import com.carsil.userapi.dto.ImportReport;
+import com.carsil.userapi.model.Module;
+import com.carsil.userapi.model.Product;
+import com.carsil.userapi.model.SizeBreakdown;
+import com.carsil.userapi.model.enums.ProductionStatus;
+import com.carsil.userapi.model.enums.Size;
+import com.carsil.userapi.model.enums.StoppageReason;
+import com.carsil.userapi.repository.ModuleRepository;
+import com.carsil.userapi.repository.ProductRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.ss.util.NumberToTextConverter;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.stream.Collectors;
+import javax.xml.parsers.ParserConfigurationException;
+
+/**
+ * Bulk import of production orders from CSV or from the first sheet of an XLSX workbook. Rows are
+ * validated with the same rules as a single create, checked for duplicate ops once per chunk and
+ * inserted with JDBC batches, one transaction per chunk. Only the current chunk is held in memory;
+ * an op repeated in a later chunk is caught against the database as already existing.
+ */
+@Service
+public class ProductImportService {
+
+    static final int MAX_REPORTED_ERRORS = 500;
+
+    private static final String INSERT_PRODUCT = """
+            INSERT INTO carsil_product (op, reference, brand, campaign, type, description, price, quantity,
+                quantity_made, missing, sam, sam_total, assigned_date, plant_entry_date, actual_delivery_date,
+                status, descripcion_paro, module_id, size_units)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final List<String> REQUIRED = List.of(
+            "op", "reference", "brand", "campaign", "type", "price", "assigneddate");
+
+    private static final Set<String> KNOWN = Set.of(
+            "op", "reference", "brand", "campaign", "type", "price", "assigneddate", "quantity",
+            "quantitymade", "plantentrydate", "description", "sam", "status", "stoppagereason",
+            "moduleid", "actualdeliverydate");
+
+    private static final DateTimeFormatter SLASH_DATE = DateTimeFormatter.ofPattern("d/M/yyyy");
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ModuleRepository moduleRepository;
+
+    @Autowired
+    private ModuleLoadService moduleLoadService;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private ApplicationEventPublisher events;
+
+    @Value("${carsil.import.chunk-size:500}")
+    private int chunkSize;
+
+    public ImportReport importCsv(InputStream in) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        reader.mark(64 * 1024);
+        String headerLine = reader.readLine();
+        if (headerLine == null) throw new IllegalArgumentException("The file is empty");
+        reader.reset();
+        if (headerLine.startsWith("\uFEFF")) reader.skip(1);
+
+        try (CsvRecordReader csv = new CsvRecordReader(reader, CsvRecordReader.detectDelimiter(headerLine))) {
+            Run run = new Run(Columns.of(csv.next()));
+            List<String> record;
+            while ((record = csv.next()) != null) run.add(csv.recordLine(), record);
+            return run.finish();
+        }
+    }
+
+    /**
+     * Reads the first sheet with the streaming XSSF parser, so only the shared strings and the
+     * current chunk are held in memory. The upload is spooled to a temporary file because the zip
+     * directory sits at its end. Date cells are read as ISO dates and numbers as plain values,
+     * whatever the cell's display format.
+     */
+    public ImportReport importXlsx(InputStream in) throws IOException {
+        Path file = Files.createTempFile("carsil-import", ".xlsx");
+        try {
+            Files.copy(in, file, StandardCopyOption.REPLACE_EXISTING);
+            try (OPCPackage pkg = OPCPackage.open(file.toFile(), PackageAccess.READ)) {
+                XSSFReader workbook = new XSSFReader(pkg);
+                Iterator<InputStream> sheets = workbook.getSheetsData();
+                if (!sheets.hasNext()) throw new IllegalArgumentException("The file is empty");
+                SheetRows rows = new SheetRows();
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new XSSFSheetXMLHandler(workbook.getStylesTable(),
+                        new ReadOnlySharedStringsTable(pkg), rows, new RawValueFormatter(), false));
+                try (InputStream sheet = sheets.next()) {
+                    parser.parse(new InputSource(sheet));
+                }
+                return rows.finish();
+            }
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IllegalArgumentException("Invalid XLSX file: " + e.getMessage());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private Row parse(long line, List<String> record, Columns columns, Run run) {
+        String op = columns.text(record, "op");
+        try {
+            Product p = new Product();
+            p.setOp(op);
+            p.setReference(columns.text(record, "reference"));
+            p.setBrand(columns.text(record, "brand"));
+            p.setCampaign(columns.text(record, "campaign"));
+            p.setType(columns.text(record, "type"));
+            p.setDescription(columns.text(record, "description"));
+            p.setActualDeliveryDate(columns.text(record, "actualdeliverydate"));
+            p.setPrice(decimal(columns.text(record, "price")));
+            p.setAssignedDate(date(columns.text(record, "assigneddate")));
+            p.setPlantEntryDate(date(columns.text(record, "plantentrydate")));
+
+            String quantity = columns.text(record, "quantity");
+            p.setQuantity(quantity == null ? 0 : Integer.valueOf(quantity));
+            String made = columns.text(record, "quantitymade");
+            p.setQuantityMade(made == null ? 0 : Integer.valueOf(made));
+            String sam = columns.text(record, "sam");
+            if (sam != null) p.setSam(decimal(sam).doubleValue());
+
+            String status = columns.text(record, "status");
+            p.setStatus(status == null ? ProductionStatus.PROCESO : status(status));
+            String stoppage = columns.text(record, "stoppagereason");
+            if (stoppage != null) p.setStoppageReason(StoppageReason.fromJson(stoppage));
+
+            String moduleId = columns.text(record, "moduleid");
+            if (moduleId != null) {
+                Module m = new Module();
+                m.setId(Long.valueOf(moduleId));
+                p.setModule(m);
+            }
+
+            int[] units = new int[Size.values().length];
+            for (Map.Entry<Size, Integer> e : columns.sizes.entrySet()) {
+                String cell = Columns.cell(record, e.getValue());
+                if (cell != null) units[e.getKey().ordinal()] = Math.max(0, Integer.parseInt(cell));
+            }
+            p.setSizes(SizeBreakdown.of(units));
+
+            p.applyCreateRules();
+            Set<ConstraintViolation<Product>> violations = validator.validate(p);
+            if (!violations.isEmpty()) {
+                run.error(line, op, violations.stream()
+                        .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining("; ")));
+                return null;
+            }
+            ProductService.recalcDerived(p);
+
+            if (!run.chunkOps.add(op)) {
+                run.error(line, op, "op is repeated in the file");
+                return null;
+            }
+            return new Row(line, p);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            run.error(line, op, e.getMessage());
+            return null;
+        }
+    }
+
+    private void flush(List<Row> chunk, Run run) {
+        Set<String> existingOps = new HashSet<>(productRepository.findExistingOps(
+                chunk.stream().map(r -> r.product.getOp()).toList()));
+
+        Set<Long> unknownModules = chunk.stream()
+                .map(r -> r.product.getModule())
+                .filter(Objects::nonNull)
+                .map(Module::getId)
+                .filter(id -> !run.knownModules.contains(id))
+                .collect(Collectors.toSet());
+        if (!unknownModules.isEmpty()) {
+            moduleRepository.findAllById(unknownModules).forEach(m -> run.knownModules.add(m.getId()));
+        }
+
+        List<Row> valid = new ArrayList<>(chunk.size());
+        for (Row r : chunk) {
+            Product p = r.product;
+            if (existingOps.contains(p.getOp())) {
+                run.error(r.line, p.getOp(), "op already exists: " + p.getOp());
+            } else if (p.getModule() != null && !run.knownModules.contains(p.getModule().getId())) {
+                run.error(r.line, p.getOp(), "Module not found: " + p.getModule().getId());
+            } else {
+                valid.add(r);
+            }
+        }
+        if (valid.isEmpty()) return;
+
+        try {
+            transactionTemplate.executeWithoutResult(tx -> persist(valid));
+            run.imported += valid.size();
+        } catch (DataAccessException e) {
+            String cause = e.getMostSpecificCause().getMessage();
+            valid.forEach(r -> run.error(r.line, r.product.getOp(), "Chunk rejected by the database: " + cause));
+        }
+    }
+
+    // On MySQL, rewriteBatchedStatements=true turns each batch into a single multi-row insert.
+    private void persist(List<Row> rows) {
+        jdbcTemplate.getJdbcTemplate().batchUpdate(INSERT_PRODUCT, rows, rows.size(), (ps, row) -> {
+            Product p = row.product;
+            ps.setString(1, p.getOp());
+            ps.setString(2, p.getReference());
+            ps.setString(3, p.getBrand());
+            ps.setString(4, p.getCampaign());
+            ps.setString(5, p.getType());
+            setNullable(ps, 6, p.getDescription(), Types.VARCHAR);
+            ps.setBigDecimal(7, p.getPrice());
+            ps.setInt(8, p.getQuantity());
+            ps.setInt(9, p.getQuantityMade());
+            setNullable(ps, 10, p.getMissing(), Types.INTEGER);
+            setNullable(ps, 11, p.getSam(), Types.DOUBLE);
+            setNullable(ps, 12, p.getSamTotal(), Types.INTEGER);
+            ps.setObject(13, p.getAssignedDate());
+            setNullable(ps, 14, p.getPlantEntryDate(), Types.DATE);
+            setNullable(ps, 15, p.getActualDeliveryDate(), Types.VARCHAR);
+            ps.setString(16, p.getStatus().name());
+            setNullable(ps, 17, p.getStoppageReason() == null ? null : p.getStoppageReason().name(), Types.VARCHAR);
+            setNullable(ps, 18, p.getModule() == null ? null : p.getModule().getId(), Types.BIGINT);
+            ps.setBytes(19, p.getSizes().pack());
+        });
+
+        Map<String, Product> byOp = new HashMap<>(rows.size() * 2);
+        rows.forEach(r -> byOp.put(r.product.getOp(), r.product));
+        jdbcTemplate.query("SELECT id, op FROM carsil_product WHERE op IN (:ops)",
+                Map.of("ops", byOp.keySet()),
+                rs -> {
+                    byOp.get(rs.getString("op")).setId(rs.getLong("id"));
+                });
+
+        Set<Long> modules = new HashSet<>();
+        for (Row r : rows) {
+            if (r.product.getModule() != null) modules.add(r.product.getModule().getId());
+        }
+        moduleLoadService.markDirty(modules.toArray(Long[]::new));
+
+        rows.forEach(r -> events.publishEvent(ProductChangedEvent.created(r.product)));
+    }
+
+    private static void setNullable(PreparedStatement ps, int index, Object value, int sqlType) throws SQLException {
+        if (value == null) ps.setNull(index, sqlType);
+        else ps.setObject(index, value, sqlType);
+    }
+
+    private static BigDecimal decimal(String raw) {
+        if (raw == null) return null;
+        // "12,5" from spreadsheets using a decimal comma
+        String normalized = raw.indexOf('.') < 0 ? raw.replace(',', '.') : raw;
+        try {
+            return new BigDecimal(normalized);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number: " + raw);
+        }
+    }
+
+    private static LocalDate date(String raw) {
+        if (raw == null) return null;
+        return raw.indexOf('/') >= 0 ? LocalDate.parse(raw, SLASH_DATE) : LocalDate.parse(raw);
+    }
+
+    private static ProductionStatus status(String raw) {
+        for (ProductionStatus s : ProductionStatus.values()) {
+            if (s.name().equalsIgnoreCase(raw) || s.getLabel().equalsIgnoreCase(raw)) return s;
+        }
+        throw new IllegalArgumentException("Invalid status: " + raw);
+    }
+
+    private record Row(long line, Product product) {
+    }
+
+    private static final class Columns {
+        private final Map<String, Integer> fields = new HashMap<>();
+        private final Map<Size, Integer> sizes = new EnumMap<>(Size.class);
+
+        static Columns of(List<String> header) {
+            if (header == null) throw new IllegalArgumentException("The file has no header row");
+            Columns c = new Columns();
+            for (int i = 0; i < header.size(); i++) {
+                String name = header.get(i).trim();
+                if (name.isEmpty()) continue;
+                Size size = Size.fromLabel(name);
+                if (size != null) {
+                    c.sizes.put(size, i);
+                } else if (KNOWN.contains(name.toLowerCase(Locale.ROOT))) {
+                    c.fields.put(name.toLowerCase(Locale.ROOT), i);
+                } else {
+                    throw new IllegalArgumentException("Unknown column: " + name);
+                }
+            }
+            List<String> missing = REQUIRED.stream().filter(r -> !c.fields.containsKey(r)).toList();
+            if (!missing.isEmpty()) throw new IllegalArgumentException("Missing columns: " + missing);
+            return c;
+        }
+
+        String text(List<String> record, String field) {
+            Integer index = fields.get(field);
+            return index == null ? null : cell(record, index);
+        }
+
+        static String cell(List<String> record, int index) {
+            if (index >= record.size()) return null;
+            String value = record.get(index).trim();
+            return value.isEmpty() ? null : value;
+        }
+    }
+
+    // Rows of the sheet as CSV-like records: the first non-blank row is the header, skipped cells are blank.
+    private final class SheetRows implements XSSFSheetXMLHandler.SheetContentsHandler {
+        private final List<String> cells = new ArrayList<>();
+        private Run run;
+
+        @Override
+        public void startRow(int rowNum) {
+            cells.clear();
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            int column = cellReference == null ? cells.size() : new CellReference(cellReference).getCol();
+            while (cells.size() < column) cells.add("");
+            cells.add(formattedValue == null ? "" : formattedValue);
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (cells.stream().allMatch(String::isBlank)) return;
+            if (run == null) run = new Run(Columns.of(List.copyOf(cells)));
+            else run.add(rowNum + 1, List.copyOf(cells));
+        }
+
+        ImportReport finish() {
+            if (run == null) throw new IllegalArgumentException("The file has no header row");
+            return run.finish();
+        }
+    }
+
+    private static final class RawValueFormatter extends DataFormatter {
+
+        RawValueFormatter() {
+            super(Locale.ROOT);
+        }
+
+        @Override
+        public String formatRawCellContents(double value, int formatIndex, String formatString, boolean use1904Windowing) {
+            if (DateUtil.isADateFormat(formatIndex, formatString) && DateUtil.isValidExcelDate(value)) {
+                return DateUtil.getLocalDateTime(value, use1904Windowing).toLocalDate().toString();
+            }
+            return NumberToTextConverter.toText(value);
+        }
+    }
+
+    private final class Run {
+        private final Columns columns;
+        private final List<Row> chunk = new ArrayList<>(chunkSize);
+        private final Set<String> chunkOps = new HashSet<>();
+        private final Set<Long> knownModules = new HashSet<>();
+        private final List<ImportReport.RowError> errors = new ArrayList<>();
+        private long rowsRead;
+        private long imported;
+        private long failed;
+
+        Run(Columns columns) {
+            this.columns = columns;
+        }
+
+        void add(long line, List<String> record) {
+            rowsRead++;
+            Row row = parse(line, record, columns, this);
+            if (row != null) chunk.add(row);
+            if (chunk.size() >= chunkSize) flushChunk();
+        }
+
+        ImportReport finish() {
+            if (!chunk.isEmpty()) flushChunk();
+            return report();
+        }
+
+        private void flushChunk() {
+            flush(chunk, this);
+            chunk.clear();
+            chunkOps.clear();
+        }
+
+        void error(long line, String op, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) errors.add(new ImportReport.RowError(line, op, message));
+        }
+
+        ImportReport report() {
+            return ImportReport.builder()
+                    .rowsRead(rowsRead)
+                    .imported(imported)
+                    .failed(failed)
+                    .errors(errors)
+                    .errorsTruncated(failed > errors.size())
+                    .build();
+        }
+    }
+}
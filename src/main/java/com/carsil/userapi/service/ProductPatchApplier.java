@@ -0,0 +1,168 @@
+package com.carsil.userapi.service;
+
+import com.carsil.userapi.model.Product;
+import com.carsil.userapi.model.enums.ProductionStatus;
+import com.carsil.userapi.model.enums.StoppageReason;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Applies a PATCH body to a {@link Product} through a fixed table of typed setters, built once, so
+ * a request costs a map lookup and a cheap coercion per key instead of a Jackson round trip. Unknown
+ * keys are rejected before anything is modified. {@code moduleId}/{@code module} are not handled
+ * here because resolving them needs the repository.
+ */
+@Component
+public class ProductPatchApplier {
+
+    /** Keys a client may send back from a GET but that are never written. */
+    static final Set<String> READ_ONLY = Set.of(
+            "id", "missing", "samTotal", "totalPrice", "cycleCalculated",
+            "quantityPending", "deliveryPercentage", "loadDays");
+
+    private interface Coercion<T> {
+        T coerce(String field, Object raw);
+    }
+
+    private record Field<T>(Coercion<T> coercion, Function<Product, T> getter, BiConsumer<Product, T> setter) {
+
+        T coerce(String name, Object raw) {
+            return raw == null ? null : coercion.coerce(name, raw);
+        }
+
+        @SuppressWarnings("unchecked")
+        boolean write(Product p, Object value) {
+            if (Objects.equals(getter.apply(p), value)) return false;
+            setter.accept(p, (T) value);
+            return true;
+        }
+    }
+
+    private static final Map<String, Field<?>> FIELDS = Map.ofEntries(
+            Map.entry("price", new Field<>(ProductPatchApplier::toDecimal, Product::getPrice, Product::setPrice)),
+            Map.entry("quantity", new Field<>(ProductPatchApplier::toInteger, Product::getQuantity, Product::setQuantity)),
+            Map.entry("quantityMade", new Field<>(ProductPatchApplier::toInteger, Product::getQuantityMade, Product::setQuantityMade)),
+            Map.entry("sam", new Field<>(ProductPatchApplier::toDouble, Product::getSam, Product::setSam)),
+            Map.entry("assignedDate", new Field<>(ProductPatchApplier::toDate, Product::getAssignedDate, Product::setAssignedDate)),
+            Map.entry("plantEntryDate", new Field<>(ProductPatchApplier::toDate, Product::getPlantEntryDate, Product::setPlantEntryDate)),
+            Map.entry("reference", new Field<>(ProductPatchApplier::toText, Product::getReference, Product::setReference)),
+            Map.entry("brand", new Field<>(ProductPatchApplier::toText, Product::getBrand, Product::setBrand)),
+            Map.entry("op", new Field<>(ProductPatchApplier::toText, Product::getOp, Product::setOp)),
+            Map.entry("campaign", new Field<>(ProductPatchApplier::toText, Product::getCampaign, Product::setCampaign)),
+            Map.entry("type", new Field<>(ProductPatchApplier::toText, Product::getType, Product::setType)),
+            Map.entry("description", new Field<>(ProductPatchApplier::toText, Product::getDescription, Product::setDescription)),
+            Map.entry("actualDeliveryDate", new Field<>(ProductPatchApplier::toText, Product::getActualDeliveryDate, Product::setActualDeliveryDate)),
+            Map.entry("status", new Field<>(ProductPatchApplier::toStatus, Product::getStatus, Product::setStatus)),
+            Map.entry("stoppageReason", new Field<>(ProductPatchApplier::toStoppageReason, Product::getStoppageReason, Product::setStoppageReason)),
+            Map.entry("sizeQuantities", new Field<>(ProductPatchApplier::toSizes, Product::getSizeQuantities, Product::setSizeQuantities))
+    );
+
+    /**
+     * Writes every writable key of {@code updates} into {@code product}, skipping read-only keys
+     * and the given {@code handledElsewhere} keys, and returns the names of the fields whose value
+     * actually changed.
+     */
+    public Set<String> apply(Product product, Map<String, Object> updates, Set<String> handledElsewhere) {
+        List<String> unknown = new ArrayList<>();
+        for (String key : updates.keySet()) {
+            if (!FIELDS.containsKey(key) && !READ_ONLY.contains(key) && !handledElsewhere.contains(key)) {
+                unknown.add(key);
+            }
+        }
+        if (!unknown.isEmpty()) {
+            Collections.sort(unknown);
+            throw new IllegalArgumentException("Unknown field(s) in PATCH payload: " + String.join(", ", unknown));
+        }
+
+        // coerce everything first so a bad value leaves the product untouched
+        String[] names = new String[updates.size()];
+        Object[] values = new Object[updates.size()];
+        int n = 0;
+        for (Map.Entry<String, Object> e : updates.entrySet()) {
+            Field<?> field = FIELDS.get(e.getKey());
+            if (field == null) continue;
+            names[n] = e.getKey();
+            values[n++] = field.coerce(e.getKey(), e.getValue());
+        }
+
+        Set<String> changed = new LinkedHashSet<>();
+        for (int i = 0; i < n; i++) {
+            if (FIELDS.get(names[i]).write(product, values[i])) changed.add(names[i]);
+        }
+        return changed;
+    }
+
+    private static String toText(String field, Object raw) {
+        if (raw instanceof String s) return s;
+        if (raw instanceof Number || raw instanceof Boolean) return raw.toString();
+        throw invalid(field, raw);
+    }
+
+    private static Integer toInteger(String field, Object raw) {
+        try {
+            if (raw instanceof Integer i) return i;
+            BigDecimal value = raw instanceof Number n ? new BigDecimal(n.toString()) : new BigDecimal(toText(field, raw).trim());
+            return value.intValueExact();
+        } catch (NumberFormatException | ArithmeticException e) {
+            throw invalid(field, raw);
+        }
+    }
+
+    private static Double toDouble(String field, Object raw) {
+        if (raw instanceof Number n) return n.doubleValue();
+        try {
+            return Double.valueOf(toText(field, raw).trim());
+        } catch (NumberFormatException e) {
+            throw invalid(field, raw);
+        }
+    }
+
+    private static BigDecimal toDecimal(String field, Object raw) {
+        try {
+            if (raw instanceof BigDecimal d) return d;
+            return new BigDecimal(raw instanceof Number n ? n.toString() : toText(field, raw).trim());
+        } catch (NumberFormatException e) {
+            throw invalid(field, raw);
+        }
+    }
+
+    private static LocalDate toDate(String field, Object raw) {
+        try {
+            return LocalDate.parse(toText(field, raw).trim());
+        } catch (DateTimeParseException e) {
+            throw invalid(field, raw);
+        }
+    }
+
+    private static ProductionStatus toStatus(String field, Object raw) {
+        String value = toText(field, raw).trim();
+        for (ProductionStatus s : ProductionStatus.values()) {
+            if (s.name().equalsIgnoreCase(value) || s.getLabel().equalsIgnoreCase(value)) return s;
+        }
+        throw invalid(field, raw);
+    }
+
+    private static StoppageReason toStoppageReason(String field, Object raw) {
+        return StoppageReason.fromJson(toText(field, raw));
+    }
+
+    private static Map<String, Integer> toSizes(String field, Object raw) {
+        if (!(raw instanceof Map<?, ?> map)) throw invalid(field, raw);
+        Map<String, Integer> sizes = new HashMap<>();
+        for (Map.Entry<?, ?> e : map.entrySet()) {
+            String size = String.valueOf(e.getKey());
+            sizes.put(size, e.getValue() == null ? null : toInteger(field + "." + size, e.getValue()));
+        }
+        return sizes;
+    }
+
+    private static IllegalArgumentException invalid(String field, Object raw) {
+        return new IllegalArgumentException("Invalid value for " + field + ": " + raw);
+    }
+}
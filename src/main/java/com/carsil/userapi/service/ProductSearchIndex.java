@@ -0,0 +1,249 @@
+package com.carsil.userapi.service;
+
+import com.carsil.userapi.dto.ProductSearchRow;
+import com.carsil.userapi.model.Product;
+import com.carsil.userapi.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Trigram inverted index over op, reference, campaign and brand. A query of three or more
+ * characters intersects the posting lists of its trigrams and verifies the candidates; shorter
+ * queries scan the indexed values, which are kept in memory anyway.
+ */
+@Component
+public class ProductSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    static final int GRAM = 3;
+
+    private static final int OP = 0;
+
+    private final Map<Long, String[]> docs = new HashMap<>();
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // ids written while a rebuild is running; the rebuild must not overwrite them with older rows
+    private Set<Long> touchedDuringRebuild;
+    private volatile boolean ready;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Value("${carsil.search.index.enabled:true}")
+    private boolean enabled;
+
+    @Value("${carsil.search.index.rebuild-chunk-size:5000}")
+    private int chunkSize;
+
+    @Value("${carsil.search.index.rebuild-threads:4}")
+    private int rebuildThreads;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (!enabled) return;
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            // search keeps using the SQL fallback until a rebuild succeeds
+            log.error("Product search index rebuild failed", e);
+        }
+    }
+
+    public void rebuild() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            touchedDuringRebuild = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long maxId = productRepository.findMaxId();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, rebuildThreads));
+        try {
+            List<Future<List<ProductSearchRow>>> chunks = new ArrayList<>();
+            for (long from = 1; from <= maxId; from += chunkSize) {
+                long lo = from;
+                long hi = Math.min(maxId, from + chunkSize - 1);
+                chunks.add(pool.submit(() -> productRepository.findSearchRows(lo, hi)));
+            }
+            for (Future<List<ProductSearchRow>> chunk : chunks) {
+                List<ProductSearchRow> rows = chunk.get();
+                lock.writeLock().lock();
+                try {
+                    for (ProductSearchRow r : rows) {
+                        if (touchedDuringRebuild.contains(r.getId())) continue;
+                        index(r.getId(), r.getOp(), r.getReference(), r.getCampaign(), r.getBrand());
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Search index rebuild interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Search index rebuild failed", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+
+        lock.writeLock().lock();
+        try {
+            touchedDuringRebuild = null;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Product search index rebuilt: {} products in {} ms",
+                size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @TransactionalEventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.kind() == ProductChangedEvent.Kind.DELETED) {
+            remove(event.productId());
+        } else {
+            put(event.product());
+        }
+    }
+
+    public void put(Product p) {
+        if (p == null || p.getId() == null) return;
+        lock.writeLock().lock();
+        try {
+            if (touchedDuringRebuild != null) touchedDuringRebuild.add(p.getId());
+            index(p.getId(), p.getOp(), p.getReference(), p.getCampaign(), p.getBrand());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        if (id == null) return;
+        lock.writeLock().lock();
+        try {
+            if (touchedDuringRebuild != null) touchedDuringRebuild.add(id);
+            unindex(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of the products whose op, reference, campaign or brand contain the query, ignoring case.
+     * Exact op matches come first, then op prefixes, then any other match; ties are ordered by id.
+     */
+    public List<Long> search(String query) {
+        String q = normalize(query);
+        if (q.isEmpty()) return List.of();
+
+        lock.readLock().lock();
+        try {
+            Collection<Long> candidates = q.length() < GRAM ? docs.keySet() : candidates(q);
+            List<long[]> hits = new ArrayList<>();
+            for (Long id : candidates) {
+                int rank = rank(docs.get(id), q);
+                if (rank >= 0) hits.add(new long[]{rank, id});
+            }
+            hits.sort(Comparator.<long[]>comparingLong(h -> h[0]).thenComparingLong(h -> h[1]));
+            List<Long> ids = new ArrayList<>(hits.size());
+            for (long[] h : hits) ids.add(h[1]);
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Collection<Long> candidates(String q) {
+        List<Set<Long>> lists = new ArrayList<>();
+        for (String g : grams(q)) {
+            Set<Long> posting = postings.get(g);
+            if (posting == null) return List.of();
+            lists.add(posting);
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+        Set<Long> result = new HashSet<>(lists.get(0));
+        for (int i = 1; i < lists.size() && !result.isEmpty(); i++) {
+            result.retainAll(lists.get(i));
+        }
+        return result;
+    }
+
+    private static int rank(String[] fields, String q) {
+        if (fields == null) return -1;
+        String op = fields[OP];
+        if (op.equals(q)) return 0;
+        if (op.startsWith(q)) return 1;
+        if (op.contains(q)) return 2;
+        for (int i = 1; i < fields.length; i++) {
+            if (fields[i].contains(q)) return 3;
+        }
+        return -1;
+    }
+
+    private void index(Long id, String... values) {
+        unindex(id);
+        String[] fields = new String[values.length];
+        for (int i = 0; i < values.length; i++) {
+            fields[i] = normalize(values[i]);
+            for (String g : grams(fields[i])) {
+                postings.computeIfAbsent(g, k -> new HashSet<>()).add(id);
+            }
+        }
+        docs.put(id, fields);
+    }
+
+    private void unindex(Long id) {
+        String[] previous = docs.remove(id);
+        if (previous == null) return;
+        for (String field : previous) {
+            for (String g : grams(field)) {
+                Set<Long> posting = postings.get(g);
+                if (posting != null && posting.remove(id) && posting.isEmpty()) postings.remove(g);
+            }
+        }
+    }
+
+    private static Set<String> grams(String value) {
+        if (value.length() < GRAM) return Set.of();
+        Set<String> out = new HashSet<>();
+        for (int i = 0; i + GRAM <= value.length(); i++) {
+            out.add(value.substring(i, i + GRAM));
+        }
+        return out;
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+}
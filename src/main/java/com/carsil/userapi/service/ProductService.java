@@ -1,19 +1,29 @@
 package com.carsil.userapi.service;
 
+import com.carsil.userapi.dto.KpiDimension;
+import com.carsil.userapi.dto.KpiFilter;
+import com.carsil.userapi.dto.PatchResult;
+import com.carsil.userapi.dto.ProductKpi;
+import com.carsil.userapi.dto.ProductSlice;
+import com.carsil.userapi.dto.ProductView;
 import com.carsil.userapi.model.Module;
 import com.carsil.userapi.model.Product;
 import com.carsil.userapi.model.enums.ProductionStatus;
 import com.carsil.userapi.repository.ModuleRepository;
 import com.carsil.userapi.repository.ProductRepository;
-import com.fasterxml.jackson.databind.JsonMappingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.persistence.OptimisticLockException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class ProductService {
@@ -25,24 +35,122 @@ public class ProductService {
     private ModuleRepository moduleRepository;
 
     @Autowired
-    private ObjectMapper objectMapper;
+    private ProductPatchApplier patchApplier;
 
+    @Autowired
+    private ModuleLoadService moduleLoadService;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private ProgressLog progressLog;
+
+    @Autowired
+    private ApplicationEventPublisher events;
+
+    static final int MAX_PAGE_SIZE = 500;
+
+    private static final String SORT_ID = "id";
+    private static final String SORT_ASSIGNED_DATE = "assignedDate";
+    private static final char CURSOR_SEPARATOR = '_';
+
+    // Reads return ProductView projections with the module joined in. Statements per call, whatever
+    // the number of rows: getAll, getPage, getProductsByModule, getProductsByDateRange and streamAll
+    // issue one; search one, or one per SEARCH_FETCH_CHUNK ids when the index answers; getById and
+    // getProductsByOp go through the entity caches and issue at most two (product, module) when cold.
+
+    @Transactional(readOnly = true)
+    public List<ProductView> getAll() {
+        return productRepository.findAllViews();
+    }
+
+    /**
+     * Keyset page over (id) or (assignedDate, id). The cursor is the key of the last row of the
+     * previous page: "42" when sorting by id, "2024-05-01_42" when sorting by assignedDate.
+     */
     @Transactional(readOnly = true)
-    public List<Product> getAll() {
-        return productRepository.findAll();
+    public ProductSlice getPage(String sort, String after, int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE)
+            throw new IllegalArgumentException("size must be between 1 and " + MAX_PAGE_SIZE);
+        PageRequest limit = PageRequest.ofSize(size);
+        String by = (sort == null || sort.isBlank()) ? SORT_ID : sort;
+        boolean first = (after == null || after.isBlank());
+
+        Slice<ProductView> slice;
+        switch (by) {
+            case SORT_ID -> slice = productRepository.findViewsAfterId(first ? 0L : parseId(after), limit);
+            case SORT_ASSIGNED_DATE -> {
+                if (first) {
+                    slice = productRepository.findViewsOrderByAssignedDate(limit);
+                } else {
+                    int sep = after.lastIndexOf(CURSOR_SEPARATOR);
+                    if (sep < 0) throw new IllegalArgumentException("Invalid cursor: " + after);
+                    LocalDate date;
+                    try {
+                        date = LocalDate.parse(after.substring(0, sep));
+                    } catch (DateTimeParseException e) {
+                        throw new IllegalArgumentException("Invalid cursor: " + after);
+                    }
+                    slice = productRepository.findViewsAfterAssignedDate(date, parseId(after.substring(sep + 1)), limit);
+                }
+            }
+            default -> throw new IllegalArgumentException("Unsupported sort: " + sort);
+        }
+
+        List<ProductView> content = slice.getContent();
+        String next = null;
+        if (slice.hasNext() && !content.isEmpty()) {
+            ProductView last = content.get(content.size() - 1);
+            next = SORT_ID.equals(by)
+                    ? String.valueOf(last.id())
+                    : last.assignedDate() + String.valueOf(CURSOR_SEPARATOR) + last.id();
+        }
+        return ProductSlice.builder()
+                .content(content)
+                .size(content.size())
+                .hasNext(slice.hasNext())
+                .nextCursor(next)
+                .build();
+    }
+
+    /**
+     * Hands every product to the sink in id order while the cursor is open. Rows are projections,
+     * so nothing accumulates in the persistence context as the table is read.
+     */
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<ProductView> sink) {
+        try (Stream<ProductView> products = productRepository.streamViewsOrderById()) {
+            products.forEach(sink);
+        }
     }
 
-    private static final Set<String> IMMUTABLE_FIELDS = Set.of(
-            "id"
-    );
+    private Long parseId(String raw) {
+        try {
+            return Long.valueOf(raw);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + raw);
+        }
+    }
 
     private static final String MODULE_ID_KEY = "moduleId";
+    private static final String MODULE_KEY = "module";
+    private static final Set<String> MODULE_KEYS = Set.of(MODULE_ID_KEY, MODULE_KEY);
+
+    // fields recalcDerived reads; patches touching none of them skip the recalculation
+    private static final Set<String> DERIVED_INPUTS = Set.of("quantity", "quantityMade", "sam", MODULE_KEY);
+
+    private static final Set<String> PROGRESS_FIELDS = Set.of("quantityMade", "missing", "samTotal");
+
+    private static final int SEARCH_FETCH_CHUNK = 1000;
 
     @Transactional
     public void delete(Long id) {
         Product p = productRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Product does not exist: " + id));
+        moduleLoadService.markDirty(moduleIdOf(p));
         productRepository.delete(p);
+        events.publishEvent(ProductChangedEvent.deleted(p));
     }
 
     @Transactional
@@ -51,19 +159,23 @@ public class ProductService {
         if (p.getQuantityMade() == null) p.setQuantityMade(0);
         if (p.getQuantity() == null)
             throw new IllegalArgumentException("quantity is required");
-        if(p.getModule() != null){
-            var m = moduleRepository.findById(p.getModule().getId()).get();
-            m.setLoadDays(p.getLoadDays());
-            moduleRepository.save(m);
+        if (p.getModule() != null) {
+            Long moduleId = p.getModule().getId();
+            p.setModule(moduleRepository.findById(moduleId)
+                    .orElseThrow(() -> new IllegalArgumentException("Module not found: " + moduleId)));
         }
-         recalcDerived(p);
-        return productRepository.save(p);
+        recalcDerived(p);
+        Product saved = productRepository.save(p);
+        moduleLoadService.markDirty(moduleIdOf(saved));
+        events.publishEvent(ProductChangedEvent.created(saved));
+        return saved;
     }
 
     @Transactional
     public Product update(Product patch,Long id) {
         Product existing = productRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Product not found: " + id));
+        Long oldModuleId = moduleIdOf(existing);
 
         if (patch.getPrice() != null) existing.setPrice(patch.getPrice());
         if (patch.getQuantity() != null) existing.setQuantity(patch.getQuantity());
@@ -84,14 +196,19 @@ public class ProductService {
                 && productRepository.existsByOpAndIdNot(patch.getOp(), id)) {
             throw new org.springframework.dao.DuplicateKeyException("op already exists: " + patch.getOp());
         }
+        int madeDelta = 0;
         if (patch.getQuantityMade() != null) {
-            int delta = patch.getQuantityMade() - existing.getQuantityMade();
-            existing.addMade(delta);
+            madeDelta = patch.getQuantityMade() - existing.getQuantityMade();
+            existing.addMade(madeDelta);
         }
 
         recalcDerived(existing);
+        moduleLoadService.markDirty(oldModuleId, moduleIdOf(existing));
         try {
-            return productRepository.save(existing);
+            Product saved = productRepository.save(existing);
+            progressLog.record(saved, madeDelta);
+            events.publishEvent(ProductChangedEvent.updated(saved, Set.of(), oldModuleId));
+            return saved;
         } catch (OptimisticLockException e) {
             throw new IllegalStateException("Concurrent update detected for product " + id, e);
         }
@@ -99,28 +216,56 @@ public class ProductService {
 
 
     @Transactional(readOnly = true)
-    public List<Product> search(String q) {
-        return productRepository.search(Optional.ofNullable(q).orElse("").trim());
+    public List<ProductView> search(String q) {
+        String query = Optional.ofNullable(q).orElse("").trim();
+        if (query.isEmpty() || !productSearchIndex.isReady()) {
+            return productRepository.searchViews(query);
+        }
+        List<Long> ids = productSearchIndex.search(query);
+        Map<Long, ProductView> byId = new HashMap<>(ids.size());
+        for (int from = 0; from < ids.size(); from += SEARCH_FETCH_CHUNK) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + SEARCH_FETCH_CHUNK));
+            productRepository.findViewsByIdIn(chunk).forEach(p -> byId.put(p.id(), p));
+        }
+        List<ProductView> ranked = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            ProductView p = byId.get(id);
+            if (p != null) ranked.add(p);
+        }
+        return ranked;
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<ProductView> getById(Long id) {
+        return productRepository.findById(id).map(ProductView::of);
     }
 
     @Transactional(readOnly = true)
-    public Optional<Product> getById(Long id) {
-        return productRepository.findById(id);
+    public List<ProductView> getProductsByModule(Long moduleId) {
+        return productRepository.findViewsByModuleId(moduleId);
     }
 
     @Transactional(readOnly = true)
-    public List<Product> getProductsByModule(Long moduleId) {
-        return productRepository.findByModuleId(moduleId);
+    public List<ProductView> getProductsByOp(String op) {
+        return productRepository.findByNaturalOp(op).map(p -> List.of(ProductView.of(p))).orElse(List.of());
     }
 
     @Transactional(readOnly = true)
-    public List<Product> getProductsByOp(String op) {
-        return productRepository.findByOp(op);
+    public List<ProductView> getProductsByDateRange(LocalDate startDate, LocalDate endDate) {
+        return productRepository.findViewsByPlantEntryDateBetween(startDate, endDate);
     }
 
     @Transactional(readOnly = true)
-    public List<Product> getProductsByDateRange(LocalDate startDate, LocalDate endDate) {
-        return productRepository.findByPlantEntryDateBetween(startDate, endDate);
+    public List<ProductKpi> kpis(String by, KpiFilter filter) {
+        checkRange(filter.assignedFrom(), filter.assignedTo(), "assigned");
+        checkRange(filter.plantEntryFrom(), filter.plantEntryTo(), "plantEntry");
+        return productRepository.aggregate(by == null || by.isBlank() ? null : KpiDimension.parse(by), filter);
+    }
+
+    private static void checkRange(LocalDate from, LocalDate to, String name) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException(name + "From must not be after " + name + "To");
+        }
     }
 
     @Transactional
@@ -130,10 +275,14 @@ public class ProductService {
         int delta = newValue - (p.getQuantityMade() == null ? 0 : p.getQuantityMade());
         p.addMade(delta);
         recalcDerived(p);
-        return productRepository.save(p);
+        moduleLoadService.markDirty(moduleIdOf(p));
+        Product saved = productRepository.save(p);
+        progressLog.record(saved, delta);
+        events.publishEvent(ProductChangedEvent.updated(saved, PROGRESS_FIELDS));
+        return saved;
     }
 
-    private void recalcDerived(Product p) {
+    static void recalcDerived(Product p) {
         // missing = quantity - quantityMade
         if (p.getQuantity() != null) {
             int made = (p.getQuantityMade() == null ? 0 : p.getQuantityMade());
@@ -145,63 +294,83 @@ public class ProductService {
         }
         // status default si faltó
         if (p.getStatus() == null) p.setStatus(ProductionStatus.PROCESO);
-        if(p.getModule() != null){
-            Module m = moduleRepository.findById(p.getModule().getId()).get();
-            m.setLoadDays(p.getLoadDays());
-            moduleRepository.save(m);
-        }
     }
 
+    private Long moduleIdOf(Product p) {
+        return p.getModule() == null ? null : p.getModule().getId();
+    }
+
+    /**
+     * Applies the delta with a single conditional UPDATE, so concurrent terminals reporting on the
+     * same OP cannot lose each other's increments. The product is only read afterwards.
+     */
     @Transactional
     public Product incrementMade(Long id, int delta) {
+        if (productRepository.applyMadeDelta(id, delta) == 0) {
+            Product p = productRepository.findById(id)
+                    .orElseThrow(() -> new IllegalArgumentException("Product not found: " + id));
+            int base = (p.getQuantityMade() == null ? 0 : p.getQuantityMade());
+            if (base + delta < 0) throw new IllegalArgumentException("quantityMade cannot be negative");
+            throw new IllegalArgumentException("quantityMade cannot exceed total quantity");
+        }
         Product p = productRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Product not found: " + id));
-
-        if (delta != 0) {
-            p.addMade(delta);
-        }
-
-        recalcDerived(p);
-        return productRepository.save(p);
+        moduleLoadService.markDirty(moduleIdOf(p));
+        progressLog.record(p, delta);
+        events.publishEvent(ProductChangedEvent.updated(p, PROGRESS_FIELDS));
+        return p;
     }
 
     @Transactional
-    public Product partialUpdate(Long id, Map<String, Object> updates) {
+    public PatchResult partialUpdate(Long id, Map<String, Object> updates) {
         Product existing = productRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Product not found: " + id));
 
         if (updates == null || updates.isEmpty()) {
-            return existing;
+            return new PatchResult(existing, Set.of());
         }
-
-        Map<String, Object> sanitized = new HashMap<>(updates);
-        IMMUTABLE_FIELDS.forEach(sanitized::remove);
-
-        if (sanitized.containsKey(MODULE_ID_KEY)) {
-            Object raw = sanitized.remove(MODULE_ID_KEY);
-            if (raw != null) {
-                Long moduleId = toLong(raw);
-                Module module = moduleRepository.findById(moduleId)
-                        .orElseThrow(() -> new IllegalArgumentException("Module not found: " + moduleId));
-                existing.setModule(module);
-            } else {
-                existing.setModule(null);
+        Long oldModuleId = moduleIdOf(existing);
+        int madeBefore = existing.getQuantityMade() == null ? 0 : existing.getQuantityMade();
+
+        Set<String> changed = new LinkedHashSet<>(patchApplier.apply(existing, updates, MODULE_KEYS));
+        if (updates.containsKey(MODULE_ID_KEY) || updates.containsKey(MODULE_KEY)) {
+            Long moduleId = updates.containsKey(MODULE_ID_KEY)
+                    ? toLong(updates.get(MODULE_ID_KEY))
+                    : moduleIdOfPatch(updates.get(MODULE_KEY));
+            if (!Objects.equals(moduleId, oldModuleId)) {
+                existing.setModule(moduleId == null ? null : moduleRepository.findById(moduleId)
+                        .orElseThrow(() -> new IllegalArgumentException("Module not found: " + moduleId)));
+                changed.add(MODULE_KEY);
             }
         }
-        try {
-            objectMapper.updateValue(existing, sanitized);
-        } catch (IllegalArgumentException | JsonMappingException e) {
-            throw new RuntimeException("Invalid PATCH payload: " + e.getMessage(), e);
+        if (changed.isEmpty()) {
+            return new PatchResult(existing, Set.of());
         }
 
-        recalcDerived(existing);
+        if (!Collections.disjoint(changed, DERIVED_INPUTS)) {
+            recalcDerived(existing);
+            moduleLoadService.markDirty(oldModuleId, moduleIdOf(existing));
+        }
 
-        return productRepository.save(existing);
+        Product saved = productRepository.save(existing);
+        if (changed.contains("quantityMade")) progressLog.record(saved, saved.getQuantityMade() - madeBefore);
+        events.publishEvent(ProductChangedEvent.updated(saved, changed, oldModuleId));
+        return new PatchResult(saved, changed);
+    }
+
+    private Long moduleIdOfPatch(Object raw) {
+        if (raw == null) return null;
+        if (raw instanceof Map<?, ?> module) return toLong(module.get("id"));
+        return toLong(raw);
     }
 
     private Long toLong(Object raw) {
         if (raw == null) return null;
         if (raw instanceof Number n) return n.longValue();
-        return Long.valueOf(String.valueOf(raw));
+        try {
+            return Long.valueOf(String.valueOf(raw).trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid module id: " + raw);
+        }
     }
 }
\ No newline at end of file
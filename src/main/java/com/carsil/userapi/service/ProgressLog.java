@@ -0,0 +1,294 @@
+package com.carsil.userapi.service;
+
+import com.carsil.userapi.dto.ThroughputPoint;
+import com.carsil.userapi.model.Product;
+import com.carsil.userapi.model.ProgressEvent;
+import com.carsil.userapi.model.enums.RollupGranularity;
+import com.carsil.userapi.model.enums.RollupScope;
+import com.carsil.userapi.repository.ProgressEventRepository;
+import com.carsil.userapi.repository.ProgressRollupRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Append-only log of quantityMade changes. Writers only queue the change after their transaction
+ * commits; {@link #flush()} inserts the queued events with one JDBC batch and folds them into the
+ * hourly and daily rollups per module and per OP in the same transaction, so each bucket row is
+ * updated once per flush however many reports it received.
+ * <p>
+ * Changes still queued when the process dies are lost from the log (the product row itself is
+ * already committed); the queue is flushed on shutdown. The queue is bounded: while the database
+ * is unreachable flushes back off and new changes are dropped once it fills. A batch the database
+ * rejects is split until the offending change is alone; that change is retried on the following
+ * flushes and then dropped, so one bad row neither takes its batch down nor stalls the log.
+ */
+@Service
+public class ProgressLog {
+
+    private static final Logger log = LoggerFactory.getLogger(ProgressLog.class);
+
+    private static final String INSERT_EVENT =
+            "INSERT INTO carsil_progress_event (product_id, module_id, delta, occurred_at) VALUES (?, ?, ?, ?)";
+
+    private static final String ADD_TO_ROLLUP = """
+            UPDATE carsil_progress_rollup SET units = units + ?, changes = changes + ?
+            WHERE scope = ? AND scope_key = ? AND granularity = ? AND bucket_start = ?
+            """;
+
+    private static final String INSERT_ROLLUP = """
+            INSERT INTO carsil_progress_rollup (scope, scope_key, granularity, bucket_start, units, changes)
+            VALUES (?, ?, ?, ?, ?, ?)
+            """;
+
+    record Change(Long productId, Long moduleId, String op, int delta, Instant at) {
+    }
+
+    private record Bucket(RollupScope scope, String key, RollupGranularity granularity, LocalDateTime start) {
+    }
+
+    private static final class Totals {
+        long units;
+        int changes;
+    }
+
+    private BlockingQueue<Change> queue = new LinkedBlockingQueue<>(100_000);
+
+    // batches that failed, written before anything else on the next flush
+    private final Deque<List<Change>> retry = new ArrayDeque<>();
+    // failed flushes of the single change at the head of retry
+    private int attempts;
+    private Duration backoff = Duration.ZERO;
+    private Instant resumeAt;
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder overflowed = new LongAdder();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ProgressEventRepository eventRepository;
+
+    @Autowired
+    private ProgressRollupRepository rollupRepository;
+
+    @Value("${carsil.progress.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${carsil.progress.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${carsil.progress.max-backoff-ms:60000}")
+    private long maxBackoffMs;
+
+    private ZoneId zone = ZoneId.systemDefault();
+
+    private Clock clock = Clock.systemUTC();
+
+    @Value("${carsil.progress.zone:}")
+    void setZone(String zone) {
+        this.zone = zone == null || zone.isBlank() ? ZoneId.systemDefault() : ZoneId.of(zone);
+    }
+
+    @Value("${carsil.progress.queue-capacity:100000}")
+    void setQueueCapacity(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("carsil.progress.queue-capacity must be positive");
+        this.queue = new LinkedBlockingQueue<>(capacity);
+    }
+
+    void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    /** Queues the change once the current transaction commits; nothing is written on the caller's thread. */
+    public void record(Product p, int delta) {
+        if (delta == 0 || p == null || p.getId() == null) return;
+        Change change = new Change(p.getId(), p.getModule() == null ? null : p.getModule().getId(),
+                p.getOp(), delta, clock.instant());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(change);
+                }
+            });
+        } else {
+            enqueue(change);
+        }
+    }
+
+    private void enqueue(Change change) {
+        if (queue.offer(change)) return;
+        dropped.increment();
+        overflowed.increment();
+    }
+
+    int pending() {
+        return queue.size() + retry.stream().mapToInt(List::size).sum();
+    }
+
+    /** Changes never written to the log, because the queue was full or their batch kept failing. */
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${carsil.progress.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        long full = overflowed.sumThenReset();
+        if (full > 0) log.warn("Progress queue full; dropped {} changes since the last flush", full);
+        if (resumeAt != null && clock.instant().isBefore(resumeAt)) return;
+        while (!retry.isEmpty() || !queue.isEmpty()) {
+            List<Change> batch = retry.poll();
+            if (batch == null) {
+                batch = new ArrayList<>(Math.min(batchSize, queue.size()));
+                queue.drainTo(batch, batchSize);
+            }
+            try {
+                List<Change> writing = batch;
+                transactionTemplate.executeWithoutResult(tx -> write(writing));
+                attempts = 0;
+                backoff = Duration.ZERO;
+                resumeAt = null;
+            } catch (RuntimeException e) {
+                retry.addFirst(batch);
+                if (isOutage(e)) {
+                    backoff = backoff.isZero() ? Duration.ofSeconds(1)
+                            : Duration.ofMillis(Math.min(backoff.toMillis() * 2, maxBackoffMs));
+                    resumeAt = clock.instant().plus(backoff);
+                    log.warn("Database unavailable; holding {} progress events for {} ms", pending(), backoff.toMillis(), e);
+                    return;
+                }
+                if (batch.size() > 1) {
+                    retry.removeFirst();
+                    int half = batch.size() / 2;
+                    retry.addFirst(new ArrayList<>(batch.subList(half, batch.size())));
+                    retry.addFirst(new ArrayList<>(batch.subList(0, half)));
+                    continue;
+                }
+                if (++attempts < maxAttempts) {
+                    log.warn("Writing progress event {} failed (attempt {} of {}); will retry",
+                            batch.get(0), attempts, maxAttempts, e);
+                    return;
+                }
+                retry.removeFirst();
+                attempts = 0;
+                dropped.increment();
+                log.error("Writing progress event {} failed {} times; dropping it", batch.get(0), maxAttempts, e);
+            }
+        }
+    }
+
+    // the database or the connection to it is down, as opposed to rejecting what was sent
+    private static boolean isOutage(RuntimeException e) {
+        return e instanceof TransientDataAccessException
+                || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException
+                || e instanceof CannotCreateTransactionException;
+    }
+
+    private void write(List<Change> batch) {
+        jdbcTemplate.batchUpdate(INSERT_EVENT, batch, batch.size(), (ps, c) -> {
+            ps.setLong(1, c.productId());
+            ps.setObject(2, c.moduleId());
+            ps.setInt(3, c.delta());
+            ps.setTimestamp(4, Timestamp.from(c.at()));
+        });
+
+        Map<Bucket, Totals> rollups = new LinkedHashMap<>();
+        for (Change c : batch) {
+            LocalDateTime local = LocalDateTime.ofInstant(c.at(), zone);
+            for (RollupGranularity g : RollupGranularity.values()) {
+                LocalDateTime start = g.bucketOf(local);
+                if (c.moduleId() != null) add(rollups, new Bucket(RollupScope.MODULE, c.moduleId().toString(), g, start), c);
+                if (c.op() != null) add(rollups, new Bucket(RollupScope.OP, c.op(), g, start), c);
+            }
+        }
+
+        List<Map.Entry<Bucket, Totals>> entries = new ArrayList<>(rollups.entrySet());
+        int[][] updated = jdbcTemplate.batchUpdate(ADD_TO_ROLLUP, entries, entries.size(), (ps, e) -> {
+            ps.setLong(1, e.getValue().units);
+            ps.setInt(2, e.getValue().changes);
+            ps.setString(3, e.getKey().scope().name());
+            ps.setString(4, e.getKey().key());
+            ps.setString(5, e.getKey().granularity().name());
+            ps.setTimestamp(6, Timestamp.valueOf(e.getKey().start()));
+        });
+        List<Map.Entry<Bucket, Totals>> missing = new ArrayList<>();
+        for (int i = 0; i < entries.size(); i++) {
+            int count = updated[0][i];
+            // drivers that rewrite batches (MySQL with rewriteBatchedStatements) report no per-row counts
+            if (count == Statement.SUCCESS_NO_INFO) count = addOne(entries.get(i));
+            if (count == 0) missing.add(entries.get(i));
+        }
+        if (missing.isEmpty()) return;
+        jdbcTemplate.batchUpdate(INSERT_ROLLUP, missing, missing.size(), (ps, e) -> {
+            ps.setString(1, e.getKey().scope().name());
+            ps.setString(2, e.getKey().key());
+            ps.setString(3, e.getKey().granularity().name());
+            ps.setTimestamp(4, Timestamp.valueOf(e.getKey().start()));
+            ps.setLong(5, e.getValue().units);
+            ps.setInt(6, e.getValue().changes);
+        });
+    }
+
+    private int addOne(Map.Entry<Bucket, Totals> e) {
+        Bucket b = e.getKey();
+        return jdbcTemplate.update(ADD_TO_ROLLUP, e.getValue().units, e.getValue().changes,
+                b.scope().name(), b.key(), b.granularity().name(), Timestamp.valueOf(b.start()));
+    }
+
+    private static void add(Map<Bucket, Totals> rollups, Bucket bucket, Change c) {
+        Totals t = rollups.computeIfAbsent(bucket, k -> new Totals());
+        t.units += c.delta();
+        t.changes++;
+    }
+
+    /** Units per bucket between two dates (inclusive), in the plant's time zone. Empty buckets are omitted. */
+    @Transactional(readOnly = true)
+    public List<ThroughputPoint> throughput(RollupScope scope, String key, RollupGranularity granularity,
+                                            LocalDate from, LocalDate to) {
+        if (key == null || key.isBlank()) throw new IllegalArgumentException("A module or OP is required");
+        if (from.isAfter(to)) throw new IllegalArgumentException("from must not be after to");
+        return rollupRepository.findSeries(scope, key, granularity, from.atStartOfDay(), to.plusDays(1).atStartOfDay())
+                .stream()
+                .map(r -> new ThroughputPoint(r.getBucketStart(), r.getUnits(), r.getChanges()))
+                .toList();
+    }
+
+    @Transactional(readOnly = true)
+    public List<ProgressEvent> recent(Long productId, int limit) {
+        if (limit < 1 || limit > 1000) throw new IllegalArgumentException("limit must be between 1 and 1000");
+        return eventRepository.findByProductIdOrderByOccurredAtDescIdDesc(productId, PageRequest.ofSize(limit));
+    }
+}
@@ -0,0 +1,123 @@
+package com.carsil.userapi.service;
+
+import com.carsil.userapi.dto.RuntimeStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.CountAtBucket;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Throughput and latency of /api requests since the last reset. Run the same load once with
+ * virtual threads and once without, resetting in between, to compare the two execution modes.
+ * Latency comes from the {@code http.server.requests} histogram buckets of every /api route, as
+ * published for Prometheus, merged and taken relative to the counts seen at the last reset.
+ */
+@Component
+public class RequestStats {
+
+    static final String TIMER = "http.server.requests";
+
+    private final LongAdder rejected = new LongAdder();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile Histogram base = new Histogram(0, new TreeMap<>());
+    private volatile long since = System.nanoTime();
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Autowired
+    private PinningMonitor pinningMonitor;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    public void started() {
+        inFlight.incrementAndGet();
+    }
+
+    public void finished() {
+        inFlight.decrementAndGet();
+    }
+
+    public void rejected() {
+        rejected.increment();
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    public long rejectedCount() {
+        return rejected.sum();
+    }
+
+    public RuntimeStats snapshot(int permits, int available) {
+        Histogram h = current().minus(base);
+        double seconds = Math.max(1e-9, (System.nanoTime() - since) / 1e9);
+        return new RuntimeStats(
+                virtualThreads ? "virtual" : "platform",
+                h.count(),
+                rejected.sum(),
+                Math.round(h.count() / seconds * 10) / 10.0,
+                h.percentileMs(50),
+                h.percentileMs(99),
+                h.percentileMs(100),
+                inFlight.get(),
+                permits,
+                available,
+                pinningMonitor.pinnedEvents(),
+                pinningMonitor.hotspots());
+    }
+
+    public void reset() {
+        base = current();
+        rejected.reset();
+        pinningMonitor.reset();
+        since = System.nanoTime();
+    }
+
+    private Histogram current() {
+        long count = 0;
+        NavigableMap<Double, Double> buckets = new TreeMap<>();
+        for (Timer timer : registry.find(TIMER).timers()) {
+            String uri = timer.getId().getTag("uri");
+            if (uri == null || !uri.startsWith("/api")) continue;
+            HistogramSnapshot snapshot = timer.takeSnapshot();
+            count += snapshot.count();
+            for (CountAtBucket b : snapshot.histogramCounts()) {
+                buckets.merge(b.bucket(TimeUnit.MILLISECONDS), b.count(), Double::sum);
+            }
+        }
+        return new Histogram(count, buckets);
+    }
+
+    // cumulative counts at each bucket's upper bound, in ms; every route shares the same boundaries
+    record Histogram(long count, NavigableMap<Double, Double> buckets) {
+
+        Histogram minus(Histogram earlier) {
+            NavigableMap<Double, Double> delta = new TreeMap<>();
+            buckets.forEach((bound, n) -> delta.put(bound, Math.max(0, n - earlier.buckets.getOrDefault(bound, 0.0))));
+            return new Histogram(Math.max(0, count - earlier.count), delta);
+        }
+
+        /** Upper bound, in ms, of the bucket holding the given percentile (0-100). */
+        double percentileMs(double percentile) {
+            if (count == 0) return 0;
+            double rank = Math.max(1, Math.ceil(count * percentile / 100.0));
+            for (Map.Entry<Double, Double> b : buckets.entrySet()) {
+                if (b.getValue() >= rank) return b.getKey();
+            }
+            return buckets.isEmpty() ? 0 : buckets.lastKey();
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.carsil.userapi.service;
+
+import com.carsil.userapi.dto.ConditionalStats;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import org.springframework.web.accept.ContentNegotiationManager;
+import org.springframework.web.context.request.NativeWebRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory version counters behind the ETags of the product and module endpoints. Every write
+ * bumps a counter after it commits, so a tag is compared without touching the database or
+ * serializing anything. The epoch changes on every start, which invalidates tags handed out by a
+ * previous process.
+ * <p>
+ * A product's JSON embeds its module, so a product tag also carries the version of that module.
+ * The module of a product not written since startup is learned the first time it is served; until
+ * then the tag falls back to the version of all modules.
+ */
+@Component
+public class ResourceVersions {
+
+    private record ProductStamp(long version, Long moduleId) {
+    }
+
+    private final String epoch = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+    private final AtomicLong products = new AtomicLong();
+    private final AtomicLong modules = new AtomicLong();
+    private final Map<Long, ProductStamp> productStamps = new ConcurrentHashMap<>();
+    private final Map<Long, Long> moduleStamps = new ConcurrentHashMap<>();
+    // raised when every module changes at once, so a rebuild needs no per-id entries
+    private volatile long moduleFloor;
+
+    private final LongAdder conditional = new LongAdder();
+    private final LongAdder notModified = new LongAdder();
+
+    @Autowired
+    private ContentNegotiationManager contentNegotiationManager;
+
+    @Autowired
+    private HttpMessageConverters messageConverters;
+
+    @TransactionalEventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        var p = event.product();
+        Long moduleId = p == null || p.getModule() == null ? null : p.getModule().getId();
+        productStamps.put(event.productId(), new ProductStamp(products.incrementAndGet(), moduleId));
+    }
+
+    @EventListener
+    public void onModuleLoadChanged(ModuleLoadChangedEvent event) {
+        bumpModule(event.moduleId());
+    }
+
+    /** For module writes; applied after commit when called inside a transaction. */
+    public void moduleChanged(Long moduleId) {
+        if (moduleId == null) return;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bumpModule(moduleId);
+                }
+            });
+        } else {
+            bumpModule(moduleId);
+        }
+    }
+
+    public void allModulesChanged() {
+        moduleFloor = modules.incrementAndGet();
+    }
+
+    /** Records the module of a product just read, unless a write already did. */
+    public void learnModule(Long productId, Long moduleId) {
+        productStamps.putIfAbsent(productId, new ProductStamp(0, moduleId));
+    }
+
+    public String productsTag() {
+        return tag("p", products.get(), modules.get());
+    }
+
+    public String productTag(Long id) {
+        ProductStamp stamp = productStamps.get(id);
+        if (stamp == null) return tag("p" + id, 0, modules.get());
+        return tag("p" + id, stamp.version(), stamp.moduleId() == null ? 0 : moduleVersion(stamp.moduleId()));
+    }
+
+    public String modulesTag() {
+        return tag("m", modules.get(), 0);
+    }
+
+    public String moduleTag(Long id) {
+        return tag("m" + id, moduleVersion(id), 0);
+    }
+
+    /**
+     * Answers the request with 304 if its {@code If-None-Match} matches the tag; otherwise sets the
+     * tag on the response so the caller can go on and render it. The response type is negotiated
+     * here, the way Spring MVC would, and preset on the response so the body is written in exactly
+     * that type; each non-JSON type gets its own tag, so a cache that ignores {@code Vary} still
+     * never mixes formats.
+     */
+    public boolean notModified(NativeWebRequest request, String etag) {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) conditional.increment();
+        MediaType type = negotiate(request);
+        HttpServletResponse response = request.getNativeResponse(HttpServletResponse.class);
+        if (response != null) {
+            // revalidate every time; without this the security defaults add no-store and clients never send the tag back
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+            if (type != null) response.setContentType(type.toString());
+        }
+        if (!request.checkNotModified(representation(type, etag))) return false;
+        notModified.increment();
+        return true;
+    }
+
+    public ConditionalStats stats() {
+        long requests = conditional.sum();
+        long hits = notModified.sum();
+        return new ConditionalStats(requests, hits, requests == 0 ? 0 : (double) hits / requests);
+    }
+
+    private static String representation(MediaType type, String etag) {
+        if (type == null || MediaType.APPLICATION_JSON.isCompatibleWith(type) || type.getSubtype().endsWith("+json"))
+            return etag;
+        return etag.substring(0, etag.length() - 1) + "-" + type.getSubtype() + "\"";
+    }
+
+    // the first concrete type compatible with both the request and a Jackson converter, most specific
+    // and highest quality first, as AbstractMessageConverterMethodProcessor picks it; null when none is
+    private MediaType negotiate(NativeWebRequest request) {
+        List<MediaType> requested;
+        try {
+            requested = contentNegotiationManager.resolveMediaTypes(request);
+        } catch (HttpMediaTypeNotAcceptableException e) {
+            return null;
+        }
+        List<MediaType> compatible = new ArrayList<>();
+        for (MediaType accepted : requested) {
+            for (var converter : messageConverters.getConverters()) {
+                if (!(converter instanceof AbstractJackson2HttpMessageConverter)) continue;
+                for (MediaType produced : converter.getSupportedMediaTypes()) {
+                    if (!accepted.isCompatibleWith(produced)) continue;
+                    compatible.add(accepted.isConcrete() ? accepted : produced.copyQualityValue(accepted));
+                }
+            }
+        }
+        MimeTypeUtils.sortBySpecificity(compatible);
+        for (MediaType type : compatible) {
+            if (type.isConcrete()) return type.removeQualityValue();
+        }
+        return null;
+    }
+
+    private void bumpModule(Long moduleId) {
+        moduleStamps.put(moduleId, modules.incrementAndGet());
+    }
+
+    private long moduleVersion(Long moduleId) {
+        return Math.max(moduleStamps.getOrDefault(moduleId, 0L), moduleFloor);
+    }
+
+    // weak: the body may go out gzipped, and Tomcat will not compress a response carrying a strong tag
+    private String tag(String resource, long version, long dependency) {
+        return "W/\"" + resource + "-" + epoch + "-" + version + "-" + dependency + "\"";
+    }
+}
@@ -0,0 +1,206 @@
+package com.carsil.userapi.service;
+
+import com.carsil.userapi.dto.ModulePlan;
+import com.carsil.userapi.dto.ScheduledAssignment;
+import com.carsil.userapi.dto.SchedulePlan;
+import com.carsil.userapi.dto.SchedulingRow;
+import com.carsil.userapi.model.Module;
+import com.carsil.userapi.model.Product;
+import com.carsil.userapi.model.enums.ProductionStatus;
+import com.carsil.userapi.repository.ModuleRepository;
+import com.carsil.userapi.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+import static java.time.temporal.ChronoUnit.DAYS;
+
+/**
+ * Plans module assignments for every product with SAM left. Products without a module are always
+ * placed; with {@code rebalance}, products that have a module but no progress yet may move too.
+ * Products already being sewn stay where they are and count as fixed load.
+ * <p>
+ * A product is due on its plant entry date, or {@code target-cycle-days} after its assigned date
+ * when that is configured; products with neither have no due date.
+ */
+@Service
+public class ScheduleService {
+
+    // load days = SAM / 60 / 9 h / people * 1.35, so one person clears 400 SAM minutes a day
+    static final double SAM_PER_PERSON_DAY = 60 * 9 / 1.35;
+
+    private static final Set<String> MODULE_FIELD = Set.of("module");
+
+    private record Move(Long from, Long to) {
+    }
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ModuleRepository moduleRepository;
+
+    @Autowired
+    private ModuleLoadService moduleLoadService;
+
+    @Autowired
+    private ApplicationEventPublisher events;
+
+    @Value("${carsil.scheduler.time-budget:800ms}")
+    private Duration timeBudget;
+
+    @Value("${carsil.scheduler.max-iterations:20000}")
+    private int maxIterations;
+
+    @Value("${carsil.scheduler.late-weight:10}")
+    private double lateWeight;
+
+    @Value("${carsil.scheduler.target-cycle-days:0}")
+    private int targetCycleDays;
+
+    private Clock clock = Clock.systemDefaultZone();
+
+    void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    @Transactional(readOnly = true)
+    public SchedulePlan plan(boolean rebalance) {
+        return run(rebalance, false);
+    }
+
+    /** Plans and applies in one transaction, with one UPDATE per (from, to) module pair. */
+    @Transactional
+    public SchedulePlan apply(boolean rebalance) {
+        return run(rebalance, true);
+    }
+
+    private SchedulePlan run(boolean rebalance, boolean apply) {
+        long start = System.nanoTime();
+        LocalDate today = LocalDate.now(clock);
+
+        List<Module> modules = moduleRepository.findAll().stream()
+                .filter(m -> m.getNumPersons() != null && m.getNumPersons() > 0)
+                .sorted(Comparator.comparing(Module::getId))
+                .toList();
+        Map<Long, Integer> moduleIndex = new HashMap<>();
+        double[] capacity = new double[modules.size()];
+        double[] pinned = new double[modules.size()];
+        for (int k = 0; k < modules.size(); k++) {
+            moduleIndex.put(modules.get(k).getId(), k);
+            capacity[k] = modules.get(k).getNumPersons() * SAM_PER_PERSON_DAY;
+        }
+
+        List<SchedulingRow> movable = new ArrayList<>();
+        for (SchedulingRow row : productRepository.findSchedulingRows()) {
+            Integer k = row.getModuleId() == null ? null : moduleIndex.get(row.getModuleId());
+            if (row.getModuleId() != null && !movable(row, rebalance)) {
+                if (k != null) pinned[k] += row.getSamTotal();
+            } else {
+                movable.add(row);
+            }
+        }
+
+        int n = movable.size();
+        int[] sam = new int[n];
+        double[] due = new double[n];
+        int[] current = new int[n];
+        LocalDate[] dueDates = new LocalDate[n];
+        for (int i = 0; i < n; i++) {
+            SchedulingRow row = movable.get(i);
+            sam[i] = row.getSamTotal();
+            dueDates[i] = dueDate(row);
+            due[i] = dueDates[i] == null ? CapacityScheduler.NO_DUE : DAYS.between(today, dueDates[i]);
+            Integer k = row.getModuleId() == null ? null : moduleIndex.get(row.getModuleId());
+            current[i] = k == null ? -1 : k;
+        }
+
+        CapacityScheduler scheduler = new CapacityScheduler(capacity, pinned, sam, due, current, lateWeight);
+        double[] before = scheduler.evaluate();
+        double[] loadBefore = pinned.clone();
+        for (int i = 0; i < n; i++) if (current[i] >= 0) loadBefore[current[i]] += sam[i];
+
+        CapacityScheduler.Result result = scheduler.solve(maxIterations, timeBudget.toNanos(), ForkJoinPool.commonPool());
+
+        double[] loadAfter = pinned.clone();
+        int[] count = new int[modules.size()];
+        List<ScheduledAssignment> assignments = new ArrayList<>();
+        Map<Move, List<Long>> moves = new LinkedHashMap<>();
+        for (int i = 0; i < n; i++) {
+            int k = result.assignment()[i];
+            loadAfter[k] += sam[i];
+            count[k]++;
+            if (k == current[i]) continue;
+            SchedulingRow row = movable.get(i);
+            Long to = modules.get(k).getId();
+            double late = due[i] == CapacityScheduler.NO_DUE ? 0 : Math.max(0, result.finishDays()[i] - due[i]);
+            assignments.add(new ScheduledAssignment(row.getId(), row.getOp(), row.getModuleId(), to,
+                    dueDates[i], days(result.finishDays()[i]), days(late)));
+            moves.computeIfAbsent(new Move(row.getModuleId(), to), key -> new ArrayList<>()).add(row.getId());
+        }
+
+        List<ModulePlan> modulePlans = new ArrayList<>(modules.size());
+        for (int k = 0; k < modules.size(); k++) {
+            Module m = modules.get(k);
+            modulePlans.add(new ModulePlan(m.getId(), m.getName(), m.getNumPersons(), count[k],
+                    Module.loadDaysFor(Math.round(loadBefore[k]), m.getNumPersons()),
+                    Module.loadDaysFor(Math.round(loadAfter[k]), m.getNumPersons())));
+        }
+
+        int skipped = apply ? assignments.size() - applyMoves(moves) : 0;
+        return new SchedulePlan(apply, n, assignments.size(), skipped,
+                days(before[0]), days(result.makespan()), days(before[1]), days(result.lateDays()),
+                result.iterations(), (System.nanoTime() - start) / 1_000_000,
+                modulePlans, assignments);
+    }
+
+    private static boolean movable(SchedulingRow row, boolean rebalance) {
+        return rebalance
+                && row.getStatus() != ProductionStatus.CONFECCION
+                && (row.getQuantityMade() == null || row.getQuantityMade() == 0);
+    }
+
+    private LocalDate dueDate(SchedulingRow row) {
+        if (row.getPlantEntryDate() != null) return row.getPlantEntryDate();
+        if (targetCycleDays > 0 && row.getAssignedDate() != null) return row.getAssignedDate().plusDays(targetCycleDays);
+        return null;
+    }
+
+    private int applyMoves(Map<Move, List<Long>> moves) {
+        int applied = 0;
+        Set<Long> touchedModules = new HashSet<>();
+        Map<Long, Move> targets = new HashMap<>();
+        for (Map.Entry<Move, List<Long>> e : moves.entrySet()) {
+            Move move = e.getKey();
+            Module to = moduleRepository.getReferenceById(move.to());
+            applied += move.from() == null
+                    ? productRepository.assignUnassigned(e.getValue(), to)
+                    : productRepository.reassign(e.getValue(), moduleRepository.getReferenceById(move.from()), to);
+            if (move.from() != null) touchedModules.add(move.from());
+            touchedModules.add(move.to());
+            e.getValue().forEach(id -> targets.put(id, move));
+        }
+        moduleLoadService.markDirty(touchedModules.toArray(Long[]::new));
+        for (Product p : productRepository.findAllById(targets.keySet())) {
+            Move move = targets.get(p.getId());
+            if (p.getModule() != null && p.getModule().getId().equals(move.to())) {
+                events.publishEvent(ProductChangedEvent.updated(p, MODULE_FIELD, move.from()));
+            }
+        }
+        return applied;
+    }
+
+    private static BigDecimal days(double value) {
+        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,178 @@
+package com.carsil.userapi.service;
+
+import com.carsil.userapi.dto.TokenPair;
+import com.carsil.userapi.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Issues and verifies HMAC-SHA256 signed tokens, so an authenticated request costs one MAC instead
+ * of a BCrypt check and a user lookup. A token is {@code base64url(type|subject|id|expiry).base64url(mac)}.
+ * Revoked token ids are kept in memory until their expiry has passed.
+ */
+@Service
+public class TokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenService.class);
+
+    public static final String ACCESS = "access";
+    public static final String REFRESH = "refresh";
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    public record Claims(String type, String subject, String id, Instant expiresAt) {
+    }
+
+    private final Map<String, Instant> revoked = new ConcurrentHashMap<>();
+    // initialised once and cloned per use; Mac instances are not thread-safe
+    private Mac prototype;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${carsil.security.token.secret:}")
+    private String secret;
+
+    @Value("${carsil.security.token.access-ttl:15m}")
+    private Duration accessTtl;
+
+    @Value("${carsil.security.token.refresh-ttl:8h}")
+    private Duration refreshTtl;
+
+    private Clock clock = Clock.systemUTC();
+
+    @PostConstruct
+    void init() {
+        byte[] bytes;
+        if (StringUtils.hasText(secret)) {
+            bytes = secret.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length < 32) throw new IllegalStateException("carsil.security.token.secret must be at least 32 bytes");
+        } else {
+            bytes = new byte[32];
+            new SecureRandom().nextBytes(bytes);
+            log.warn("carsil.security.token.secret is not set; using a random key, tokens will not survive a restart");
+        }
+        try {
+            prototype = Mac.getInstance(ALGORITHM);
+            prototype.init(new SecretKeySpec(bytes, ALGORITHM));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+
+    /** Called once the password has been checked. */
+    public TokenPair issue(String subject) {
+        return new TokenPair(sign(ACCESS, subject, accessTtl), sign(REFRESH, subject, refreshTtl), accessTtl.toSeconds());
+    }
+
+    /** Claims of a well-formed, correctly signed, unexpired and unrevoked token of the given type. */
+    public Optional<Claims> verify(String token, String expectedType) {
+        if (!StringUtils.hasText(token)) return Optional.empty();
+        int dot = token.indexOf('.');
+        if (dot <= 0 || dot == token.length() - 1) return Optional.empty();
+        String payload = token.substring(0, dot);
+        byte[] signature;
+        String[] parts;
+        try {
+            signature = DECODER.decode(token.substring(dot + 1));
+            parts = new String(DECODER.decode(payload), StandardCharsets.UTF_8).split("\\|", -1);
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        if (!MessageDigest.isEqual(mac(payload), signature) || parts.length != 4) return Optional.empty();
+
+        Instant expiresAt;
+        try {
+            expiresAt = Instant.ofEpochSecond(Long.parseLong(parts[3]));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+        Claims claims = new Claims(parts[0], parts[1], parts[2], expiresAt);
+        if (!claims.type().equals(expectedType)
+                || !clock.instant().isBefore(expiresAt)
+                || revoked.containsKey(claims.id())) {
+            return Optional.empty();
+        }
+        return Optional.of(claims);
+    }
+
+    /**
+     * Exchanges a refresh token for a new pair. The presented refresh token is revoked, so each one
+     * can be used only once, even by concurrent requests: only the one that revokes it gets a pair.
+     */
+    public TokenPair refresh(String refreshToken) {
+        Claims claims = verify(refreshToken, REFRESH)
+                .orElseThrow(() -> new BadCredentialsException("Token inválido o expirado"));
+        if (userRepository.findByName(claims.subject()).isEmpty()) {
+            throw new BadCredentialsException("Token inválido o expirado");
+        }
+        if (revoked.putIfAbsent(claims.id(), claims.expiresAt()) != null) {
+            throw new BadCredentialsException("Token inválido o expirado");
+        }
+        return issue(claims.subject());
+    }
+
+    public void revoke(Claims claims) {
+        revoked.put(claims.id(), claims.expiresAt());
+    }
+
+    /** Revokes the token if it is valid; anything else is already unusable. */
+    public void revoke(String token, String type) {
+        verify(token, type).ifPresent(this::revoke);
+    }
+
+    public int revokedCount() {
+        return revoked.size();
+    }
+
+    @Scheduled(fixedDelayString = "${carsil.security.token.purge-interval-ms:60000}")
+    public void purgeRevoked() {
+        Instant now = clock.instant();
+        revoked.values().removeIf(expiresAt -> !now.isBefore(expiresAt));
+    }
+
+    void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    private String sign(String type, String subject, Duration ttl) {
+        if (subject.indexOf('|') >= 0) throw new IllegalArgumentException("Nombre de usuario inválido");
+        long expiry = clock.instant().plus(ttl).getEpochSecond();
+        String claims = type + "|" + subject + "|" + UUID.randomUUID() + "|" + expiry;
+        String payload = ENCODER.encodeToString(claims.getBytes(StandardCharsets.UTF_8));
+        return payload + "." + ENCODER.encodeToString(mac(payload));
+    }
+
+    private byte[] mac(String payload) {
+        try {
+            Mac mac = (Mac) prototype.clone();
+            return mac.doFinal(payload.getBytes(StandardCharsets.US_ASCII));
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("HMAC provider does not support cloning", e);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+-- Module load kept as the SAM total of the module's products; load days are derived from it on read.
+
+alter table carsil_modules add column sam_total_sum bigint;
+
+update carsil_modules m
+set sam_total_sum = (select coalesce(sum(p.sam_total), 0) from carsil_product p where p.module_id = m.id);
+
+alter table carsil_modules drop column load_days;
@@ -0,0 +1,4 @@
+-- Size breakdowns packed into one column. V3_1__PackSizeBreakdowns moves the rows of
+-- product_size_quantities into it; the table stays for rows with unknown sizes.
+
+alter table carsil_product add column size_units varbinary(56);
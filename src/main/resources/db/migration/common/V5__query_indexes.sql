@@ -0,0 +1,16 @@
+-- One index per access path of the repositories; QueryPlanTest fails when a query stops using them.
+
+-- findByModuleId, and the SUM(sam_total) per module behind the load aggregate, read from the index alone
+create index ix_product_module_sam on carsil_product (module_id, sam_total);
+
+-- findByPlantEntryDateBetween, KPI plant-entry bounds
+create index ix_product_plant_entry on carsil_product (plant_entry_date);
+
+-- keyset pages ordered by (assigned_date, id), KPI assigned-date bounds
+create index ix_product_assigned on carsil_product (assigned_date, id);
+
+-- status filters and GROUP BY status
+create index ix_product_status on carsil_product (status);
+
+-- findByName (login, token refresh)
+create index ix_user_name on carsil_user (name);
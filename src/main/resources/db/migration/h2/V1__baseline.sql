@@ -0,0 +1,53 @@
+-- Schema as hibernate.ddl-auto=update left it before migrations were introduced. Existing
+-- databases are baselined at this version (spring.flyway.baseline-on-migrate) and skip it.
+
+create table carsil_modules (
+    load_days numeric(38,2),
+    num_persons integer,
+    id bigint generated by default as identity,
+    name varchar(100) not null,
+    description varchar(255),
+    primary key (id)
+);
+
+create table carsil_product (
+    assigned_date date not null,
+    missing integer,
+    plant_entry_date date,
+    price numeric(18,4) not null,
+    quantity integer not null,
+    quantity_made integer not null,
+    sam float(53),
+    sam_total integer,
+    id bigint generated by default as identity,
+    module_id bigint,
+    status varchar(15) not null check (status in ('PROCESO','ASIGNADO','CONFECCION')),
+    descripcion_paro varchar(50) check (descripcion_paro in ('MARQUILLA_TALLA','COMPOSICION','CODIGO','FALTANTE_DE_PIEZA','BOLSAS','FALTA_TODO','OK','FICHA','SESGO')),
+    actual_delivery_date varchar(255),
+    brand varchar(255) not null,
+    campaign varchar(255) not null,
+    description varchar(255),
+    op varchar(255) not null,
+    reference varchar(255) not null,
+    type varchar(255) not null,
+    primary key (id),
+    constraint uk_carsil_product_op unique (op)
+);
+
+create table carsil_user (
+    id bigint generated by default as identity,
+    name varchar(50) not null,
+    email varchar(255) not null unique,
+    password varchar(255) not null,
+    primary key (id)
+);
+
+create table product_size_quantities (
+    units integer,
+    product_id bigint not null,
+    size varchar(255) not null,
+    primary key (product_id, size)
+);
+
+alter table carsil_product add constraint FKrphg1afswocy13vc8bni3x49t foreign key (module_id) references carsil_modules;
+alter table product_size_quantities add constraint FKcknu63p1lx73b98h1gx8wl8fa foreign key (product_id) references carsil_product;
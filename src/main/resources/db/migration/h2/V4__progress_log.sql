@@ -0,0 +1,24 @@
+-- Append-only log of quantityMade changes and its hourly/daily rollups.
+
+create table carsil_progress_event (
+    delta integer not null,
+    id bigint generated by default as identity,
+    module_id bigint,
+    occurred_at timestamp(6) with time zone not null,
+    product_id bigint not null,
+    primary key (id)
+);
+
+create table carsil_progress_rollup (
+    changes integer not null,
+    granularity varchar(4) not null check (granularity in ('HOUR','DAY')),
+    scope varchar(6) not null check (scope in ('MODULE','OP')),
+    bucket_start timestamp(6) not null,
+    id bigint generated by default as identity,
+    units bigint not null,
+    scope_key varchar(255) not null,
+    primary key (id),
+    constraint uk_progress_rollup_bucket unique (scope, scope_key, granularity, bucket_start)
+);
+
+create index ix_progress_event_product on carsil_progress_event (product_id, occurred_at);
@@ -0,0 +1,54 @@
+-- Schema as hibernate.ddl-auto=update left it before migrations were introduced. Existing
+-- databases are baselined at this version (spring.flyway.baseline-on-migrate) and skip it.
+
+create table carsil_modules (
+    load_days decimal(38,2),
+    num_persons integer,
+    id bigint not null auto_increment,
+    name varchar(100) not null,
+    description varchar(255),
+    primary key (id)
+) engine=InnoDB;
+
+create table carsil_product (
+    assigned_date date not null,
+    missing integer,
+    plant_entry_date date,
+    price decimal(18,4) not null,
+    quantity integer not null,
+    quantity_made integer not null,
+    sam float(53),
+    sam_total integer,
+    id bigint not null auto_increment,
+    module_id bigint,
+    actual_delivery_date varchar(255),
+    brand varchar(255) not null,
+    campaign varchar(255) not null,
+    description varchar(255),
+    op varchar(255) not null,
+    reference varchar(255) not null,
+    type varchar(255) not null,
+    descripcion_paro enum ('MARQUILLA_TALLA','COMPOSICION','CODIGO','FALTANTE_DE_PIEZA','BOLSAS','FALTA_TODO','OK','FICHA','SESGO'),
+    status enum ('PROCESO','ASIGNADO','CONFECCION') not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table carsil_user (
+    id bigint not null auto_increment,
+    name varchar(50) not null,
+    email varchar(255) not null,
+    password varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table product_size_quantities (
+    units integer,
+    product_id bigint not null,
+    size varchar(255) not null,
+    primary key (product_id, size)
+) engine=InnoDB;
+
+alter table carsil_product add constraint uk_carsil_product_op unique (op);
+alter table carsil_user add constraint UK_6e4rol96r0fdbkwm0u7v0hpa6 unique (email);
+alter table carsil_product add constraint FKrphg1afswocy13vc8bni3x49t foreign key (module_id) references carsil_modules (id);
+alter table product_size_quantities add constraint FKcknu63p1lx73b98h1gx8wl8fa foreign key (product_id) references carsil_product (id);
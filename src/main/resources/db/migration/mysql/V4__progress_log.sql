@@ -0,0 +1,24 @@
+-- Append-only log of quantityMade changes and its hourly/daily rollups.
+
+create table carsil_progress_event (
+    delta integer not null,
+    id bigint not null auto_increment,
+    module_id bigint,
+    occurred_at datetime(6) not null,
+    product_id bigint not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table carsil_progress_rollup (
+    changes integer not null,
+    bucket_start datetime(6) not null,
+    id bigint not null auto_increment,
+    units bigint not null,
+    scope_key varchar(255) not null,
+    granularity enum ('HOUR','DAY') not null,
+    scope enum ('MODULE','OP') not null,
+    primary key (id)
+) engine=InnoDB;
+
+create index ix_progress_event_product on carsil_progress_event (product_id, occurred_at);
+alter table carsil_progress_rollup add constraint uk_progress_rollup_bucket unique (scope, scope_key, granularity, bucket_start);
@@ -0,0 +1,86 @@
+package com.carsil.userapi.config;
+
+import com.carsil.userapi.service.RequestStats;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class ConcurrencyLimitFilterTest {
+
+    private final RequestStats stats = mock(RequestStats.class);
+
+    @Test
+    void rejectsWith503_whenNoPermitFreesUpInTime() throws Exception {
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(1, Duration.ofMillis(50), List.of(), stats);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Thread holder = Thread.ofVirtual().start(() -> {
+            try {
+                filter.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(), (req, res) -> {
+                    entered.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest(), rejected, new MockFilterChain());
+        assertThat(rejected.getStatus()).isEqualTo(503);
+        assertThat(rejected.getHeader("Retry-After")).isEqualTo("1");
+        verify(stats).rejected();
+
+        release.countDown();
+        holder.join();
+        assertThat(filter.available()).isEqualTo(1);
+
+        MockHttpServletResponse served = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest(), served, new MockFilterChain());
+        assertThat(served.getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void asyncRequest_holdsItsPermitUntilTheResponseCompletes() throws Exception {
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(2, Duration.ofMillis(50), List.of(), stats);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products/stream");
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, (req, res) -> req.startAsync());
+
+        assertThat(filter.available()).isEqualTo(1);
+        verify(stats, never()).finished();
+
+        request.getAsyncContext().complete();
+        assertThat(filter.available()).isEqualTo(2);
+        verify(stats).finished();
+    }
+
+    @Test
+    void excludedPaths_areNotLimited() throws Exception {
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(1, Duration.ofMillis(50),
+                List.of("/api/products/events", "/api/runtime/**"), stats);
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/runtime/stats"), new MockHttpServletResponse(),
+                (req, res) -> assertThat(filter.available()).isEqualTo(1));
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/products/1"), new MockHttpServletResponse(),
+                (req, res) -> assertThat(filter.available()).isZero());
+        verify(stats, times(1)).started();
+    }
+}
@@ -0,0 +1,61 @@
+package com.carsil.userapi.config;
+
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(OutputCaptureExtension.class)
+class SlowQueryLogTest {
+
+    private final SlowQueryLog slowQueryLog = new SlowQueryLog(Duration.ofMillis(40));
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:slow-query;DB_CLOSE_DELAY=-1");
+        try (Connection c = h2.getConnection(); Statement s = c.createStatement()) {
+            s.execute("CREATE ALIAS IF NOT EXISTS SLEEP FOR \"java.lang.Thread.sleep(long)\"");
+            // the first call compiles the alias, which alone can take longer than the threshold
+            s.execute("CALL SLEEP(0)");
+        }
+        dataSource = ProxyDataSourceBuilder.create(h2).listener(slowQueryLog).build();
+    }
+
+    private void sleep(long millis) throws SQLException {
+        try (Connection c = dataSource.getConnection(); PreparedStatement ps = c.prepareStatement("CALL SLEEP(?)")) {
+            ps.setLong(1, millis);
+            ps.execute();
+        }
+    }
+
+    @Test
+    void logsStatementsOverTheThreshold_withTheirParameters(CapturedOutput output) throws SQLException {
+        sleep(60);
+
+        assertThat(slowQueryLog.count()).isEqualTo(1);
+        assertThat(output).contains("Slow query").contains("CALL SLEEP(?)").contains("(60)");
+    }
+
+    @Test
+    void ignoresFastStatements(CapturedOutput output) throws SQLException {
+        sleep(0);
+
+        assertThat(slowQueryLog.count()).isZero();
+        assertThat(output).doesNotContain("Slow query");
+        assertThat(new SlowQueryLog(Duration.ZERO).isEnabled()).isFalse();
+    }
+}
@@ -1,5 +1,7 @@
 package com.carsil.userapi.controller;
 
+import com.carsil.userapi.dto.TokenPair;
+import com.carsil.userapi.service.TokenService;
 import com.carsil.userapi.service.UserService;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -26,17 +28,36 @@ class AuthControllerTest {
     @MockBean
     private UserService userService;
 
+    @MockBean
+    private TokenService tokenService;
+
 
     @Test
     void login_returns200_whenValid() throws Exception {
         Mockito.when(userService.validateLogin("luis","secret")).thenReturn(true);
+        Mockito.when(tokenService.issue("luis")).thenReturn(new TokenPair("a.b", "c.d", 900));
 
         mvc.perform(post("/api/auth/login")
                         .with(csrf()) // evita 403 por CSRF
                         .contentType(MediaType.APPLICATION_JSON)
                         .content("{\"userName\":\"luis\",\"password\":\"secret\"}"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.message", is("Login successful")));
+                .andExpect(jsonPath("$.message", is("Login successful")))
+                .andExpect(jsonPath("$.accessToken", is("a.b")))
+                .andExpect(jsonPath("$.refreshToken", is("c.d")));
+    }
+
+    @Test
+    void refresh_returnsNewPair() throws Exception {
+        Mockito.when(tokenService.refresh("c.d")).thenReturn(new TokenPair("e.f", "g.h", 900));
+
+        mvc.perform(post("/api/auth/refresh")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"refreshToken\":\"c.d\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accessToken", is("e.f")))
+                .andExpect(jsonPath("$.refreshToken", is("g.h")));
     }
 
     @Test
@@ -0,0 +1,298 @@
+package com.carsil.userapi.controller;
+
+import com.carsil.userapi.model.Module;
+import com.carsil.userapi.model.Product;
+import com.carsil.userapi.model.User;
+import com.carsil.userapi.repository.ProductRepository;
+import com.carsil.userapi.service.ModuleService;
+import com.carsil.userapi.service.ProductService;
+import com.carsil.userapi.service.TokenService;
+import com.carsil.userapi.service.UserService;
+import com.carsil.userapi.support.QueryCount;
+import com.carsil.userapi.support.QueryCountConfig;
+import com.carsil.userapi.support.QueryCounter;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+/**
+ * Statements each endpoint sends to the database against a seeded H2 schema, with the Hibernate
+ * caches off so every read reaches it. Most endpoints are measured twice with the plant grown in
+ * between and must issue the same number of statements both times: a lazy association walked per
+ * row or a lookup repeated per product shows up here as a count that grows with the data.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:query-counts;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+        // scheduled flushes write from their own threads and would land in the counts
+        "carsil.progress.flush-interval-ms=3600000",
+        "carsil.module-load.flush-interval-ms=3600000",
+        "carsil.security.token.purge-interval-ms=3600000",
+        "carsil.board.heartbeat-ms=3600000",
+        "carsil.jdbc.slow-query-threshold=0"
+})
+@AutoConfigureMockMvc
+@Import(QueryCountConfig.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@WithMockUser
+class EndpointQueryCountTest {
+
+    private static final int MODULES = 3;
+    private static final int PRODUCTS_PER_MODULE = 4;
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private QueryCounter queries;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ModuleService moduleService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TokenService tokenService;
+
+    private final List<Module> modules = new ArrayList<>();
+    private final List<Product> products = new ArrayList<>();
+    private final AtomicInteger sequence = new AtomicInteger(1000);
+
+    @BeforeAll
+    void seed() {
+        for (int m = 0; m < MODULES; m++) {
+            Module module = new Module();
+            module.setName("M" + m);
+            module.setNumPersons(5 + m);
+            modules.add(moduleService.create(module));
+        }
+        grow();
+        User user = new User();
+        user.setName("planner");
+        user.setEmail("planner@carsil.test");
+        user.setPassword("secret123");
+        userService.create(user);
+    }
+
+    // PRODUCTS_PER_MODULE more products in every module
+    private void grow() {
+        for (Module module : modules) {
+            for (int i = 0; i < PRODUCTS_PER_MODULE; i++) {
+                products.add(productService.create(product(module)));
+            }
+        }
+    }
+
+    private Product product(Module module) {
+        int n = sequence.incrementAndGet();
+        Product p = new Product();
+        p.setOp(Integer.toString(n));
+        p.setReference("500");
+        p.setBrand("Carsil");
+        p.setCampaign("7");
+        p.setType("A1");
+        p.setPrice(BigDecimal.TEN);
+        p.setQuantity(100);
+        p.setSizeQuantities(Map.of("S", 40, "M", 60));
+        p.setSam(1.5);
+        p.setAssignedDate(LocalDate.of(2024, 1, 1).plusDays(n % 28));
+        p.setPlantEntryDate(LocalDate.of(2024, 2, 1).plusDays(n % 28));
+        p.setModule(module);
+        return p;
+    }
+
+    private Long moduleId() {
+        return modules.get(0).getId();
+    }
+
+    // a product nothing else in this class deletes or moves
+    private Long productId() {
+        return products.get(0).getId();
+    }
+
+    private QueryCount measure(RequestBuilder request) throws Exception {
+        queries.reset();
+        MvcResult result = mvc.perform(request).andReturn();
+        if (result.getRequest().isAsyncStarted()) result = mvc.perform(asyncDispatch(result)).andReturn();
+        QueryCount count = queries.snapshot();
+        assertThat(result.getResponse().getStatus()).as("status (%s)", result.getResolvedException()).isLessThan(400);
+        return count;
+    }
+
+    /** At most {@code max} statements, and as many again once every module has more products. */
+    private QueryCount assertFlat(int max, Supplier<RequestBuilder> request) throws Exception {
+        QueryCount before = measure(request.get());
+        grow();
+        QueryCount after = measure(request.get());
+        assertThat(after.statements()).as("statements with more data (%s, then %s)", before, after)
+                .isEqualTo(before.statements());
+        assertThat(after.statements()).as("statements (%s)", after).isLessThanOrEqualTo(max);
+        return after;
+    }
+
+    private QueryCount assertAtMost(int max, RequestBuilder request) throws Exception {
+        QueryCount count = measure(request);
+        assertThat(count.statements()).as("statements (%s)", count).isLessThanOrEqualTo(max);
+        return count;
+    }
+
+    private static String json(String body) {
+        return body.replace('\'', '"');
+    }
+
+    @Test
+    void productReads() throws Exception {
+        assertFlat(1, () -> get("/api/products"));
+        assertFlat(1, () -> get("/api/products/page").param("size", "5"));
+        assertFlat(1, () -> get("/api/products/page").param("sort", "assignedDate").param("size", "5"));
+        assertFlat(1, () -> get("/api/products/search").param("q", "Carsil"));
+        assertFlat(2, () -> get("/api/products/{id}", productId()));
+        assertFlat(1, () -> get("/api/products/by-date-range")
+                .param("startDate", "2024-02-01").param("endDate", "2024-02-10"));
+        assertFlat(1, () -> get("/api/products/kpis"));
+        assertFlat(1, () -> get("/api/products/kpis").param("by", "module"));
+        // GET /by-module/{op} and /by-module/{moduleId} share a pattern and answer every request
+        // with an ambiguous-mapping error; ProductReadQueriesTest counts the reads behind them
+
+        queries.reset();
+        mvc.perform(get("/api/products/events")).andExpect(request().asyncStarted());
+        assertThat(queries.snapshot().statements()).as("subscribing to the board").isZero();
+    }
+
+    @Test
+    void productStreams_readWithOneCursor() throws Exception {
+        QueryCount stream = assertFlat(1, () -> get("/api/products/stream"));
+        assertThat(stream.rows()).isEqualTo(productRepository.count());
+        assertFlat(1, () -> get("/api/products/export").param("format", "csv"));
+        assertFlat(1, () -> get("/api/products/export").param("format", "xlsx").param("columns", "op", "sizes"));
+    }
+
+    @Test
+    void productWrites() throws Exception {
+        assertFlat(2, () -> post("/api/products").contentType(MediaType.APPLICATION_JSON)
+                .content(json("{'op':'" + sequence.incrementAndGet() + "','reference':'1','brand':'Nike','campaign':'1',"
+                        + "'type':'A1','price':5,'quantity':10,'sizeQuantities':{'S':10},'assignedDate':'2024-01-01','module':{'id':" + moduleId() + "}}")));
+
+        Long edited = products.get(1).getId();
+        assertFlat(4, () -> put("/api/products/{id}", edited).contentType(MediaType.APPLICATION_JSON)
+                .content(json("{'op':'" + sequence.incrementAndGet() + "','reference':'1','brand':'Nike','campaign':'1',"
+                        + "'type':'A1','price':5,'quantity':" + sequence.get() + ",'sizeQuantities':{'S':" + sequence.get() + "},"
+                        + "'sam':2,'assignedDate':'2024-01-01','module':{'id':" + moduleId() + "}}")));
+        assertFlat(3, () -> patch("/api/products/{id}", edited).contentType(MediaType.APPLICATION_JSON)
+                .content(json("{'quantity':" + sequence.incrementAndGet() + ",'sam':3}")));
+        assertFlat(3, () -> put("/api/products/{id}/made", edited).param("value", Integer.toString(sequence.incrementAndGet() % 10)));
+        assertFlat(3, () -> patch("/api/products/{id}/progress", edited).param("delta", "1"));
+        assertFlat(2, () -> delete("/api/products/{id}", products.remove(products.size() - 1).getId()));
+    }
+
+    @Test
+    void productImport_batchesItsInserts() throws Exception {
+        QueryCount small = measure(upload(5));
+        QueryCount large = measure(upload(50));
+        assertThat(large.inserts()).isEqualTo(50);
+        assertThat(large.roundTrips()).isEqualTo(small.roundTrips());
+    }
+
+    private RequestBuilder upload(int rows) {
+        StringBuilder csv = new StringBuilder("op,reference,brand,campaign,type,price,assignedDate,moduleId,S\n");
+        for (int i = 0; i < rows; i++) {
+            csv.append(sequence.incrementAndGet()).append(",9,Carsil,1,A1,10,2024-01-01,").append(moduleId()).append(",5\n");
+        }
+        return multipart("/api/products/import")
+                .file(new MockMultipartFile("file", "products.csv", "text/csv", csv.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void moduleEndpoints() throws Exception {
+        assertFlat(1, () -> get("/api/modules"));
+        assertFlat(1, () -> get("/api/modules/{id}", moduleId()));
+        assertFlat(1, () -> get("/api/modules/by-name").param("name", "M1"));
+        assertFlat(1, () -> get("/api/modules/{id}/products", moduleId()));
+        assertFlat(1, () -> get("/api/modules/load/check"));
+        assertFlat(1, () -> post("/api/modules/load/rebuild"));
+        // the simulator reads the plant once and then follows product events
+        Supplier<RequestBuilder> simulate = () -> post("/api/modules/simulate").contentType(MediaType.APPLICATION_JSON)
+                .content(json("{'numPersons':{'" + moduleId() + "':9}}"));
+        assertAtMost(2, simulate.get());
+        grow();
+        assertAtMost(0, simulate.get());
+        assertFlat(1, () -> post("/api/modules").contentType(MediaType.APPLICATION_JSON)
+                .content(json("{'name':'New " + sequence.incrementAndGet() + "','numPersons':4}")));
+        assertFlat(2, () -> put("/api/modules/{id}", modules.get(2).getId()).contentType(MediaType.APPLICATION_JSON)
+                .content(json("{'name':'M2','numPersons':" + (sequence.incrementAndGet() % 20 + 21) + "}")));
+        assertFlat(3, () -> post("/api/modules/{m}/assign/{p}",
+                modules.get(sequence.incrementAndGet() % 2 + 1).getId(), products.get(2).getId()));
+    }
+
+    @Test
+    void progressAndSchedule() throws Exception {
+        assertFlat(1, () -> get("/api/progress/throughput").param("moduleId", moduleId().toString())
+                .param("from", "2024-01-01").param("to", "2024-12-31"));
+        assertFlat(1, () -> get("/api/progress/products/{id}/events", productId()));
+        assertFlat(2, () -> get("/api/schedule/plan"));
+        assertFlat(2, () -> get("/api/schedule/plan").param("rebalance", "true"));
+        assertFlat(4, () -> post("/api/schedule/apply").param("rebalance", "true"));
+    }
+
+    @Test
+    void userAndAuthEndpoints() throws Exception {
+        User planner = userService.getByName("planner").orElseThrow();
+        assertAtMost(1, get("/api/users"));
+        assertAtMost(1, get("/api/users/{id}", planner.getId()));
+        assertAtMost(1, get("/api/users/by-name/{name}", "planner"));
+        assertAtMost(1, post("/api/users").contentType(MediaType.APPLICATION_JSON)
+                .content(json("{'name':'clerk','email':'clerk@carsil.test','password':'secret123'}")));
+        Long clerk = userService.getByName("clerk").orElseThrow().getId();
+        assertAtMost(2, put("/api/users/{id}", clerk).contentType(MediaType.APPLICATION_JSON)
+                .content(json("{'name':'clerk','email':'clerk2@carsil.test','password':'secret456'}")));
+        assertAtMost(3, delete("/api/users/{id}", clerk));
+
+        assertAtMost(1, post("/api/auth/login").contentType(MediaType.APPLICATION_JSON)
+                .content(json("{'userName':'planner','password':'secret123'}")));
+        String refresh = tokenService.issue("planner").refreshToken();
+        assertAtMost(1, post("/api/auth/refresh").contentType(MediaType.APPLICATION_JSON)
+                .content(json("{'refreshToken':'" + refresh + "'}")));
+        assertAtMost(0, post("/api/auth/logout")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + tokenService.issue("planner").accessToken()));
+    }
+
+    @Test
+    void runtimeEndpoints_neverTouchTheDatabase() throws Exception {
+        assertAtMost(0, get("/api/runtime/stats"));
+        assertAtMost(0, get("/api/runtime/conditional"));
+        assertAtMost(0, post("/api/runtime/stats/reset"));
+        assertAtMost(0, get("/api/cache/stats"));
+    }
+}
@@ -1,32 +1,54 @@
 package com.carsil.userapi.controller;
 
+import com.carsil.userapi.dto.ProductExportFilter;
+import com.carsil.userapi.dto.ProductSlice;
+import com.carsil.userapi.dto.ProductView;
 import com.carsil.userapi.model.Product;
+import com.carsil.userapi.service.ProductBoardBroadcaster;
+import com.carsil.userapi.service.ProductExportService;
+import com.carsil.userapi.service.ProductImportService;
 import com.carsil.userapi.service.ProductService;
+import com.carsil.userapi.service.ResourceVersions;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Consumer;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(ProductController.class)
+@Import(ResourceVersions.class)
 @WithMockUser(username = "test", roles = {"USER"})
 class ProductControllerTest {
 
@@ -36,6 +58,15 @@ class ProductControllerTest {
     @MockBean
     private ProductService productService;
 
+    @MockBean
+    private ProductImportService productImportService;
+
+    @MockBean
+    private ProductBoardBroadcaster boardBroadcaster;
+
+    @MockBean
+    private ProductExportService productExportService;
+
     private ObjectMapper objectMapper;
 
     @BeforeEach
@@ -55,7 +86,7 @@ class ProductControllerTest {
         p2.setId(20L);
         p2.setReference("REF20");
 
-        Mockito.when(productService.getAll()).thenReturn(List.of(p1, p2));
+        Mockito.when(productService.getAll()).thenReturn(List.of(ProductView.of(p1), ProductView.of(p2)));
 
         mvc.perform(get("/api/products"))
                 .andExpect(status().isOk())
@@ -66,6 +97,132 @@ class ProductControllerTest {
 
 
 
+    @Test
+    void getProducts_returns304_whenTagMatches() throws Exception {
+        Mockito.when(productService.getAll()).thenReturn(List.of());
+
+        String etag = mvc.perform(get("/api/products"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mvc.perform(get("/api/products").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+
+        Mockito.verify(productService, Mockito.times(1)).getAll();
+    }
+
+    @Test
+    void getProducts_negotiatesCbor_withItsOwnTag() throws Exception {
+        Product p = new Product();
+        p.setId(10L);
+        Mockito.when(productService.getAll()).thenReturn(List.of(ProductView.of(p)));
+
+        String json = mvc.perform(get("/api/products"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        MvcResult cbor = mvc.perform(get("/api/products").accept("application/cbor"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/cbor"))
+                .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT)))
+                .andReturn();
+
+        assertThat(cbor.getResponse().getHeader(HttpHeaders.ETAG)).isNotEqualTo(json);
+        assertThat(new CBORMapper().readTree(cbor.getResponse().getContentAsByteArray()).get(0).get("id").asLong())
+                .isEqualTo(10L);
+    }
+
+    @Test
+    void getProducts_tagsTheNegotiatedType_notEveryFormatNamedInAccept() throws Exception {
+        Mockito.when(productService.getAll()).thenReturn(List.of());
+
+        String json = mvc.perform(get("/api/products"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        MvcResult preferred = mvc.perform(get("/api/products").accept("application/json, application/cbor;q=0.5"))
+                .andExpect(status().isOk())
+                .andReturn();
+        MvcResult any = mvc.perform(get("/api/products").accept("*/*"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertThat(preferred.getResponse().getContentType()).startsWith(MediaType.APPLICATION_JSON_VALUE);
+        assertThat(preferred.getResponse().getHeader(HttpHeaders.ETAG)).isEqualTo(json);
+        assertThat(any.getResponse().getContentType()).startsWith(MediaType.APPLICATION_JSON_VALUE);
+        assertThat(any.getResponse().getHeader(HttpHeaders.ETAG)).isEqualTo(json);
+
+        mvc.perform(get("/api/products").accept("application/cbor;q=0.5, application/json")
+                        .header(HttpHeaders.IF_NONE_MATCH, json))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void getProductPage_returnsSliceWithCursor() throws Exception {
+        Product p1 = new Product();
+        p1.setId(1L);
+        Product p2 = new Product();
+        p2.setId(2L);
+        ProductSlice slice = ProductSlice.builder()
+                .content(List.of(ProductView.of(p1), ProductView.of(p2))).size(2).hasNext(true).nextCursor("2").build();
+
+        Mockito.when(productService.getPage(eq("id"), isNull(), eq(2))).thenReturn(slice);
+
+        mvc.perform(get("/api/products/page").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(2)))
+                .andExpect(jsonPath("$.hasNext", is(true)))
+                .andExpect(jsonPath("$.nextCursor", is("2")));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void streamProducts_writesJsonArray() throws Exception {
+        Product p1 = new Product();
+        p1.setId(7L);
+        p1.setReference("REF7");
+        Product p2 = new Product();
+        p2.setId(8L);
+        p2.setReference("REF8");
+
+        Mockito.doAnswer(inv -> {
+            Consumer<ProductView> sink = inv.getArgument(0);
+            sink.accept(ProductView.of(p1));
+            sink.accept(ProductView.of(p2));
+            return null;
+        }).when(productService).streamAll(any(Consumer.class));
+
+        MvcResult result = mvc.perform(get("/api/products/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[1].reference", is("REF8")));
+    }
+
+    @Test
+    void exportProducts_streamsAnAttachment_withTheRequestedFilters() throws Exception {
+        ProductExportService.Export export = new ProductExportService.Export(
+                ProductExportService.Format.CSV, List.of(), ProductExportFilter.NONE);
+        Mockito.when(productExportService.prepare(eq("csv"), eq(List.of("op", "brand")),
+                eq(new ProductExportFilter("nike", LocalDate.of(2024, 1, 1), null)))).thenReturn(export);
+        Mockito.doAnswer(inv -> {
+            inv.getArgument(1, OutputStream.class).write("op,brand\r\n".getBytes(StandardCharsets.UTF_8));
+            return 0L;
+        }).when(productExportService).write(eq(export), any(OutputStream.class));
+
+        MvcResult result = mvc.perform(get("/api/products/export")
+                        .param("columns", "op,brand").param("q", "nike").param("startDate", "2024-01-01"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "text/csv;charset=UTF-8"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, containsString("attachment; filename=\"products-")))
+                .andExpect(content().string("op,brand\r\n"));
+    }
+
     @Test
     void createProduct_callsService_andReturnsSaved() throws Exception {
         Product productToSave = new Product();
@@ -157,7 +314,7 @@ class ProductControllerTest {
         p2.setQuantity(10);
         p2.setType("TypeB");
 
-        Mockito.when(productService.search("nike")).thenReturn(List.of(p1, p2));
+        Mockito.when(productService.search("nike")).thenReturn(List.of(ProductView.of(p1), ProductView.of(p2)));
 
         mvc.perform(get("/api/products/search")
                         .param("q", "nike"))
@@ -0,0 +1,100 @@
+package com.carsil.userapi.migration;
+
+import com.carsil.userapi.model.Product;
+import com.carsil.userapi.model.enums.Size;
+import com.carsil.userapi.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+// the migration writes through its own connection, so the test cannot run inside a rolled-back transaction
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PackSizeBreakdownsTest {
+
+    private final V3_1__PackSizeBreakdowns migration = new V3_1__PackSizeBreakdowns(2);
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // the legacy table is part of the V1 baseline, so it exists even on a fresh database
+    @BeforeEach
+    @AfterEach
+    void clean() {
+        jdbcTemplate.execute("DELETE FROM " + V3_1__PackSizeBreakdowns.LEGACY_TABLE);
+        productRepository.deleteAllInBatch();
+    }
+
+    // a product as the old mapping left it: no packed column, sizes in the legacy table
+    private long legacy(String op, Map<String, Integer> sizes) {
+        Product p = new Product();
+        p.setOp(op);
+        p.setReference("100");
+        p.setBrand("Carsil");
+        p.setCampaign("1");
+        p.setType("A1");
+        p.setPrice(BigDecimal.TEN);
+        p.setQuantity(Math.max(1, sizes.values().stream().mapToInt(Integer::intValue).sum()));
+        p.setSizeQuantities(Map.of("S", p.getQuantity()));
+        p.setAssignedDate(LocalDate.now());
+        long id = productRepository.save(p).getId();
+        jdbcTemplate.update("UPDATE carsil_product SET size_units = NULL WHERE id = ?", id);
+        sizes.forEach((size, units) -> jdbcTemplate.update(
+                "INSERT INTO " + V3_1__PackSizeBreakdowns.LEGACY_TABLE + " (product_id, size, units) VALUES (?, ?, ?)", id, size, units));
+        return id;
+    }
+
+    private V3_1__PackSizeBreakdowns.Result migrate() {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            return migration.migrate(connection);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    @Test
+    void migrate_packsLegacyRowsInBatches_andKeepsUnknownSizes() {
+        long a = legacy("1", Map.of("S", 4, "M", 6));
+        long b = legacy("2", Map.of("xl", 2, "14", 1));
+        long c = legacy("3", Map.of("L", 5, "3XL", 1));
+        long none = legacy("4", Map.of());
+
+        V3_1__PackSizeBreakdowns.Result result = migrate();
+
+        assertThat(result.products()).isEqualTo(3);
+        assertThat(result.rows()).isEqualTo(5);
+        assertThat(result.unknownRows()).isEqualTo(1);
+        assertThat(result.empty()).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM carsil_product WHERE size_units IS NULL", Integer.class)).isZero();
+        assertThat(productRepository.findById(none).orElseThrow().getSizeQuantities()).isEmpty();
+        assertThat(productRepository.findById(a).orElseThrow().getSizeQuantities()).isEqualTo(Map.of("S", 4, "M", 6));
+        assertThat(productRepository.findById(b).orElseThrow().getSizes().units(Size.T14)).isEqualTo(1);
+        assertThat(productRepository.findById(c).orElseThrow().getSizeQuantities()).isEqualTo(Map.of("L", 5));
+        assertThat(jdbcTemplate.queryForList("SELECT size FROM " + V3_1__PackSizeBreakdowns.LEGACY_TABLE, String.class))
+                .containsExactly("3XL");
+
+        // a second run finds nothing left to convert
+        assertThat(migrate().products()).isZero();
+    }
+}
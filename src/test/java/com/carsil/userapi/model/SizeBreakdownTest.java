@@ -0,0 +1,70 @@
+package com.carsil.userapi.model;
+
+import com.carsil.userapi.model.enums.Size;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SizeBreakdownTest {
+
+    @Test
+    void packedLength_coversEverySize() {
+        assertThat(SizeBreakdown.PACKED_LENGTH).isEqualTo(Size.values().length * Integer.BYTES);
+    }
+
+    @Test
+    void of_acceptsLabelsAndNames_andClampsNegativeUnits() {
+        Map<String, Integer> sizes = new HashMap<>();
+        sizes.put("m", 6);
+        sizes.put("T2", 3);
+        sizes.put(" xxl ", -4);
+        sizes.put("S", null);
+
+        SizeBreakdown b = SizeBreakdown.of(sizes);
+
+        assertThat(b.units(Size.M)).isEqualTo(6);
+        assertThat(b.units(Size.T2)).isEqualTo(3);
+        assertThat(b.total()).isEqualTo(9);
+        assertThat(b.toMap()).containsExactly(Map.entry("2", 3), Map.entry("M", 6));
+    }
+
+    @Test
+    void of_rejectsUnknownSizes() {
+        assertThatThrownBy(() -> SizeBreakdown.of(Map.of("XXXL", 1)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("XXXL");
+    }
+
+    @Test
+    void pack_roundTrips() {
+        int[] units = new int[Size.values().length];
+        units[0] = 1;
+        units[9] = 70_000;
+        units[13] = Integer.MAX_VALUE - 70_001;
+        SizeBreakdown b = SizeBreakdown.of(units);
+
+        byte[] packed = b.pack();
+
+        assertThat(packed).hasSize(SizeBreakdown.PACKED_LENGTH);
+        assertThat(SizeBreakdown.unpack(packed)).isEqualTo(b);
+        assertThat(SizeBreakdown.unpack(new byte[SizeBreakdown.PACKED_LENGTH])).isEqualTo(SizeBreakdown.EMPTY);
+    }
+
+    @Test
+    void validate_rejectsCorruptRows() {
+        byte[] packed = SizeBreakdown.EMPTY.pack();
+        packed[0] = (byte) 0xFF;
+        assertThatThrownBy(() -> SizeBreakdown.unpack(packed).validate())
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("negative");
+
+        int[] units = new int[Size.values().length];
+        units[0] = Integer.MAX_VALUE;
+        units[1] = 1;
+        assertThatThrownBy(() -> SizeBreakdown.of(units)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,94 @@
+package com.carsil.userapi.repository;
+
+import com.carsil.userapi.dto.ModuleLoadDrift;
+import com.carsil.userapi.model.Module;
+import com.carsil.userapi.model.Product;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+class ModuleRepositoryTest {
+
+    @Autowired
+    private ModuleRepository moduleRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Module module(String name, int people) {
+        Module m = new Module();
+        m.setName(name);
+        m.setNumPersons(people);
+        return moduleRepository.save(m);
+    }
+
+    private void product(String op, Module m, int samTotal) {
+        Map<String, Integer> sizes = new HashMap<>();
+        sizes.put("M", 10);
+        Product p = new Product();
+        p.setOp(op);
+        p.setReference("100");
+        p.setBrand("Carsil");
+        p.setCampaign("1");
+        p.setType("A1");
+        p.setPrice(BigDecimal.TEN);
+        p.setQuantity(10);
+        p.setSizeQuantities(sizes);
+        p.setAssignedDate(LocalDate.now());
+        p.setModule(m);
+        p.setSamTotal(samTotal);
+        productRepository.save(p);
+    }
+
+    private Module reload(Module m) {
+        entityManager.flush();
+        entityManager.clear();
+        return moduleRepository.findById(m.getId()).orElseThrow();
+    }
+
+    @Test
+    void recomputeSamTotals_onlyTouchesTheGivenModules() {
+        Module a = module("Modulo A", 3);
+        Module b = module("Modulo B", 3);
+        product("601", a, 900);
+        product("602", b, 300);
+        entityManager.flush();
+
+        moduleRepository.recomputeSamTotals(java.util.List.of(a.getId()));
+
+        assertThat(reload(a).getSamTotalSum()).isEqualTo(900L);
+        assertThat(reload(b).getSamTotalSum()).isNull();
+    }
+
+    @Test
+    void rebuildSamTotals_fixesDrift() {
+        Module m = module("Modulo 2", 2);
+        product("501", m, 1620);
+        product("502", m, 1620);
+        entityManager.flush();
+
+        List<ModuleLoadDrift> drift = moduleRepository.findSamTotalDrift();
+        assertThat(drift).containsExactly(new ModuleLoadDrift(m.getId(), 0L, 3240L));
+
+        moduleRepository.rebuildSamTotals();
+
+        assertThat(moduleRepository.findSamTotalDrift()).isEmpty();
+        Module reloaded = reload(m);
+        assertThat(reloaded.getSamTotalSum()).isEqualTo(3240L);
+        // 3240 / 60 / 9 / 2 * 1.35
+        assertThat(reloaded.getTotaLoadDays()).isEqualByComparingTo("4.05");
+    }
+}
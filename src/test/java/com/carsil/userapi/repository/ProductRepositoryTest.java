@@ -0,0 +1,204 @@
+package com.carsil.userapi.repository;
+
+import com.carsil.userapi.dto.KpiDimension;
+import com.carsil.userapi.dto.KpiFilter;
+import com.carsil.userapi.dto.ProductKpi;
+import com.carsil.userapi.dto.ProductView;
+import com.carsil.userapi.model.Module;
+import com.carsil.userapi.model.Product;
+import com.carsil.userapi.model.enums.ProductionStatus;
+import org.junit.jupiter.api.Test;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest
+class ProductRepositoryTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Product product(String op, LocalDate assigned) {
+        Map<String, Integer> sizes = new HashMap<>();
+        sizes.put("S", 5);
+        sizes.put("M", 5);
+        Product p = new Product();
+        p.setOp(op);
+        p.setReference("100");
+        p.setBrand("Carsil");
+        p.setCampaign("1");
+        p.setType("A1");
+        p.setPrice(BigDecimal.TEN);
+        p.setQuantity(10);
+        p.setSizeQuantities(sizes);
+        p.setAssignedDate(assigned);
+        return productRepository.save(p);
+    }
+
+    @Test
+    void productWithoutPackedSizes_readsAsAnEmptyBreakdown() {
+        Product p = product("20", LocalDate.now());
+        entityManager.flush();
+        entityManager.createNativeQuery("UPDATE carsil_product SET size_units = NULL WHERE id = :id")
+                .setParameter("id", p.getId())
+                .executeUpdate();
+        entityManager.clear();
+
+        assertThat(productRepository.findById(p.getId()).orElseThrow().getSizeQuantities()).isEmpty();
+    }
+
+    @Test
+    void findByIdGreaterThan_pagesWithoutGaps() {
+        LocalDate today = LocalDate.now();
+        Product a = product("1", today);
+        Product b = product("2", today);
+        Product c = product("3", today);
+
+        Slice<ProductView> first = productRepository.findViewsAfterId(0L, PageRequest.ofSize(2));
+        assertThat(first.getContent()).extracting(ProductView::id).containsExactly(a.getId(), b.getId());
+        assertThat(first.hasNext()).isTrue();
+
+        Slice<ProductView> second = productRepository.findViewsAfterId(b.getId(), PageRequest.ofSize(2));
+        assertThat(second.getContent()).extracting(ProductView::id).containsExactly(c.getId());
+        assertThat(second.hasNext()).isFalse();
+    }
+
+    @Test
+    void findAfterAssignedDate_breaksTiesById() {
+        LocalDate d1 = LocalDate.of(2024, 1, 10);
+        LocalDate d2 = LocalDate.of(2024, 1, 11);
+        Product late = product("10", d2);
+        Product early1 = product("11", d1);
+        Product early2 = product("12", d1);
+
+        Slice<ProductView> first = productRepository.findViewsOrderByAssignedDate(PageRequest.ofSize(1));
+        assertThat(first.getContent()).extracting(ProductView::id).containsExactly(early1.getId());
+
+        List<ProductView> rest = productRepository
+                .findViewsAfterAssignedDate(d1, early1.getId(), PageRequest.ofSize(10)).getContent();
+        assertThat(rest).extracting(ProductView::id).containsExactly(early2.getId(), late.getId());
+    }
+
+    @Test
+    void views_matchTheEntityWithoutLoadingIt() {
+        Module m = new Module();
+        m.setName("M1");
+        m.setNumPersons(4);
+        entityManager.persist(m);
+        Product assigned = product("50", LocalDate.of(2024, 3, 1));
+        assigned.setModule(m);
+        assigned.setSam(1.5);
+        assigned.setQuantityMade(4);
+        assigned.setMissing(6);
+        assigned.setSamTotal(9);
+        Product unassigned = product("51", LocalDate.of(2024, 3, 2));
+        entityManager.flush();
+        entityManager.clear();
+
+        List<ProductView> views = productRepository.findViewsByIdIn(List.of(assigned.getId(), unassigned.getId()));
+        assertThat(entityManager.unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+
+        Map<Long, ProductView> byId = new HashMap<>();
+        views.forEach(v -> byId.put(v.id(), v));
+        assertThat(byId.get(assigned.getId()))
+                .isEqualTo(ProductView.of(productRepository.findById(assigned.getId()).orElseThrow()));
+        assertThat(byId.get(assigned.getId()).module().name()).isEqualTo("M1");
+        assertThat(byId.get(assigned.getId()).sizeQuantities()).containsEntry("S", 5).containsEntry("M", 5);
+        assertThat(byId.get(unassigned.getId()).module()).isNull();
+        assertThat(productRepository.findViewsByModuleId(m.getId())).extracting(ProductView::id)
+                .containsExactly(assigned.getId());
+    }
+
+    @Test
+    void applyMadeDelta_updatesDerivedColumnsInOneStatement() {
+        Product p = product("20", LocalDate.now());
+        p.setSam(2.5);
+        p.setMissing(10);
+        p.setSamTotal(25);
+        productRepository.saveAndFlush(p);
+
+        assertThat(productRepository.applyMadeDelta(p.getId(), 3)).isEqualTo(1);
+        assertThat(productRepository.applyMadeDelta(p.getId(), 4)).isEqualTo(1);
+
+        Product reloaded = productRepository.findById(p.getId()).orElseThrow();
+        assertThat(reloaded.getQuantityMade()).isEqualTo(7);
+        assertThat(reloaded.getMissing()).isEqualTo(3);
+        // round(2.5 * 3)
+        assertThat(reloaded.getSamTotal()).isEqualTo(8);
+    }
+
+    @Test
+    void applyMadeDelta_rejectsOutOfBoundsWithoutWriting() {
+        Product p = product("21", LocalDate.now());
+
+        assertThat(productRepository.applyMadeDelta(p.getId(), 11)).isZero();
+        assertThat(productRepository.applyMadeDelta(p.getId(), -1)).isZero();
+        assertThat(productRepository.applyMadeDelta(p.getId() + 1000, 1)).isZero();
+
+        entityManager.clear();
+        assertThat(productRepository.findById(p.getId()).orElseThrow().getQuantityMade()).isZero();
+    }
+
+    @Test
+    void findByNaturalOp_resolvesThroughNaturalId() {
+        Product p = product("30", LocalDate.now());
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(productRepository.findByNaturalOp("30")).map(Product::getId).contains(p.getId());
+        assertThat(productRepository.findByNaturalOp("missing")).isEmpty();
+    }
+
+    @Test
+    void aggregate_groupsInTheDatabaseAndAppliesDateBounds() {
+        Module m = new Module();
+        m.setName("M1");
+        m.setNumPersons(3);
+        entityManager.persist(m);
+        Product a = product("40", LocalDate.of(2024, 3, 1));
+        a.setModule(m);
+        a.setQuantityMade(4);
+        a.setStatus(ProductionStatus.CONFECCION);
+        Product b = product("41", LocalDate.of(2024, 3, 5));
+        b.setModule(m);
+        b.setBrand("Otra");
+        product("42", LocalDate.of(2024, 4, 1));
+        entityManager.flush();
+
+        List<ProductKpi> byModule = productRepository.aggregate(KpiDimension.MODULE, KpiFilter.NONE);
+        assertThat(byModule).extracting(ProductKpi::key, ProductKpi::label, ProductKpi::products, ProductKpi::quantity)
+                .containsExactlyInAnyOrder(
+                        tuple(m.getId().toString(), "M1", 2L, 20L),
+                        tuple(null, null, 1L, 10L));
+        ProductKpi module = byModule.stream().filter(k -> k.key() != null).findFirst().orElseThrow();
+        assertThat(module.quantityMade()).isEqualTo(4);
+        assertThat(module.progress()).isEqualTo(0.2);
+        assertThat(module.totalPrice()).isEqualByComparingTo("200");
+
+        assertThat(productRepository.aggregate(KpiDimension.STATUS, KpiFilter.NONE))
+                .extracting(ProductKpi::key, ProductKpi::label, ProductKpi::products)
+                .containsExactly(tuple("CONFECCION", "CONFECCIÓN", 1L), tuple("PROCESO", "PROCESO", 2L));
+
+        KpiFilter march = new KpiFilter(LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 31), null, null);
+        assertThat(productRepository.aggregate(KpiDimension.BRAND, march))
+                .extracting(ProductKpi::key, ProductKpi::products)
+                .containsExactly(tuple("Carsil", 1L), tuple("Otra", 1L));
+        assertThat(productRepository.aggregate(null, march))
+                .singleElement().extracting(ProductKpi::products).isEqualTo(2L);
+    }
+}
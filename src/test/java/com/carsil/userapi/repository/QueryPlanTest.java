@@ -0,0 +1,175 @@
+package com.carsil.userapi.repository;
+
+import com.carsil.userapi.dto.KpiDimension;
+import com.carsil.userapi.dto.KpiFilter;
+import com.carsil.userapi.dto.ProductExportFilter;
+import com.carsil.userapi.model.Module;
+import com.carsil.userapi.model.enums.RollupGranularity;
+import com.carsil.userapi.model.enums.RollupScope;
+import org.assertj.core.api.SoftAssertions;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs every repository query, captures the SQL Hibernate sends, and fails if its {@code EXPLAIN}
+ * shows a full scan of a table the query is not meant to read whole. Queries that read a whole
+ * table by design say so with {@link #scans}.
+ */
+@DataJpaTest
+@TestPropertySource(properties = {
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.carsil.userapi.repository.QueryPlanTest$Capture",
+        // a cached result sends no SQL, and the JCache provider outlives each test context
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false"
+})
+class QueryPlanTest {
+
+    public static class Capture implements StatementInspector {
+        static final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+    }
+
+    private static final Pattern TABLE_SCAN = Pattern.compile("/\\* \\w+\\.(\\w+)\\.tableScan", Pattern.CASE_INSENSITIVE);
+
+    private static final LocalDate FROM = LocalDate.of(2024, 1, 1);
+    private static final LocalDate TO = LocalDate.of(2024, 12, 31);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ModuleRepository moduleRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProgressEventRepository eventRepository;
+
+    @Autowired
+    private ProgressRollupRepository rollupRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final SoftAssertions softly = new SoftAssertions();
+
+    @Test
+    void productQueries_useIndexes() {
+        Module module = moduleRepository.getReferenceById(1L);
+        indexed("existsByOp", () -> productRepository.existsByOp("1"));
+        indexed("existsByOpAndIdNot", () -> productRepository.existsByOpAndIdNot("1", 1L));
+        indexed("findByOp", () -> productRepository.findByOp("1"));
+        indexed("findByNaturalOp", () -> productRepository.findByNaturalOp("1"));
+        indexed("findExistingOps", () -> productRepository.findExistingOps(List.of("1", "2")));
+        indexed("findById", () -> productRepository.findById(1L));
+        indexed("findViewsByIdIn", () -> productRepository.findViewsByIdIn(List.of(1L, 2L)));
+        indexed("findViewsByModuleId", () -> productRepository.findViewsByModuleId(1L));
+        indexed("findViewsByPlantEntryDateBetween", () -> productRepository.findViewsByPlantEntryDateBetween(FROM, TO));
+        indexed("findByPlantEntryDateBetween(page)",
+                () -> productRepository.findByPlantEntryDateBetween(FROM, TO, PageRequest.of(1, 10)));
+        indexed("findViewsAfterId", () -> productRepository.findViewsAfterId(0L, PageRequest.ofSize(10)));
+        indexed("findViewsOrderByAssignedDate", () -> productRepository.findViewsOrderByAssignedDate(PageRequest.ofSize(10)));
+        indexed("findViewsAfterAssignedDate",
+                () -> productRepository.findViewsAfterAssignedDate(FROM, 1L, PageRequest.ofSize(10)));
+        indexed("streamViews(dates)", () -> productRepository
+                .streamViews(new ProductExportFilter(null, FROM, TO)).findFirst());
+        indexed("findMaxId", () -> productRepository.findMaxId());
+        indexed("findSearchRows", () -> productRepository.findSearchRows(1, 500));
+        indexed("applyMadeDelta", () -> productRepository.applyMadeDelta(1L, 1));
+        indexed("assignUnassigned", () -> productRepository.assignUnassigned(List.of(1L, 2L), module));
+        indexed("reassign", () -> productRepository.reassign(List.of(1L, 2L), module, module));
+        indexed("aggregate(assigned)", () -> productRepository.aggregate(KpiDimension.MODULE, new KpiFilter(FROM, TO, null, null)));
+        indexed("aggregate(plantEntry)", () -> productRepository.aggregate(KpiDimension.STATUS, new KpiFilter(null, null, FROM, TO)));
+
+        // whole-table reads by design: substring search, snapshots and exports
+        scans("searchViews", Set.of("carsil_product"), () -> productRepository.searchViews("1"));
+        scans("findAll", Set.of("carsil_product"), () -> productRepository.findAll());
+        scans("findAllViews", Set.of("carsil_product"), () -> productRepository.findAllViews());
+        scans("streamViews(q)", Set.of("carsil_product"), () -> productRepository
+                .streamViews(new ProductExportFilter("1", null, null)).findFirst());
+        scans("streamViewsOrderById", Set.of("carsil_product"), () -> productRepository.streamViewsOrderById().findFirst());
+        scans("findLoadRows", Set.of("carsil_product"), () -> productRepository.findLoadRows());
+        scans("findSchedulingRows", Set.of("carsil_product"), () -> productRepository.findSchedulingRows());
+        scans("aggregate(all)", Set.of("carsil_product"), () -> productRepository.aggregate(KpiDimension.STATUS, KpiFilter.NONE));
+        softly.assertAll();
+    }
+
+    @Test
+    void moduleQueries_useIndexes() {
+        indexed("findById", () -> moduleRepository.findById(1L));
+        indexed("findLoadSnapshots", () -> moduleRepository.findLoadSnapshots(List.of(1L, 2L)));
+        indexed("recomputeSamTotals", () -> moduleRepository.recomputeSamTotals(List.of(1L, 2L)));
+
+        // every module, but the per-module SUM must come from ix_product_module_sam
+        scans("rebuildSamTotals", Set.of("carsil_modules"), () -> moduleRepository.rebuildSamTotals());
+        scans("findSamTotalDrift", Set.of("carsil_modules"), () -> moduleRepository.findSamTotalDrift());
+        scans("findAll", Set.of("carsil_modules"), () -> moduleRepository.findAll());
+        scans("findByNameContainingIgnoreCase", Set.of("carsil_modules"), () -> moduleRepository.findByNameContainingIgnoreCase("a"));
+        softly.assertAll();
+    }
+
+    @Test
+    void userAndProgressQueries_useIndexes() {
+        indexed("findByName", () -> userRepository.findByName("ana"));
+        indexed("findByProductIdOrderByOccurredAtDescIdDesc",
+                () -> eventRepository.findByProductIdOrderByOccurredAtDescIdDesc(1L, PageRequest.ofSize(10)));
+        indexed("findSeries", () -> rollupRepository.findSeries(RollupScope.MODULE, "1", RollupGranularity.DAY,
+                FROM.atStartOfDay(), LocalDateTime.of(2025, 1, 1, 0, 0)));
+        softly.assertAll();
+    }
+
+    private void indexed(String query, Runnable call) {
+        scans(query, Set.of(), call);
+    }
+
+    private void scans(String query, Set<String> allowed, Runnable call) {
+        Capture.statements.clear();
+        call.run();
+        List<String> statements = List.copyOf(Capture.statements);
+        softly.assertThat(statements).as(query + " ran no SQL").isNotEmpty();
+        for (String sql : statements) {
+            String plan = explain(sql);
+            Matcher m = TABLE_SCAN.matcher(plan);
+            while (m.find()) {
+                String table = m.group(1).toLowerCase(Locale.ROOT);
+                softly.assertThat(allowed).as("%s scans %s:%n%s", query, table, plan).contains(table);
+            }
+        }
+    }
+
+    // parameters only need a type for the plan; H2 does not peek at their values
+    private String explain(String sql) {
+        return jdbcTemplate.execute((Connection c) -> {
+            try (PreparedStatement ps = c.prepareStatement("EXPLAIN " + sql)) {
+                int count = ps.getParameterMetaData().getParameterCount();
+                for (int i = 1; i <= count; i++) ps.setNull(i, Types.NULL);
+                StringBuilder plan = new StringBuilder();
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) plan.append(rs.getString(1)).append('\n');
+                }
+                return plan.toString();
+            }
+        });
+    }
+}
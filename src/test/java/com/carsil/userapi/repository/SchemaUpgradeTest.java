@@ -0,0 +1,94 @@
+package com.carsil.userapi.repository;
+
+import com.carsil.userapi.model.SizeBreakdown;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.test.context.TestPropertySource;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A database that ddl-auto=update created before migrations existed: no Flyway history, the V1
+ * schema and some rows. Starting the application on it must baseline it at V1, apply every later
+ * migration, including the Java ones, and leave a schema Hibernate validates.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+        "spring.datasource.url=" + SchemaUpgradeTest.URL,
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=validate"
+})
+class SchemaUpgradeTest {
+
+    static final String URL = "jdbc:h2:mem:pre-flyway;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void createBaselineDatabase() throws Exception {
+        try (Connection c = DriverManager.getConnection(URL, "sa", "");
+             Statement s = c.createStatement()) {
+            ScriptUtils.executeSqlScript(c, new ClassPathResource("db/migration/h2/V1__baseline.sql"));
+            s.execute("INSERT INTO carsil_modules (id, name, num_persons, load_days) VALUES (1, 'M1', 10, 2.50)");
+            s.execute("INSERT INTO carsil_modules (id, name, num_persons, load_days) VALUES (2, 'M2', 8, NULL)");
+            for (int i = 1; i <= 3; i++) {
+                s.execute("INSERT INTO carsil_product (id, op, reference, brand, campaign, type, price, quantity,"
+                        + " quantity_made, sam_total, status, assigned_date, module_id)"
+                        + " VALUES (" + i + ", '90" + i + "', 'R', 'B', 'C', 'T', 1, 10, 0, " + i * 100
+                        + ", 'ASIGNADO', DATE '2024-01-01', 1)");
+            }
+            s.execute("INSERT INTO product_size_quantities (product_id, size, units) VALUES (1, 'S', 4), (1, 'M', 6)");
+        }
+    }
+
+    @Test
+    void baselinesAtV1_andAppliesEveryLaterMigration() {
+        assertThat(Arrays.stream(flyway.info().applied()).map(MigrationInfo::getVersion).map(Object::toString))
+                .containsExactly("1", "2", "3", "3.1", "4", "5");
+        assertThat(flyway.info().applied()[0].getType().isBaseline()).isTrue();
+
+        assertThat(jdbcTemplate.queryForList("SELECT sam_total_sum FROM carsil_modules ORDER BY id", Long.class))
+                .containsExactly(600L, 0L);
+        assertThat(columnExists("CARSIL_MODULES", "LOAD_DAYS")).isFalse();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM carsil_progress_rollup", Integer.class)).isZero();
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.indexes WHERE index_name = 'IX_PRODUCT_MODULE_SAM'", Integer.class))
+                .isEqualTo(1);
+    }
+
+    @Test
+    void legacySizeRows_arePackedBeforeTheApplicationStarts() {
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM product_size_quantities", Integer.class)).isZero();
+        assertThat(SizeBreakdown.unpack(jdbcTemplate.queryForObject(
+                "SELECT size_units FROM carsil_product WHERE id = 1", byte[].class)).toMap())
+                .isEqualTo(Map.of("S", 4, "M", 6));
+        assertThat(jdbcTemplate.queryForList("SELECT size_units FROM carsil_product WHERE id > 1", byte[].class))
+                .allSatisfy(packed -> assertThat(SizeBreakdown.unpack(packed)).isEqualTo(SizeBreakdown.EMPTY));
+    }
+
+    private boolean columnExists(String table, String column) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.columns WHERE table_name = ? AND column_name = ?",
+                Integer.class, table, column) > 0;
+    }
+}
@@ -0,0 +1,105 @@
+package com.carsil.userapi.repository;
+
+import com.carsil.userapi.model.Module;
+import com.carsil.userapi.model.Product;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** The native progress and load updates evict the rows they change and nothing else. */
+@DataJpaTest
+// entries only reach the second-level cache once the rows are committed
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TouchedRowsTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ModuleRepository moduleRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Cache cache;
+
+    @BeforeEach
+    void cache() {
+        cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+
+    @AfterEach
+    void clean() {
+        productRepository.deleteAllInBatch();
+        moduleRepository.deleteAllInBatch();
+        cache.evictAllRegions();
+    }
+
+    private Module module(String name) {
+        Module m = new Module();
+        m.setName(name);
+        m.setNumPersons(3);
+        return moduleRepository.save(m);
+    }
+
+    private Product product(String op, Module m) {
+        Product p = new Product();
+        p.setOp(op);
+        p.setReference("100");
+        p.setBrand("Carsil");
+        p.setCampaign("1");
+        p.setType("A1");
+        p.setPrice(BigDecimal.TEN);
+        p.setQuantity(10);
+        p.setSizeQuantities(Map.of("M", 10));
+        p.setAssignedDate(LocalDate.now());
+        p.setModule(m);
+        p.setSamTotal(400);
+        return productRepository.save(p);
+    }
+
+    @Test
+    void applyMadeDelta_evictsOnlyThatProduct() {
+        Product a = product("801", null);
+        Product b = product("802", null);
+        productRepository.findById(a.getId());
+        productRepository.findById(b.getId());
+        assertThat(cache.containsEntity(Product.class, a.getId())).isTrue();
+
+        assertThat(productRepository.applyMadeDelta(a.getId(), 2)).isEqualTo(1);
+
+        assertThat(cache.containsEntity(Product.class, a.getId())).isFalse();
+        assertThat(cache.containsEntity(Product.class, b.getId())).isTrue();
+        assertThat(productRepository.findById(a.getId()).orElseThrow().getQuantityMade()).isEqualTo(2);
+    }
+
+    @Test
+    void recomputeSamTotals_evictsOnlyTheGivenModules() {
+        Module a = module("Modulo E");
+        Module b = module("Modulo F");
+        product("803", a);
+        moduleRepository.findById(a.getId());
+        moduleRepository.findById(b.getId());
+        assertThat(cache.containsEntity(Module.class, a.getId())).isTrue();
+
+        assertThat(moduleRepository.recomputeSamTotals(List.of(a.getId()))).isEqualTo(1);
+
+        assertThat(cache.containsEntity(Module.class, a.getId())).isFalse();
+        assertThat(cache.containsEntity(Module.class, b.getId())).isTrue();
+        assertThat(moduleRepository.findById(a.getId()).orElseThrow().getSamTotalSum()).isEqualTo(400L);
+    }
+}
@@ -0,0 +1,170 @@
+package com.carsil.userapi.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static com.carsil.userapi.service.CapacityScheduler.NO_DUE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class CapacitySchedulerTest {
+
+    private static final long BUDGET = TimeUnit.SECONDS.toNanos(1);
+
+    private static CapacityScheduler.Result solve(double[] capacity, double[] pinned, int[] sam, double[] due, int[] current) {
+        return new CapacityScheduler(capacity, pinned, sam, due, current, 10)
+                .solve(10_000, BUDGET, ForkJoinPool.commonPool());
+    }
+
+    private static int[] unassigned(int n) {
+        int[] current = new int[n];
+        Arrays.fill(current, -1);
+        return current;
+    }
+
+    private static double[] noDue(int n) {
+        double[] due = new double[n];
+        Arrays.fill(due, NO_DUE);
+        return due;
+    }
+
+    @Test
+    void balancesTheMakespan() {
+        // 5+4 | 3+3+3 is the only split reaching 9
+        int[] sam = {500, 400, 300, 300, 300};
+        CapacityScheduler.Result r = solve(new double[]{100, 100}, new double[2], sam, noDue(5), unassigned(5));
+
+        assertThat(r.makespan()).isCloseTo(9, within(1e-9));
+        assertThat(r.lateDays()).isZero();
+    }
+
+    @Test
+    void accountsForPinnedLoadAndCapacity() {
+        // module 0 is already busy for 5 days; module 1 is twice as fast
+        int[] sam = {200, 200, 200};
+        CapacityScheduler.Result r = solve(new double[]{100, 200}, new double[]{500, 0}, sam, noDue(3), unassigned(3));
+
+        assertThat(r.assignment()).containsOnly(1);
+        assertThat(r.makespan()).isCloseTo(5, within(1e-9));
+    }
+
+    @Test
+    void placesUrgentWorkWhereItFinishesInTime() {
+        // module 0 is idle but slow; only module 1 can finish the urgent product within a day
+        int[] sam = {200, 1000};
+        double[] due = {1, NO_DUE};
+        CapacityScheduler.Result r = solve(new double[]{100, 400}, new double[]{0, 0}, sam, due, unassigned(2));
+
+        assertThat(r.assignment()[0]).isEqualTo(1);
+        assertThat(r.lateDays()).isZero();
+        assertThat(r.finishDays()[0]).isLessThanOrEqualTo(1);
+    }
+
+    @Test
+    void movesWorkOffAnOverloadedModule() {
+        int[] sam = {300, 300};
+        CapacityScheduler scheduler = new CapacityScheduler(new double[]{100, 100}, new double[2], sam, noDue(2), new int[]{0, 0}, 10);
+        assertThat(scheduler.evaluate()[0]).isCloseTo(6, within(1e-9));
+
+        CapacityScheduler.Result r = scheduler.solve(10_000, BUDGET, ForkJoinPool.commonPool());
+        assertThat(r.makespan()).isCloseTo(3, within(1e-9));
+        assertThat(r.iterations()).isEqualTo(1);
+    }
+
+    @Test
+    void spreadsLoadWhenSeveralModulesShareTheMakespan() {
+        // once modules 0 and 1 both sit at two days no single move shortens the makespan
+        int[] sam = {100, 100, 100, 100, 100, 100};
+        CapacityScheduler.Result r = solve(new double[]{100, 200, 300}, new double[3], sam, noDue(6), new int[6]);
+
+        assertThat(r.makespan()).isCloseTo(1, within(1e-9));
+    }
+
+    @Test
+    void keepsCurrentAssignmentsThatCannotBeImproved() {
+        int[] sam = {300, 300};
+        CapacityScheduler.Result r = solve(new double[]{100, 100}, new double[2], sam, noDue(2), new int[]{1, 0});
+
+        assertThat(r.assignment()).containsExactly(1, 0);
+        assertThat(r.iterations()).isZero();
+    }
+
+    @Test
+    void rejectsModulesWithoutCapacity() {
+        assertThatThrownBy(() -> new CapacityScheduler(new double[0], new double[0], new int[]{1}, noDue(1), unassigned(1), 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void solvesEmptyInputs_withoutSearching() {
+        CapacityScheduler.Result noProducts = solve(new double[]{100, 200}, new double[]{300, 0}, new int[0], noDue(0), new int[0]);
+        assertThat(noProducts.assignment()).isEmpty();
+        assertThat(noProducts.makespan()).isCloseTo(3, within(1e-9));
+        assertThat(noProducts.iterations()).isZero();
+
+        CapacityScheduler.Result nothing = solve(new double[0], new double[0], new int[0], noDue(0), new int[0]);
+        assertThat(nothing.assignment()).isEmpty();
+        assertThat(nothing.makespan()).isZero();
+    }
+
+    // wall-clock cost is measured by CapacitySchedulerBenchmarks in benchmarks/
+    @Test
+    void schedulesThousandsOfProducts_closeToAPerfectSplit() {
+        Plant plant = new Plant(40, 5000, 7);
+
+        CapacityScheduler.Result r = solve(plant.capacity, plant.pinned, plant.sam, plant.due, unassigned(plant.sam.length));
+
+        // the makespan of a perfect split is total / capacity; the plan must come close to it
+        assertThat(r.makespan()).isLessThan(plant.perfectMakespan() * 1.05);
+        assertThat(r.assignment()).doesNotContain(-1);
+        assertThat(r.iterations()).isPositive().isLessThan(10_000);
+    }
+
+    @Test
+    void stopsAtTheIterationCap_orTheBudget_withEveryProductPlaced() {
+        Plant plant = new Plant(40, 5000, 7);
+
+        // no budget leaves the greedy placement as it is
+        CapacityScheduler.Result greedy = new CapacityScheduler(plant.capacity, plant.pinned, plant.sam, plant.due, unassigned(5000), 10)
+                .solve(10_000, 0, ForkJoinPool.commonPool());
+        CapacityScheduler.Result capped = new CapacityScheduler(plant.capacity, plant.pinned, plant.sam, plant.due, unassigned(5000), 10)
+                .solve(3, BUDGET, ForkJoinPool.commonPool());
+
+        assertThat(greedy.iterations()).isZero();
+        assertThat(greedy.assignment()).doesNotContain(-1);
+        assertThat(capped.iterations()).isEqualTo(3);
+        assertThat(capped.makespan()).isLessThanOrEqualTo(greedy.makespan());
+    }
+
+    private static final class Plant {
+        final double[] capacity;
+        final double[] pinned;
+        final int[] sam;
+        final double[] due;
+
+        Plant(int modules, int products, long seed) {
+            SplittableRandom random = new SplittableRandom(seed);
+            capacity = new double[modules];
+            pinned = new double[modules];
+            for (int k = 0; k < modules; k++) {
+                capacity[k] = random.nextInt(8, 25) * ScheduleService.SAM_PER_PERSON_DAY;
+                pinned[k] = random.nextInt(0, 20_000);
+            }
+            sam = new int[products];
+            due = new double[products];
+            for (int i = 0; i < products; i++) {
+                sam[i] = random.nextInt(200, 6_000);
+                due[i] = random.nextInt(4) == 0 ? NO_DUE : random.nextInt(5, 60);
+            }
+        }
+
+        double perfectMakespan() {
+            return (Arrays.stream(sam).asLongStream().sum() + Arrays.stream(pinned).sum()) / Arrays.stream(capacity).sum();
+        }
+    }
+}
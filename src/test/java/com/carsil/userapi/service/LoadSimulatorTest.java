@@ -0,0 +1,136 @@
+package com.carsil.userapi.service;
+
+import com.carsil.userapi.dto.LoadSimulation;
+import com.carsil.userapi.dto.LoadSimulationRequest;
+import com.carsil.userapi.dto.ModuleLoadSimulation;
+import com.carsil.userapi.dto.ProductLoadRow;
+import com.carsil.userapi.dto.ProductLoadSimulation;
+import com.carsil.userapi.model.Module;
+import com.carsil.userapi.model.Product;
+import com.carsil.userapi.support.TestEntities;
+import com.carsil.userapi.repository.ModuleRepository;
+import com.carsil.userapi.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static com.carsil.userapi.support.TestEntities.product;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LoadSimulatorTest {
+
+    @Mock
+    private ModuleRepository moduleRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ResourceVersions versions;
+
+    @InjectMocks
+    private LoadSimulator simulator;
+
+    private static Module module(long id, int people) {
+        Module m = TestEntities.module(id);
+        m.setName("M" + id);
+        m.setNumPersons(people);
+        return m;
+    }
+
+    @BeforeEach
+    void setup() {
+        lenient().when(versions.modulesTag()).thenReturn("v1");
+        lenient().when(moduleRepository.findAll()).thenReturn(List.of(module(1, 4), module(2, 8)));
+        lenient().when(productRepository.findLoadRows()).thenReturn(List.of(
+                new ProductLoadRow(10L, "1000", 1L, 2000),
+                new ProductLoadRow(11L, "1001", 1L, 2000),
+                new ProductLoadRow(12L, "1002", 2L, 1000),
+                new ProductLoadRow(13L, "1003", null, 800)));
+    }
+
+    @Test
+    void headcount_recomputesOnlyThatModuleAndItsProducts() {
+        LoadSimulation r = simulator.simulate(new LoadSimulationRequest(Map.of(1L, 8), null), true);
+
+        assertThat(r.maxLoadDaysBefore()).isEqualByComparingTo("2.50");
+        assertThat(r.maxLoadDaysAfter()).isEqualByComparingTo("1.25");
+        assertThat(r.totalLoadDaysBefore()).isEqualByComparingTo("2.81");
+        assertThat(r.totalLoadDaysAfter()).isEqualByComparingTo("1.56");
+        assertThat(r.numPersonsAfter() - r.numPersonsBefore()).isEqualTo(4);
+        assertThat(r.modules()).extracting(ModuleLoadSimulation::moduleId).containsExactly(1L);
+        assertThat(r.products())
+                .extracting(ProductLoadSimulation::productId, ProductLoadSimulation::loadDaysBefore, ProductLoadSimulation::loadDaysAfter)
+                .containsExactly(
+                        tuple(10L, new BigDecimal("1.25"), new BigDecimal("0.63")),
+                        tuple(11L, new BigDecimal("1.25"), new BigDecimal("0.63")));
+    }
+
+    @Test
+    void moves_shiftSamBetweenModules_andCanChangeTheBottleneck() {
+        LoadSimulation r = simulator.simulate(new LoadSimulationRequest(Map.of(1L, 2), Map.of(11L, 2L, 13L, 2L)), false);
+
+        assertThat(r.modules())
+                .extracting(ModuleLoadSimulation::moduleId, ModuleLoadSimulation::samTotalAfter,
+                        ModuleLoadSimulation::products, ModuleLoadSimulation::loadDaysAfter)
+                .containsExactly(
+                        tuple(1L, 2000L, 1, new BigDecimal("2.50")),
+                        tuple(2L, 3800L, 3, new BigDecimal("1.19")));
+        assertThat(r.bottleneckAfter()).isEqualTo(1L);
+        assertThat(r.products()).isEmpty();
+    }
+
+    @Test
+    void productWrites_updateTheSnapshotWithoutRereadingIt() {
+        simulator.simulate(null, false);
+
+        Product heavier = product(12, 2L);
+        heavier.setSamTotal(5000);
+        Product removed = product(10, 1L);
+        removed.setSamTotal(2000);
+        simulator.onProductChanged(ProductChangedEvent.updated(heavier));
+        simulator.onProductChanged(ProductChangedEvent.deleted(removed));
+        LoadSimulation r = simulator.simulate(null, false);
+
+        assertThat(r.bottleneckBefore()).isEqualTo(2L);
+        assertThat(r.maxLoadDaysBefore()).isEqualByComparingTo("1.56");
+        assertThat(r.totalLoadDaysBefore()).isEqualByComparingTo("2.81");
+        verify(productRepository, times(1)).findLoadRows();
+    }
+
+    @Test
+    void moduleWrites_rereadOnlyTheModules() {
+        simulator.simulate(null, false);
+        when(versions.modulesTag()).thenReturn("v2");
+        when(moduleRepository.findAll()).thenReturn(List.of(module(1, 8), module(2, 8)));
+
+        LoadSimulation r = simulator.simulate(null, false);
+
+        assertThat(r.maxLoadDaysBefore()).isEqualByComparingTo("1.25");
+        verify(moduleRepository, times(2)).findAll();
+        verify(productRepository, times(1)).findLoadRows();
+    }
+
+    @Test
+    void unknownIds_areRejected() {
+        assertThatThrownBy(() -> simulator.simulate(new LoadSimulationRequest(Map.of(9L, 3), null), false))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Module not found");
+        assertThatThrownBy(() -> simulator.simulate(new LoadSimulationRequest(null, Map.of(99L, 1L)), false))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Product not found");
+        assertThatThrownBy(() -> simulator.simulate(new LoadSimulationRequest(Map.of(1L, -1), null), false))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
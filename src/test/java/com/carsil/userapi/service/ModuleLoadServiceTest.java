@@ -0,0 +1,102 @@
+package com.carsil.userapi.service;
+
+import com.carsil.userapi.dto.ModuleLoadSnapshot;
+import com.carsil.userapi.repository.ModuleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ModuleLoadServiceTest {
+
+    @Mock
+    private ModuleRepository moduleRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private ApplicationEventPublisher events;
+
+    @InjectMocks
+    private ModuleLoadService moduleLoadService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setup() {
+        lenient().when(transactionTemplate.execute(any(TransactionCallback.class)))
+                .thenAnswer(inv -> inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        lenient().doAnswer(inv -> {
+            inv.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_recomputesEachDirtyModuleOnce() {
+        moduleLoadService.markDirty(1L, 2L);
+        moduleLoadService.markDirty(1L, null);
+        moduleLoadService.markDirty(2L);
+
+        moduleLoadService.flush();
+
+        ArgumentCaptor<Collection<Long>> ids = ArgumentCaptor.forClass(Collection.class);
+        verify(moduleRepository, times(1)).recomputeSamTotals(ids.capture());
+        assertThat(ids.getValue()).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(moduleLoadService.pending()).isZero();
+        // evicted by the recomputation, read back into the cache after it commits
+        verify(moduleRepository).findAllById(ids.getValue());
+    }
+
+    @Test
+    void flush_withNothingDirty_touchesNothing() {
+        moduleLoadService.markDirty((Long) null);
+        moduleLoadService.flush();
+        verifyNoInteractions(moduleRepository);
+    }
+
+    @Test
+    void flush_keepsIdsForRetry_whenRecomputationFails() {
+        when(moduleRepository.recomputeSamTotals(anyCollection())).thenThrow(new IllegalStateException("down"));
+        moduleLoadService.markDirty(3L);
+
+        moduleLoadService.flush();
+
+        assertThat(moduleLoadService.pending()).isEqualTo(1);
+    }
+
+    @Test
+    void flush_publishesLoadDelta_onlyForModulesThatMoved() {
+        when(moduleRepository.findLoadSnapshots(anyCollection())).thenReturn(
+                List.of(new ModuleLoadSnapshot(1L, 1000L, 2), new ModuleLoadSnapshot(2L, 50L, 1)),
+                List.of(new ModuleLoadSnapshot(1L, 2080L, 2), new ModuleLoadSnapshot(2L, 50L, 1)));
+        moduleLoadService.markDirty(1L, 2L);
+
+        moduleLoadService.flush();
+
+        ArgumentCaptor<ModuleLoadChangedEvent> event = ArgumentCaptor.forClass(ModuleLoadChangedEvent.class);
+        verify(events, times(1)).publishEvent(event.capture());
+        assertThat(event.getValue().moduleId()).isEqualTo(1L);
+        assertThat(event.getValue().samDelta()).isEqualTo(1080L);
+        assertThat(event.getValue().totalLoadDays()).isEqualByComparingTo(new BigDecimal("2.60"));
+    }
+}
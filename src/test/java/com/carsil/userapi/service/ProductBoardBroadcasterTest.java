@@ -0,0 +1,109 @@
+package com.carsil.userapi.service;
+
+import com.carsil.userapi.controller.ProductController;
+import com.carsil.userapi.model.Product;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.MockMvcPrint;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static com.carsil.userapi.support.TestEntities.product;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@WebMvcTest(ProductController.class)
+// events are written by the sender thread while perform() returns; printing the response would race with it
+@AutoConfigureMockMvc(print = MockMvcPrint.NONE)
+@Import({ProductBoardBroadcaster.class, ResourceVersions.class})
+@TestPropertySource(properties = {"carsil.board.replay-size=2", "carsil.board.client-queue=4"})
+@WithMockUser(username = "test", roles = {"USER"})
+class ProductBoardBroadcasterTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private ProductBoardBroadcaster broadcaster;
+
+    @MockBean
+    private ProductService productService;
+
+    @MockBean
+    private ProductImportService productImportService;
+
+    @MockBean
+    private ProductExportService productExportService;
+
+    private MvcResult subscribe(String query, String lastEventId) throws Exception {
+        var request = get("/api/products/events" + query);
+        if (lastEventId != null) request.header("Last-Event-ID", lastEventId);
+        return mvc.perform(request).andExpect(request().asyncStarted()).andReturn();
+    }
+
+    private static String body(MvcResult result) throws Exception {
+        return result.getResponse().getContentAsString();
+    }
+
+    @Test
+    void pushesOnlyTheSubscribedModule() throws Exception {
+        MvcResult board = subscribe("?moduleId=1", null);
+
+        Product made = product(11, 1L);
+        made.setQuantity(10);
+        made.setQuantityMade(4);
+        broadcaster.onProductChanged(ProductChangedEvent.updated(product(10, 2L), Set.of("quantityMade")));
+        broadcaster.onProductChanged(ProductChangedEvent.updated(made, Set.of("quantityMade")));
+        broadcaster.onModuleLoadChanged(new ModuleLoadChangedEvent(1L, 120, 20, BigDecimal.ONE, BigDecimal.ZERO));
+
+        await().atMost(5, TimeUnit.SECONDS).until(() -> body(board).contains("event:module"));
+        String body = body(board);
+        assertThat(body).contains("event:product").contains("\"id\":11").contains("\"quantityMade\":4");
+        assertThat(body).doesNotContain("\"id\":10");
+    }
+
+    @Test
+    void productMovedAway_reachesTheBoardOfItsOldModule() throws Exception {
+        MvcResult oldBoard = subscribe("?moduleId=1", null);
+        MvcResult newBoard = subscribe("?moduleId=2", null);
+
+        broadcaster.onProductChanged(ProductChangedEvent.updated(product(30, 2L), Set.of("module"), 1L));
+
+        await().atMost(5, TimeUnit.SECONDS).until(() -> body(oldBoard).contains("\"id\":30")
+                && body(newBoard).contains("\"id\":30"));
+        assertThat(body(oldBoard)).contains("\"moduleId\":2").contains("\"previousModuleId\":1");
+    }
+
+    @Test
+    void replaysMissedEvents_andResetsWhenTheyAreGone() throws Exception {
+        MvcResult probe = subscribe("", null);
+        broadcaster.onProductChanged(ProductChangedEvent.updated(product(20, 1L)));
+        await().atMost(5, TimeUnit.SECONDS).until(() -> body(probe).contains("\"id\":20"));
+        String seen = body(probe);
+        int idLine = seen.lastIndexOf("id:");
+        String lastId = seen.substring(idLine + 3, seen.indexOf('\n', idLine));
+
+        broadcaster.onProductChanged(ProductChangedEvent.updated(product(21, 1L)));
+        MvcResult resumed = subscribe("", lastId);
+        await().atMost(5, TimeUnit.SECONDS).until(() -> body(resumed).contains("\"id\":21"));
+        assertThat(body(resumed)).doesNotContain("\"id\":20");
+
+        // the replay buffer holds two events, so a board three events behind has to reload
+        broadcaster.onProductChanged(ProductChangedEvent.updated(product(22, 1L)));
+        broadcaster.onProductChanged(ProductChangedEvent.updated(product(23, 1L)));
+        MvcResult stale = subscribe("", lastId);
+        await().atMost(5, TimeUnit.SECONDS).until(() -> body(stale).contains("event:reset"));
+    }
+}
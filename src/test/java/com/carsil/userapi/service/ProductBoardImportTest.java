@@ -0,0 +1,59 @@
+package com.carsil.userapi.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+/** An import far larger than a board's queue reaches the board as one event per committed chunk. */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:board-import;DB_CLOSE_DELAY=-1",
+        "carsil.board.client-queue=4",
+        "carsil.board.replay-size=4",
+        "carsil.board.heartbeat-ms=3600000",
+        "carsil.import.chunk-size=10"
+})
+@AutoConfigureMockMvc
+@WithMockUser
+class ProductBoardImportTest {
+
+    private static final int ROWS = 25;
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private ProductImportService importService;
+
+    @Autowired
+    private ProductBoardBroadcaster broadcaster;
+
+    @Test
+    void importOfManyRows_keepsTheBoardConnected() throws Exception {
+        MvcResult board = mvc.perform(get("/api/products/events")).andExpect(request().asyncStarted()).andReturn();
+
+        StringBuilder csv = new StringBuilder("op,reference,brand,campaign,type,price,assignedDate,quantity,S\n");
+        for (int i = 1; i <= ROWS; i++) csv.append(7000 + i).append(",1,Carsil,1,A,1,2024-01-01,10,10\n");
+        assertThat(importService.importCsv(new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)))
+                .getErrors()).isEmpty();
+
+        await().atMost(5, TimeUnit.SECONDS).until(() -> board.getResponse().getContentAsString().contains("\"op\":\"" + (7000 + ROWS) + "\""));
+        String body = board.getResponse().getContentAsString();
+        for (int i = 1; i <= ROWS; i++) assertThat(body).contains("\"op\":\"" + (7000 + i) + "\"");
+        assertThat(body.split("event:products", -1)).hasSize(4);
+        assertThat(body).doesNotContain("event:product\n");
+        assertThat(broadcaster.clients()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,127 @@
+package com.carsil.userapi.service;
+
+import com.carsil.userapi.dto.ProductExportFilter;
+import com.carsil.userapi.model.Module;
+import com.carsil.userapi.model.Product;
+import jakarta.persistence.EntityManager;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@Import(ProductExportService.class)
+class ProductExportServiceTest {
+
+    @Autowired
+    private ProductExportService exportService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void seed() {
+        Module m = new Module();
+        m.setName("Linea 1");
+        m.setNumPersons(5);
+        entityManager.persist(m);
+        product("101", "Carsil", "Camisa, manga larga", LocalDate.of(2024, 2, 1), m);
+        product("102", "Nike", "=HYPERLINK(\"x\")", LocalDate.of(2024, 3, 1), null);
+        product("203", "Carsil", null, null, null);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private void product(String op, String brand, String description, LocalDate plantEntry, Module m) {
+        Product p = new Product();
+        p.setOp(op);
+        p.setReference("500");
+        p.setBrand(brand);
+        p.setCampaign("7");
+        p.setType("A1");
+        p.setDescription(description);
+        p.setPrice(new BigDecimal("12.50"));
+        p.setQuantity(10);
+        p.setSizeQuantities(Map.of("S", 4, "XL", 6));
+        p.setAssignedDate(LocalDate.of(2024, 1, 15));
+        p.setPlantEntryDate(plantEntry);
+        p.setModule(m);
+        entityManager.persist(p);
+    }
+
+    private String csv(List<String> columns, ProductExportFilter filter) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.write(exportService.prepare("csv", columns, filter), out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void csv_writesSelectedColumns_quotedAndDefused() throws IOException {
+        String body = csv(List.of("op", "description", "moduleName", "price", "sizes"), ProductExportFilter.NONE);
+
+        assertThat(body).startsWith("\uFEFF");
+        assertThat(body.substring(1).split("\r\n")).containsExactly(
+                "op,description,moduleName,price,2,4,6,8,10,12,14,16,XS,S,M,L,XL,XXL",
+                "101,\"Camisa, manga larga\",Linea 1,12.5000,,,,,,,,,,4,,,6,",
+                "102,\"'=HYPERLINK(\"\"x\"\")\",,12.5000,,,,,,,,,,4,,,6,",
+                "203,,,12.5000,,,,,,,,,,4,,,6,");
+    }
+
+    @Test
+    void csv_appliesTheSearchAndDateFilters() throws IOException {
+        assertThat(csv(List.of("op"), new ProductExportFilter("carsil", null, null)).split("\r\n"))
+                .containsExactly("\uFEFFop", "101", "203");
+        assertThat(csv(List.of("op"), new ProductExportFilter(null, LocalDate.of(2024, 2, 15), null)).split("\r\n"))
+                .containsExactly("\uFEFFop", "102");
+        assertThat(csv(List.of("op"), new ProductExportFilter("10", null, LocalDate.of(2024, 2, 1))).split("\r\n"))
+                .containsExactly("\uFEFFop", "101");
+    }
+
+    @Test
+    void xlsx_writesTypedCells() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = exportService.write(exportService.prepare("xlsx",
+                List.of("op", "quantity", "plantEntryDate", "status"), ProductExportFilter.NONE), out);
+
+        assertThat(rows).isEqualTo(3);
+        try (XSSFWorkbook book = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            Sheet sheet = book.getSheetAt(0);
+            assertThat(sheet.getLastRowNum()).isEqualTo(3);
+            assertThat(sheet.getRow(0).getCell(2).getStringCellValue()).isEqualTo("plantEntryDate");
+            Row first = sheet.getRow(1);
+            assertThat(first.getCell(0).getStringCellValue()).isEqualTo("101");
+            assertThat(first.getCell(1).getNumericCellValue()).isEqualTo(10.0);
+            assertThat(first.getCell(2).getLocalDateTimeCellValue().toLocalDate()).isEqualTo(LocalDate.of(2024, 2, 1));
+            assertThat(first.getCell(3).getStringCellValue()).isEqualTo("PROCESO");
+            assertThat(sheet.getRow(3).getCell(2)).isNull();
+        }
+    }
+
+    @Test
+    void prepare_rejectsBadRequestsBeforeReadingAnything() {
+        assertThatThrownBy(() -> exportService.prepare("pdf", null, null))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("format");
+        assertThatThrownBy(() -> exportService.prepare("csv", List.of("op", "secret"), null))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("secret");
+        assertThatThrownBy(() -> exportService.prepare("csv", null,
+                new ProductExportFilter(null, LocalDate.of(2024, 2, 1), LocalDate.of(2024, 1, 1))))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(exportService.prepare(null, List.of("OP", "op"), null).fields()).hasSize(1);
+    }
+}
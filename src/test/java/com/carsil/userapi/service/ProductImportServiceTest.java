@@ -0,0 +1,184 @@
+package com.carsil.userapi.service;
+
+import com.carsil.userapi.dto.ImportReport;
+import com.carsil.userapi.model.Module;
+import com.carsil.userapi.model.Product;
+import com.carsil.userapi.repository.ModuleRepository;
+import com.carsil.userapi.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.verify;
+
+@DataJpaTest
+@Import(ProductImportService.class)
+@ImportAutoConfiguration(ValidationAutoConfiguration.class)
+class ProductImportServiceTest {
+
+    @Autowired
+    private ProductImportService importService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ModuleRepository moduleRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @MockBean
+    private ModuleLoadService moduleLoadService;
+
+    private ImportReport importCsv(String csv) throws Exception {
+        return importService.importCsv(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void importCsv_insertsValidRows_andReportsTheRest() throws Exception {
+        Module m = new Module();
+        m.setName("Modulo 1");
+        m.setNumPersons(4);
+        m = moduleRepository.save(m);
+
+        String csv = """
+                op,reference,brand,campaign,type,price,assignedDate,quantity,sam,moduleId,S,M
+                1001,500,Carsil,12,A1,10.5,2024-03-01,10,2,%d,4,6
+                1002,501,Carsil,12,A1,"12,5",01/03/2024,,,,5,0
+                1001,502,Carsil,12,A1,10,2024-03-01,,,,1,1
+                1003,50X,Carsil,12,A1,10,2024-03-01,,,,1,1
+                1004,503,Carsil,12,A1,10,2024-03-01,9,,,4,4
+                1005,504,Carsil,12,A1,10,2024-03-01,,,999,1,1
+                """.formatted(m.getId());
+
+        ImportReport report = importCsv(csv);
+
+        assertThat(report.getRowsRead()).isEqualTo(6);
+        assertThat(report.getImported()).isEqualTo(2);
+        assertThat(report.getFailed()).isEqualTo(4);
+        assertThat(report.getErrors()).extracting(ImportReport.RowError::line).containsExactly(4L, 5L, 6L, 7L);
+        assertThat(report.getErrors().get(0).message()).contains("repeated");
+        assertThat(report.getErrors().get(1).message()).contains("reference");
+        assertThat(report.getErrors().get(2).message()).contains("does not match");
+        assertThat(report.getErrors().get(3).message()).contains("Module not found");
+
+        entityManager.clear();
+        Product first = productRepository.findByOp("1001").get(0);
+        assertThat(first.getSizeQuantities()).isEqualTo(Map.of("S", 4, "M", 6));
+        assertThat(first.getMissing()).isEqualTo(10);
+        assertThat(first.getSamTotal()).isEqualTo(20);
+        verify(moduleLoadService).markDirty(m.getId());
+
+        Product second = productRepository.findByOp("1002").get(0);
+        assertThat(second.getQuantity()).isEqualTo(5);
+        assertThat(second.getPrice()).isEqualByComparingTo("12.5");
+    }
+
+    @Test
+    void importCsv_rejectsOpsAlreadyInTheDatabase() throws Exception {
+        importCsv("op;reference;brand;campaign;type;price;assignedDate;XL\n2001;1;Carsil;1;A;1;2024-01-01;3\n");
+
+        ImportReport report = importCsv("op,reference,brand,campaign,type,price,assignedDate,XL\n2001,1,Carsil,1,A,1,2024-01-01,3\n");
+
+        assertThat(report.getImported()).isZero();
+        assertThat(report.getErrors()).singleElement()
+                .satisfies(e -> assertThat(e.message()).contains("already exists"));
+    }
+
+    @Test
+    void importCsv_rejectsOpsRepeatedInALaterChunk() throws Exception {
+        ReflectionTestUtils.setField(importService, "chunkSize", 2);
+        ImportReport report;
+        try {
+            report = importCsv("""
+                    op,reference,brand,campaign,type,price,assignedDate,XL
+                    3001,1,Carsil,1,A,1,2024-01-01,3
+                    3002,1,Carsil,1,A,1,2024-01-01,3
+                    3001,1,Carsil,1,A,1,2024-01-01,3
+                    """);
+        } finally {
+            ReflectionTestUtils.setField(importService, "chunkSize", 500);
+        }
+
+        assertThat(report.getImported()).isEqualTo(2);
+        assertThat(report.getErrors()).singleElement()
+                .satisfies(e -> assertThat(e.line()).isEqualTo(4L))
+                .satisfies(e -> assertThat(e.message()).contains("already exists"));
+    }
+
+    @Test
+    void importXlsx_readsTheFirstSheetWithTypedCells() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (XSSFWorkbook book = new XSSFWorkbook()) {
+            CellStyle date = book.createCellStyle();
+            date.setDataFormat(book.createDataFormat().getFormat("d/m/yy"));
+            CellStyle money = book.createCellStyle();
+            money.setDataFormat(book.createDataFormat().getFormat("#,##0.00"));
+            Sheet sheet = book.createSheet("Ordenes");
+            String[] header = {"op", "reference", "brand", "campaign", "type", "price", "assignedDate", "quantity", "S", "M"};
+            Row head = sheet.createRow(0);
+            for (int i = 0; i < header.length; i++) head.createCell(i).setCellValue(header[i]);
+
+            Row first = sheet.createRow(1);
+            first.createCell(0).setCellValue(4001);
+            first.createCell(1).setCellValue("500");
+            first.createCell(2).setCellValue("Carsil");
+            first.createCell(3).setCellValue(12);
+            first.createCell(4).setCellValue("A1");
+            first.createCell(5).setCellValue(1234.5);
+            first.getCell(5).setCellStyle(money);
+            first.createCell(6).setCellValue(LocalDate.of(2024, 3, 1));
+            first.getCell(6).setCellStyle(date);
+            first.createCell(9).setCellValue(6);
+
+            Row second = sheet.createRow(3);
+            second.createCell(0).setCellValue("4001");
+            second.createCell(1).setCellValue("501");
+            book.write(out);
+        }
+
+        ImportReport report = importService.importXlsx(new ByteArrayInputStream(out.toByteArray()));
+
+        assertThat(report.getRowsRead()).isEqualTo(2);
+        assertThat(report.getImported()).isEqualTo(1);
+        assertThat(report.getErrors()).singleElement().satisfies(e -> assertThat(e.line()).isEqualTo(4L));
+
+        entityManager.clear();
+        Product p = productRepository.findByOp("4001").get(0);
+        assertThat(p.getPrice()).isEqualByComparingTo("1234.5");
+        assertThat(p.getAssignedDate()).isEqualTo(LocalDate.of(2024, 3, 1));
+        assertThat(p.getCampaign()).isEqualTo("12");
+        assertThat(p.getSizeQuantities()).isEqualTo(Map.of("M", 6));
+    }
+
+    @Test
+    void importXlsx_rejectsFilesThatAreNotWorkbooks() {
+        assertThrows(IllegalArgumentException.class,
+                () -> importService.importXlsx(new ByteArrayInputStream("op,reference\n".getBytes(StandardCharsets.UTF_8))));
+    }
+
+    @Test
+    void importCsv_rejectsUnknownColumns() {
+        assertThrows(IllegalArgumentException.class,
+                () -> importCsv("op,reference,color\n1,2,red\n"));
+    }
+}
@@ -0,0 +1,89 @@
+package com.carsil.userapi.service;
+
+import com.carsil.userapi.model.Product;
+import com.carsil.userapi.model.enums.ProductionStatus;
+import com.carsil.userapi.model.enums.StoppageReason;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProductPatchApplierTest {
+
+    private final ProductPatchApplier applier = new ProductPatchApplier();
+
+    private Product product() {
+        Product p = new Product();
+        p.setId(1L);
+        p.setOp("100");
+        p.setPrice(new BigDecimal("12.50"));
+        p.setQuantity(10);
+        p.setQuantityMade(2);
+        p.setSam(1.5);
+        p.setAssignedDate(LocalDate.of(2024, 5, 1));
+        return p;
+    }
+
+    @Test
+    void apply_coercesValuesAndReportsOnlyRealChanges() {
+        Product p = product();
+        Map<String, Object> updates = new HashMap<>();
+        updates.put("op", 100);                   // same value, sent as a number
+        updates.put("quantity", "12");
+        updates.put("sam", 2);
+        updates.put("plantEntryDate", "2024-05-10");
+        updates.put("status", "confección");
+        updates.put("stoppageReason", "falta todo");
+        updates.put("sizeQuantities", Map.of("S", 6, "M", 6.0));
+
+        Set<String> changed = applier.apply(p, updates, Set.of());
+
+        assertThat(changed).containsExactlyInAnyOrder(
+                "quantity", "sam", "plantEntryDate", "status", "stoppageReason", "sizeQuantities");
+        assertThat(p.getQuantity()).isEqualTo(12);
+        assertThat(p.getSam()).isEqualTo(2.0);
+        assertThat(p.getPlantEntryDate()).isEqualTo(LocalDate.of(2024, 5, 10));
+        assertThat(p.getStatus()).isEqualTo(ProductionStatus.CONFECCION);
+        assertThat(p.getStoppageReason()).isEqualTo(StoppageReason.FALTA_TODO);
+        assertThat(p.getSizeQuantities()).containsEntry("S", 6).containsEntry("M", 6);
+    }
+
+    @Test
+    void apply_ignoresReadOnlyAndDelegatedKeys() {
+        Product p = product();
+
+        Set<String> changed = applier.apply(p, Map.of("id", 99, "totalPrice", 1, "moduleId", 3), Set.of("moduleId"));
+
+        assertThat(changed).isEmpty();
+        assertThat(p.getId()).isEqualTo(1L);
+    }
+
+    @Test
+    void apply_rejectsUnknownFieldsBeforeWriting() {
+        Product p = product();
+
+        assertThatThrownBy(() -> applier.apply(p, Map.of("quantity", 20, "colour", "red"), Set.of()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("colour");
+        assertThat(p.getQuantity()).isEqualTo(10);
+    }
+
+    @Test
+    void apply_leavesProductUntouched_whenAValueIsInvalid() {
+        Product p = product();
+        Map<String, Object> updates = new HashMap<>();
+        updates.put("quantity", 20);
+        updates.put("quantityMade", 2.5);
+
+        assertThatThrownBy(() -> applier.apply(p, updates, Set.of()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("quantityMade");
+        assertThat(p.getQuantity()).isEqualTo(10);
+    }
+}
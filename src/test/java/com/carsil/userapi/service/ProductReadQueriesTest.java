@@ -0,0 +1,181 @@
+package com.carsil.userapi.service;
+
+import com.carsil.userapi.dto.ProductSlice;
+import com.carsil.userapi.dto.ProductView;
+import com.carsil.userapi.model.Module;
+import com.carsil.userapi.model.Product;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+/**
+ * The statement counts documented on {@link ProductService}'s read methods, against a seeded
+ * schema: each holds for any number of rows, and none of the projections leaves an entity behind.
+ */
+@DataJpaTest
+@Import({ProductService.class, ModuleService.class})
+@TestPropertySource(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+class ProductReadQueriesTest {
+
+    private static final int MODULES = 3;
+    private static final int PRODUCTS_PER_MODULE = 8;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ModuleService moduleService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @MockBean
+    private ProductPatchApplier patchApplier;
+
+    @MockBean
+    private ModuleLoadService moduleLoadService;
+
+    @MockBean
+    private ProductSearchIndex productSearchIndex;
+
+    @MockBean
+    private ProgressLog progressLog;
+
+    @MockBean
+    private ResourceVersions versions;
+
+    private final List<Module> modules = new ArrayList<>();
+    private final List<Product> products = new ArrayList<>();
+
+    @BeforeEach
+    void seed() {
+        for (int m = 0; m < MODULES; m++) {
+            Module module = new Module();
+            module.setName("M" + m);
+            module.setNumPersons(5 + m);
+            entityManager.persist(module);
+            modules.add(module);
+            for (int i = 0; i < PRODUCTS_PER_MODULE; i++) {
+                Product p = new Product();
+                p.setOp(Integer.toString(1000 + m * 100 + i));
+                p.setReference("100");
+                p.setBrand("Carsil");
+                p.setCampaign("1");
+                p.setType("A1");
+                p.setPrice(BigDecimal.TEN);
+                p.setQuantity(10);
+                p.setSizeQuantities(Map.of("S", 4, "M", 6));
+                p.setAssignedDate(LocalDate.of(2024, 1, 1 + i));
+                p.setPlantEntryDate(LocalDate.of(2024, 2, 1 + i));
+                p.setModule(module);
+                p.setSam(1.5);
+                p.setSamTotal(15);
+                entityManager.persist(p);
+                products.add(p);
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private Statistics statistics() {
+        return entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private <T> T counting(long minStatements, long maxStatements, Supplier<T> read) {
+        entityManager.clear();
+        Statistics stats = statistics();
+        stats.clear();
+        T result = read.get();
+        assertThat(stats.getPrepareStatementCount()).as("statements").isBetween(minStatements, maxStatements);
+        return result;
+    }
+
+    private <T> T oneStatement(Supplier<T> read) {
+        return counting(1, 1, read);
+    }
+
+    private void assertNothingManaged() {
+        assertThat(entityManager.unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+    }
+
+    @Test
+    void listReads_issueOneStatement_andManageNothing() {
+        int all = MODULES * PRODUCTS_PER_MODULE;
+
+        List<ProductView> everything = oneStatement(productService::getAll);
+        assertThat(everything).hasSize(all).allSatisfy(v -> assertThat(v.module()).isNotNull());
+        assertNothingManaged();
+
+        assertThat(oneStatement(() -> productService.getProductsByModule(modules.get(1).getId())))
+                .hasSize(PRODUCTS_PER_MODULE)
+                .allSatisfy(v -> assertThat(v.module().name()).isEqualTo("M1"));
+        assertThat(oneStatement(() -> moduleService.getProducts(modules.get(2).getId()))).hasSize(PRODUCTS_PER_MODULE);
+        assertThat(oneStatement(() -> productService.getProductsByDateRange(
+                LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 3)))).hasSize(3 * MODULES);
+        assertThat(oneStatement(() -> productService.search("10"))).hasSize(all);
+        assertNothingManaged();
+    }
+
+    @Test
+    void pagesAndTheStream_issueOneStatementEach() {
+        ProductSlice first = oneStatement(() -> productService.getPage("assignedDate", null, 5));
+        assertThat(first.getContent()).hasSize(5);
+        ProductSlice next = oneStatement(() -> productService.getPage("assignedDate", first.getNextCursor(), 5));
+        assertThat(next.getContent().get(0).id()).isNotEqualTo(first.getContent().get(4).id());
+        oneStatement(() -> productService.getPage("id", null, 100));
+
+        List<ProductView> streamed = new ArrayList<>();
+        oneStatement(() -> {
+            productService.streamAll(streamed::add);
+            return null;
+        });
+        assertThat(streamed).hasSize(MODULES * PRODUCTS_PER_MODULE);
+        assertNothingManaged();
+    }
+
+    @Test
+    void indexedSearch_fetchesTheHitsInOneStatement_inRankOrder() {
+        List<Long> ranked = products.stream().map(Product::getId).toList().reversed();
+        when(productSearchIndex.isReady()).thenReturn(true);
+        when(productSearchIndex.search("carsil")).thenReturn(ranked);
+
+        List<ProductView> hits = oneStatement(() -> productService.search("carsil"));
+
+        assertThat(hits).extracting(ProductView::id).containsExactlyElementsOf(ranked);
+        assertNothingManaged();
+    }
+
+    @Test
+    void pointLookups_needAtMostTheProductAndItsModule() {
+        Product p = products.get(0);
+
+        ProductView byId = counting(0, 2, () -> productService.getById(p.getId()).orElseThrow());
+        assertThat(byId.module().id()).isEqualTo(modules.get(0).getId());
+        assertThat(byId.loadDays()).isPositive();
+
+        assertThat(counting(0, 2, () -> productService.getProductsByOp(p.getOp())))
+                .extracting(ProductView::id).containsExactly(p.getId());
+    }
+}
@@ -0,0 +1,64 @@
+package com.carsil.userapi.service;
+
+import com.carsil.userapi.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductSearchIndexTest {
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setup() {
+        index = new ProductSearchIndex();
+        index.put(product(1L, "71234", "5550", "12", "Nike"));
+        index.put(product(2L, "1234", "8800", "13", "Adidas"));
+        index.put(product(3L, "12345", "1234", "14", "Puma"));
+        index.put(product(4L, "999", "777", "15", "Carsil Kids"));
+    }
+
+    private Product product(Long id, String op, String reference, String campaign, String brand) {
+        Product p = new Product();
+        p.setId(id);
+        p.setOp(op);
+        p.setReference(reference);
+        p.setCampaign(campaign);
+        p.setBrand(brand);
+        return p;
+    }
+
+    @Test
+    void search_ranksExactOpThenPrefixThenOtherFields() {
+        assertThat(index.search("1234")).containsExactly(2L, 3L, 1L);
+    }
+
+    @Test
+    void search_isCaseInsensitiveOnBrand() {
+        assertThat(index.search("NIK")).containsExactly(1L);
+        assertThat(index.search("kids")).containsExactly(4L);
+    }
+
+    @Test
+    void search_shortQueriesScanAllFields() {
+        assertThat(index.search("99")).containsExactly(4L);
+        assertThat(index.search("x")).isEmpty();
+    }
+
+    @Test
+    void put_replacesPreviousValues_andRemoveDropsTheProduct() {
+        index.put(product(1L, "40000", "5550", "12", "Reebok"));
+        assertThat(index.search("nike")).isEmpty();
+        assertThat(index.search("reebok")).containsExactly(1L);
+
+        index.remove(1L);
+        assertThat(index.search("reebok")).isEmpty();
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    @Test
+    void search_returnsNothing_whenATrigramIsUnknown() {
+        assertThat(index.search("12z")).isEmpty();
+    }
+}
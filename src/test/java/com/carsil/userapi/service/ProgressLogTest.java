@@ -0,0 +1,193 @@
+package com.carsil.userapi.service;
+
+import com.carsil.userapi.dto.ThroughputPoint;
+import com.carsil.userapi.model.Product;
+import com.carsil.userapi.model.ProgressEvent;
+import com.carsil.userapi.model.enums.RollupGranularity;
+import com.carsil.userapi.model.enums.RollupScope;
+import com.carsil.userapi.repository.ProgressEventRepository;
+import com.carsil.userapi.repository.ProgressRollupRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import static com.carsil.userapi.support.TestEntities.product;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@DataJpaTest
+@Import(ProgressLog.class)
+@TestPropertySource(properties = {"carsil.progress.zone=UTC", "carsil.progress.max-attempts=2"})
+// the log only queues after a commit, so these tests run without the rolled-back test transaction
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProgressLogTest {
+
+    @Autowired
+    private ProgressLog progressLog;
+
+    @Autowired
+    private ProgressEventRepository eventRepository;
+
+    @Autowired
+    private ProgressRollupRepository rollupRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @SpyBean
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    @AfterEach
+    void clean() {
+        eventRepository.deleteAllInBatch();
+        rollupRepository.deleteAllInBatch();
+    }
+
+    private void at(String instant) {
+        progressLog.setClock(Clock.fixed(Instant.parse(instant), ZoneOffset.UTC));
+    }
+
+    @Test
+    void flush_writesEventsAndFoldsThemIntoRollups() {
+        Product a = product(1, 7L);
+        Product b = product(2, 7L);
+        at("2024-05-02T08:10:00Z");
+        progressLog.record(a, 5);
+        progressLog.record(b, 3);
+        at("2024-05-02T08:50:00Z");
+        progressLog.record(a, -1);
+        at("2024-05-02T09:05:00Z");
+        progressLog.record(a, 4);
+        progressLog.record(a, 0);
+        assertThat(progressLog.pending()).isEqualTo(4);
+
+        progressLog.flush();
+        assertThat(progressLog.pending()).isZero();
+        assertThat(eventRepository.count()).isEqualTo(4);
+
+        // a second flush adds to the existing buckets instead of inserting new ones
+        at("2024-05-03T10:00:00Z");
+        progressLog.record(b, 2);
+        progressLog.flush();
+
+        LocalDate day = LocalDate.of(2024, 5, 2);
+        assertThat(progressLog.throughput(RollupScope.MODULE, "7", RollupGranularity.HOUR, day, day))
+                .extracting(ThroughputPoint::bucketStart, ThroughputPoint::units, ThroughputPoint::changes)
+                .containsExactly(
+                        tuple(LocalDateTime.of(2024, 5, 2, 8, 0), 7L, 3),
+                        tuple(LocalDateTime.of(2024, 5, 2, 9, 0), 4L, 1));
+        assertThat(progressLog.throughput(RollupScope.MODULE, "7", RollupGranularity.DAY, day, day.plusDays(1)))
+                .extracting(ThroughputPoint::units)
+                .containsExactly(11L, 2L);
+        assertThat(progressLog.throughput(RollupScope.OP, "2", RollupGranularity.DAY, day, day.plusDays(1)))
+                .extracting(ThroughputPoint::units)
+                .containsExactly(3L, 2L);
+        assertThat(progressLog.recent(1L, 2))
+                .extracting(ProgressEvent::getDelta)
+                .containsExactly(4, -1);
+    }
+
+    @Test
+    void record_insideATransaction_waitsForTheCommit() {
+        transactionTemplate.executeWithoutResult(tx -> {
+            progressLog.record(product(1, null), 2);
+            assertThat(progressLog.pending()).isZero();
+        });
+        assertThat(progressLog.pending()).isEqualTo(1);
+
+        transactionTemplate.executeWithoutResult(tx -> {
+            progressLog.record(product(1, null), 2);
+            tx.setRollbackOnly();
+        });
+        assertThat(progressLog.pending()).isEqualTo(1);
+        progressLog.flush();
+    }
+
+    @Test
+    void flush_isolatesARejectedChange_andWritesTheRestOfItsBatch() {
+        long before = progressLog.dropped();
+        at("2024-05-02T08:00:00Z");
+        Product bad = product(3, 7L);
+        bad.setOp("9".repeat(300)); // longer than the op column, so the rollup key is rejected
+        progressLog.record(product(1, 7L), 1);
+        progressLog.record(product(2, 7L), 2);
+        progressLog.record(bad, 5);
+        progressLog.record(product(4, 7L), 4);
+
+        progressLog.flush();
+        assertThat(eventRepository.findAll()).extracting(ProgressEvent::getDelta).containsExactlyInAnyOrder(1, 2);
+        assertThat(progressLog.pending()).isEqualTo(2);
+        assertThat(progressLog.dropped()).isEqualTo(before);
+
+        progressLog.flush();
+        assertThat(progressLog.pending()).isZero();
+        assertThat(progressLog.dropped()).isEqualTo(before + 1);
+        assertThat(eventRepository.findAll()).extracting(ProgressEvent::getDelta).containsExactlyInAnyOrder(1, 2, 4);
+    }
+
+    @Test
+    void flush_backsOffWhileTheDatabaseIsDown_withoutDroppingAnything() {
+        long before = progressLog.dropped();
+        at("2024-05-02T08:00:00Z");
+        progressLog.record(product(1, 7L), 3);
+        doThrow(new CannotGetJdbcConnectionException("down"))
+                .when(jdbcTemplate).batchUpdate(anyString(), anyCollection(), anyInt(), any());
+        try {
+            for (int i = 0; i < 5; i++) {
+                progressLog.flush();
+                progressLog.flush(); // still backing off: not even attempted
+                at(Instant.parse("2024-05-02T08:00:00Z").plusSeconds(60L * (i + 1)).toString());
+            }
+            verify(jdbcTemplate, times(5)).batchUpdate(anyString(), anyCollection(), anyInt(), any());
+            assertThat(progressLog.pending()).isEqualTo(1);
+            assertThat(progressLog.dropped()).isEqualTo(before);
+        } finally {
+            reset(jdbcTemplate);
+        }
+
+        progressLog.flush();
+        assertThat(progressLog.pending()).isZero();
+        assertThat(eventRepository.findAll()).extracting(ProgressEvent::getDelta).containsExactly(3);
+    }
+
+    @Test
+    void record_dropsChanges_onceTheQueueIsFull() {
+        progressLog.setQueueCapacity(2);
+        try {
+            long before = progressLog.dropped();
+            for (int i = 1; i <= 3; i++) progressLog.record(product(i, 7L), 1);
+
+            assertThat(progressLog.pending()).isEqualTo(2);
+            assertThat(progressLog.dropped()).isEqualTo(before + 1);
+            progressLog.flush();
+            assertThat(eventRepository.count()).isEqualTo(2);
+        } finally {
+            progressLog.setQueueCapacity(100_000);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.carsil.userapi.service;
+
+import com.carsil.userapi.dto.RuntimeStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class RequestStatsTest {
+
+    private final MeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+    private final RequestStats stats = new RequestStats();
+
+    @BeforeEach
+    void setup() {
+        ReflectionTestUtils.setField(stats, "registry", registry);
+        ReflectionTestUtils.setField(stats, "pinningMonitor", mock(PinningMonitor.class));
+    }
+
+    private Timer timer(String uri) {
+        return Timer.builder(RequestStats.TIMER).tag("uri", uri).publishPercentileHistogram().register(registry);
+    }
+
+    @Test
+    void snapshot_mergesTheApiRoutes_andIgnoresTheRest() {
+        for (int i = 0; i < 98; i++) timer("/api/products/{id}").record(Duration.ofMillis(2));
+        timer("/api/modules").record(Duration.ofMillis(300));
+        timer("/api/modules").record(Duration.ofMillis(300));
+        timer("/actuator/prometheus").record(Duration.ofSeconds(5));
+
+        RuntimeStats s = stats.snapshot(10, 10);
+
+        assertThat(s.requests()).isEqualTo(100);
+        assertThat(s.p50Ms()).isBetween(2.0, 3.0);
+        assertThat(s.p99Ms()).isBetween(300.0, 400.0);
+        assertThat(s.maxMs()).isLessThan(5000.0);
+    }
+
+    @Test
+    void reset_startsANewWindow() {
+        Timer slow = timer("/api/modules");
+        for (int i = 0; i < 10; i++) slow.record(Duration.ofMillis(500));
+        stats.reset();
+        timer("/api/products/{id}").record(Duration.ofMillis(2));
+
+        RuntimeStats s = stats.snapshot(10, 10);
+
+        assertThat(s.requests()).isEqualTo(1);
+        assertThat(s.maxMs()).isLessThan(10.0);
+    }
+}
@@ -0,0 +1,53 @@
+package com.carsil.userapi.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static com.carsil.userapi.support.TestEntities.product;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResourceVersionsTest {
+
+    @Test
+    void productWrite_changesItsTagAndTheCollectionTag_only() {
+        ResourceVersions v = new ResourceVersions();
+        v.learnModule(1L, 7L);
+        v.learnModule(2L, 7L);
+        String one = v.productTag(1L);
+        String two = v.productTag(2L);
+        String all = v.productsTag();
+
+        v.onProductChanged(ProductChangedEvent.updated(product(1, 7L)));
+
+        assertThat(v.productTag(1L)).isNotEqualTo(one);
+        assertThat(v.productTag(2L)).isEqualTo(two);
+        assertThat(v.productsTag()).isNotEqualTo(all);
+    }
+
+    @Test
+    void moduleWrite_changesTheTagsOfItsProducts() {
+        ResourceVersions v = new ResourceVersions();
+        v.learnModule(1L, 7L);
+        v.learnModule(2L, 8L);
+        String one = v.productTag(1L);
+        String two = v.productTag(2L);
+        String module = v.moduleTag(8L);
+
+        v.moduleChanged(7L);
+
+        assertThat(v.productTag(1L)).isNotEqualTo(one);
+        assertThat(v.productTag(2L)).isEqualTo(two);
+        assertThat(v.moduleTag(8L)).isEqualTo(module);
+
+        v.allModulesChanged();
+
+        assertThat(v.moduleTag(8L)).isNotEqualTo(module);
+        assertThat(v.productTag(2L)).isNotEqualTo(two);
+    }
+
+    @Test
+    void tagsFromAnotherProcess_neverMatch() {
+        assertThat(new ResourceVersions().productsTag()).isNotEqualTo(new ResourceVersions().productsTag());
+    }
+}
@@ -0,0 +1,124 @@
+package com.carsil.userapi.service;
+
+import com.carsil.userapi.dto.TokenPair;
+import com.carsil.userapi.model.User;
+import com.carsil.userapi.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class TokenServiceTest {
+
+    private static final Instant NOW = Instant.parse("2024-05-01T08:00:00Z");
+
+    private UserRepository userRepository;
+    private TokenService tokenService;
+
+    @BeforeEach
+    void setup() {
+        userRepository = mock(UserRepository.class);
+        tokenService = new TokenService();
+        ReflectionTestUtils.setField(tokenService, "userRepository", userRepository);
+        ReflectionTestUtils.setField(tokenService, "secret", "0123456789abcdef0123456789abcdef");
+        ReflectionTestUtils.setField(tokenService, "accessTtl", Duration.ofMinutes(15));
+        ReflectionTestUtils.setField(tokenService, "refreshTtl", Duration.ofHours(8));
+        tokenService.setClock(Clock.fixed(NOW, ZoneOffset.UTC));
+        tokenService.init();
+    }
+
+    @Test
+    void issuedAccessToken_verifiesOnlyAsAccess() {
+        TokenPair pair = tokenService.issue("luis");
+
+        assertThat(tokenService.verify(pair.accessToken(), TokenService.ACCESS))
+                .map(TokenService.Claims::subject).contains("luis");
+        assertThat(tokenService.verify(pair.accessToken(), TokenService.REFRESH)).isEmpty();
+        assertThat(tokenService.verify(pair.refreshToken(), TokenService.ACCESS)).isEmpty();
+    }
+
+    @Test
+    void verify_rejectsTamperedAndExpiredTokens() {
+        String token = tokenService.issue("luis").accessToken();
+        String tampered = (token.charAt(0) == 'A' ? 'B' : 'A') + token.substring(1);
+
+        assertThat(tokenService.verify(tampered, TokenService.ACCESS)).isEmpty();
+        assertThat(tokenService.verify("garbage", TokenService.ACCESS)).isEmpty();
+
+        tokenService.setClock(Clock.fixed(NOW.plus(Duration.ofMinutes(15)), ZoneOffset.UTC));
+        assertThat(tokenService.verify(token, TokenService.ACCESS)).isEmpty();
+    }
+
+    @Test
+    void refresh_rotatesAndRevokesThePresentedToken() {
+        when(userRepository.findByName("luis")).thenReturn(Optional.of(new User()));
+        TokenPair first = tokenService.issue("luis");
+
+        TokenPair second = tokenService.refresh(first.refreshToken());
+
+        assertThat(tokenService.verify(second.accessToken(), TokenService.ACCESS)).isPresent();
+        assertThatThrownBy(() -> tokenService.refresh(first.refreshToken()))
+                .isInstanceOf(BadCredentialsException.class);
+    }
+
+    @Test
+    void refresh_concurrentlyWithTheSameToken_issuesOnePair() throws Exception {
+        int threads = 8;
+        // every request has passed verification before any of them continues
+        CyclicBarrier verified = new CyclicBarrier(threads);
+        when(userRepository.findByName("luis")).thenAnswer(inv -> {
+            verified.await(5, TimeUnit.SECONDS);
+            return Optional.of(new User());
+        });
+        String token = tokenService.issue("luis").refreshToken();
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<TokenPair>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) results.add(pool.submit(() -> tokenService.refresh(token)));
+            int issued = 0;
+            for (Future<TokenPair> result : results) {
+                try {
+                    result.get(10, TimeUnit.SECONDS);
+                    issued++;
+                } catch (ExecutionException e) {
+                    assertThat(e.getCause()).isInstanceOf(BadCredentialsException.class);
+                }
+            }
+            assertThat(issued).isEqualTo(1);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void revoke_isForgottenOnceTheTokenExpires() {
+        String token = tokenService.issue("luis").accessToken();
+        tokenService.revoke(token, TokenService.ACCESS);
+
+        assertThat(tokenService.verify(token, TokenService.ACCESS)).isEmpty();
+        assertThat(tokenService.revokedCount()).isEqualTo(1);
+
+        tokenService.setClock(Clock.fixed(NOW.plus(Duration.ofHours(1)), ZoneOffset.UTC));
+        tokenService.purgeRevoked();
+        assertThat(tokenService.revokedCount()).isZero();
+    }
+}
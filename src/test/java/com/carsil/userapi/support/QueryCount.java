@@ -0,0 +1,14 @@
+package com.carsil.userapi.support;
+
+/**
+ * JDBC work observed by {@link QueryCounter} between a reset and a snapshot. A batch counts one
+ * statement per entry but one round trip; commits and rollbacks are round trips too. Rows are
+ * the {@code ResultSet.next()} calls that returned a row.
+ */
+public record QueryCount(long statements, long selects, long inserts, long updates, long deletes,
+                         long rows, long roundTrips) {
+
+    public long writes() {
+        return inserts + updates + deletes;
+    }
+}
@@ -0,0 +1,28 @@
+package com.carsil.userapi.support;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+
+/** Puts the application DataSource behind a {@link QueryCounter}, which tests can autowire. */
+@TestConfiguration(proxyBeanMethods = false)
+public class QueryCountConfig {
+
+    @Bean
+    public QueryCounter queryCounter() {
+        return new QueryCounter();
+    }
+
+    @Bean
+    public static BeanPostProcessor queryCountingDataSource(ObjectProvider<QueryCounter> counter) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource ? counter.getObject().wrap(dataSource) : bean;
+            }
+        };
+    }
+}
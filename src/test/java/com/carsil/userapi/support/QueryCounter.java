@@ -0,0 +1,91 @@
+package com.carsil.userapi.support;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.QueryType;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryUtils;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts what goes over a DataSource: statements by type, rows read and round trips. Counting is
+ * global, not per thread, so work done off the caller's thread (streamed responses, after-commit
+ * hooks) is included; keep scheduled jobs quiet while measuring.
+ */
+public class QueryCounter implements QueryExecutionListener, MethodExecutionListener {
+
+    private final LongAdder statements = new LongAdder();
+    private final LongAdder selects = new LongAdder();
+    private final LongAdder inserts = new LongAdder();
+    private final LongAdder updates = new LongAdder();
+    private final LongAdder deletes = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder roundTrips = new LongAdder();
+
+    /** {@code dataSource} behind a proxy reporting to this counter. */
+    public DataSource wrap(DataSource dataSource) {
+        return ProxyDataSourceBuilder.create(dataSource)
+                .name("query-counter")
+                .listener(this)
+                .methodListener(this)
+                .proxyResultSet()
+                .build();
+    }
+
+    public void reset() {
+        for (LongAdder a : List.of(statements, selects, inserts, updates, deletes, rows, roundTrips)) {
+            a.reset();
+        }
+    }
+
+    public QueryCount snapshot() {
+        return new QueryCount(statements.sum(), selects.sum(), inserts.sum(), updates.sum(), deletes.sum(),
+                rows.sum(), roundTrips.sum());
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        roundTrips.increment();
+        // a prepared batch is one query with a parameter set per entry
+        for (QueryInfo q : queryInfoList) {
+            long n = execInfo.isBatch() && !q.getParametersList().isEmpty() ? q.getParametersList().size() : 1;
+            statements.add(n);
+            QueryType type = QueryUtils.getQueryType(q.getQuery());
+            switch (type) {
+                case SELECT -> selects.add(n);
+                case INSERT -> inserts.add(n);
+                case UPDATE -> updates.add(n);
+                case DELETE -> deletes.add(n);
+                default -> {
+                }
+            }
+        }
+    }
+
+    @Override
+    public void beforeMethod(MethodExecutionContext context) {
+    }
+
+    @Override
+    public void afterMethod(MethodExecutionContext context) {
+        String method = context.getMethod().getName();
+        Object target = context.getTarget();
+        if (target instanceof ResultSet) {
+            if (method.equals("next") && Boolean.TRUE.equals(context.getResult())) rows.increment();
+        } else if (target instanceof Connection && (method.equals("commit") || method.equals("rollback"))) {
+            roundTrips.increment();
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.carsil.userapi.support;
+
+import com.carsil.userapi.model.Module;
+import com.carsil.userapi.model.Product;
+
+/**
+ * Detached entities carrying only what change events and in-memory views read: the id, the op
+ * (the id as text) and a module reference. Tests set any other field they assert on themselves.
+ */
+public final class TestEntities {
+
+    private TestEntities() {
+    }
+
+    public static Module module(long id) {
+        Module m = new Module();
+        m.setId(id);
+        return m;
+    }
+
+    public static Product product(long id, Long moduleId) {
+        Product p = new Product();
+        p.setId(id);
+        p.setOp(Long.toString(id));
+        if (moduleId != null) p.setModule(module(moduleId));
+        return p;
+    }
+}